@@ -66,3 +66,30 @@ export function adaptTaskForBackend(task: Task): Task {
     priority: task.priority // Ajouter la priorité pour qu'elle soit envoyée au backend
   };
 }
+
+/**
+ * Construit un patch de fusion (RFC 7396) ne contenant que les champs fournis :
+ * les autres champs de la tâche restent inchangés sur le serveur
+ */
+export function adaptTaskPatchForBackend(updates: Partial<Task>): Partial<Task> {
+  const patch: Partial<Task> = {};
+  if (updates.title !== undefined || updates.label !== undefined) {
+    patch.label = updates.title ?? updates.label;
+  }
+  if (updates.description !== undefined) {
+    patch.description = updates.description;
+  }
+  if (updates.status !== undefined) {
+    patch.status = updates.status;
+  } else if (updates.completed !== undefined) {
+    // Rétrocompatibilité
+    patch.status = updates.completed ? TaskStatus.COMPLETED : TaskStatus.PENDING;
+  }
+  if (updates.priority !== undefined) {
+    patch.priority = updates.priority;
+  }
+  if (updates.dueDate !== undefined) {
+    patch.dueDate = updates.dueDate;
+  }
+  return patch;
+}
@@ -1,7 +1,7 @@
 import { Injectable, inject } from '@angular/core';
 import { HttpClient, HttpErrorResponse } from '@angular/common/http';
-import { Observable, map, catchError, throwError, switchMap } from 'rxjs';
-import { Task, TaskStatus, TaskStatusUpdate, TaskCompletionUpdate, adaptTaskForUI, adaptTaskForBackend } from '../models/task.model';
+import { Observable, map, catchError, throwError } from 'rxjs';
+import { Task, TaskStatus, TaskStatusUpdate, TaskCompletionUpdate, adaptTaskForUI, adaptTaskForBackend, adaptTaskPatchForBackend } from '../models/task.model';
 
 @Injectable({
   providedIn: 'root'
@@ -101,29 +101,15 @@ export class TaskService {
   }
   
   /**
-   * Met à jour une tâche
+   * Met à jour une tâche en une seule requête : seuls les champs fournis sont
+   * envoyés, sous forme de patch de fusion appliqué par le serveur
    */
   updateTask(id: number, updates: Partial<Task>): Observable<Task> {
-    const backendUpdates = adaptTaskForBackend(updates as Task);
-    
-    // Utiliser le nouvel endpoint PATCH pour la mise à jour complète
-    // Nous devons d'abord récupérer la tâche existante pour la mettre à jour
-    return this.getTaskById(id).pipe(
-      map(existingTask => {
-        // Fusionner les données existantes avec les mises à jour
-        const updatedTask = {
-          ...existingTask,
-          ...backendUpdates,
-          id // S'assurer que l'ID est préservé
-        };
-        
-        // Appeler l'endpoint PATCH pour la mise à jour complète
-        return this.http.patch<Task>(`${this.apiUrl}/${id}/update`, updatedTask).pipe(
-          map(task => adaptTaskForUI(task)),
-          catchError(this.handleError)
-        );
-      }),
-      switchMap(observable => observable),
+    const patch = adaptTaskPatchForBackend(updates);
+    return this.http.patch<Task>(`${this.apiUrl}/${id}`, patch, {
+      headers: { 'Content-Type': 'application/merge-patch+json' }
+    }).pipe(
+      map(task => adaptTaskForUI(task)),
       catchError(this.handleError)
     );
   }
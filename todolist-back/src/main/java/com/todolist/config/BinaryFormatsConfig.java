@@ -0,0 +1,89 @@
+package com.todolist.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Encodages binaires CBOR ({@code application/cbor}) et Smile
+ * ({@code application/x-jackson-smile}), négociés par les en-têtes Accept et
+ * Content-Type en plus de JSON, pour les clients d'autres services qui lisent de
+ * grandes listes de tâches.
+ * <p>
+ * Les mappers sont construits par le builder de Spring Boot, avec la même
+ * configuration ({@code spring.jackson.*}) et les mêmes modules que le JSON ; le
+ * temps d'écriture est mesuré comme pour le JSON, avec le tag {@code format}.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class BinaryFormatsConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(
+            Jackson2ObjectMapperBuilder builder, ObjectProvider<MeterRegistry> meterRegistry) {
+        ObjectMapper objectMapper = builder.factory(new CBORFactory()).build();
+        return new TimedCborHttpMessageConverter(objectMapper, timer(meterRegistry, "cbor"));
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(
+            Jackson2ObjectMapperBuilder builder, ObjectProvider<MeterRegistry> meterRegistry) {
+        ObjectMapper objectMapper = builder.factory(new SmileFactory()).build();
+        return new TimedSmileHttpMessageConverter(objectMapper, timer(meterRegistry, "smile"));
+    }
+
+    private static Timer timer(ObjectProvider<MeterRegistry> meterRegistry, String format) {
+        return SerializationTimers.timer(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry), format);
+    }
+
+    /**
+     * Convertisseur CBOR qui mesure la durée d'écriture de chaque corps de réponse
+     */
+    static class TimedCborHttpMessageConverter extends MappingJackson2CborHttpMessageConverter {
+
+        private final Timer timer;
+
+        TimedCborHttpMessageConverter(ObjectMapper objectMapper, Timer timer) {
+            super(objectMapper);
+            this.timer = timer;
+        }
+
+        @Override
+        protected void writeInternal(Object object, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+            SerializationTimers.record(timer, () -> super.writeInternal(object, type, outputMessage));
+        }
+    }
+
+    /**
+     * Convertisseur Smile qui mesure la durée d'écriture de chaque corps de réponse
+     */
+    static class TimedSmileHttpMessageConverter extends MappingJackson2SmileHttpMessageConverter {
+
+        private final Timer timer;
+
+        TimedSmileHttpMessageConverter(ObjectMapper objectMapper, Timer timer) {
+            super(objectMapper);
+            this.timer = timer;
+        }
+
+        @Override
+        protected void writeInternal(Object object, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+            SerializationTimers.record(timer, () -> super.writeInternal(object, type, outputMessage));
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.todolist.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+/**
+ * Configuration des métriques exposées par Actuator ({@code /actuator/prometheus}).
+ * Les latences par endpoint proviennent de {@code http.server.requests} ; leurs
+ * percentiles sont configurés dans {@code application.properties}.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class MetricsConfig {
+
+    /**
+     * Remplace le convertisseur JSON de Spring Boot par une version qui mesure
+     * le temps de sérialisation des réponses
+     */
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(
+            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        return new TimedJacksonHttpMessageConverter(objectMapper, SerializationTimers.timer(meterRegistry, "json"));
+    }
+}
@@ -0,0 +1,93 @@
+package com.todolist.config;
+
+import com.todolist.persistence.TaskSnapshotStore;
+import com.todolist.persistence.TaskWriteAheadLog;
+import com.todolist.repository.ColumnarTaskRepository;
+import com.todolist.repository.InMemoryTaskRepository;
+import com.todolist.repository.JdbcTaskRepository;
+import com.todolist.repository.TaskRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Configuration du stockage des tâches, choisi par la propriété {@code todolist.storage} :
+ * {@code memory} (par défaut), {@code columnar} (en mémoire par colonnes, pour les parcours
+ * et statistiques sur de grands volumes, sans persistance) ou {@code jdbc} (base configurée
+ * par {@code spring.datasource.*}).
+ * <p>
+ * En stockage {@code memory}, la persistance sur disque via le journal des mutations est activée par
+ * {@code todolist.wal.enabled=true} ; les snapshots périodiques, qui bornent la taille
+ * du journal, par {@code todolist.snapshot.enabled=true}. Le stockage {@code columnar} est
+ * volatil : ses tâches sont perdues à l'arrêt, quelle que soit la configuration du journal.
+ */
+@Configuration
+@EnableScheduling
+public class PersistenceConfig {
+
+    /**
+     * Journal et snapshots du stockage {@code memory}, seul à les relire : ils ne
+     * sont pas créés avec les stockages {@code columnar} et {@code jdbc}, même si
+     * {@code todolist.wal.enabled=true}
+     */
+    @Configuration
+    @ConditionalOnProperty(name = "todolist.storage", havingValue = "memory", matchIfMissing = true)
+    static class InMemoryPersistenceConfig {
+
+        @Bean(destroyMethod = "close")
+        @ConditionalOnProperty(name = "todolist.wal.enabled", havingValue = "true")
+        public TaskWriteAheadLog taskWriteAheadLog(
+                @Value("${todolist.wal.directory:data/wal}") String directory,
+                @Value("${todolist.wal.fsync:always}") String fsync,
+                @Value("${todolist.wal.fsync-interval-ms:100}") long fsyncIntervalMillis,
+                @Value("${todolist.wal.max-batch-size:1024}") int maxBatchSize,
+                @Value("${todolist.wal.segment-size-mb:64}") long segmentSizeMb) throws IOException {
+            return new TaskWriteAheadLog(
+                    Paths.get(directory),
+                    TaskWriteAheadLog.FsyncPolicy.valueOf(fsync.trim().toUpperCase(Locale.ROOT)),
+                    fsyncIntervalMillis,
+                    maxBatchSize,
+                    segmentSizeMb * 1024 * 1024);
+        }
+
+        @Bean
+        @ConditionalOnProperty(name = {"todolist.wal.enabled", "todolist.snapshot.enabled"}, havingValue = "true")
+        public TaskSnapshotStore taskSnapshotStore(
+                @Value("${todolist.snapshot.directory:data/snapshots}") String directory) throws IOException {
+            return new TaskSnapshotStore(Paths.get(directory));
+        }
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "todolist.storage", havingValue = "memory", matchIfMissing = true)
+    public TaskRepository inMemoryTaskRepository(
+            ObjectProvider<TaskWriteAheadLog> writeAheadLog,
+            ObjectProvider<TaskSnapshotStore> snapshotStore) {
+        return new InMemoryTaskRepository(writeAheadLog.getIfAvailable(), snapshotStore.getIfAvailable());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "todolist.storage", havingValue = "columnar")
+    public TaskRepository columnarTaskRepository() {
+        return new ColumnarTaskRepository();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "todolist.storage", havingValue = "jdbc")
+    public TaskRepository jdbcTaskRepository(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${todolist.jdbc.batch-size:500}") int batchSize) {
+        return new JdbcTaskRepository(jdbcTemplate, new TransactionTemplate(transactionManager), batchSize);
+    }
+}
@@ -0,0 +1,96 @@
+package com.todolist.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.todolist.controller.TaskController;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsWebFilter;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+
+/**
+ * Configuration de la pile web réactive, non bloquante, choisie au démarrage par
+ * {@code spring.main.web-application-type=reactive} à la place de la pile
+ * servlet : serveur Netty, encodages CBOR et Smile et CORS équivalents à ceux de
+ * {@link BinaryFormatsConfig} et {@link WebConfig}.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConfig {
+
+    /**
+     * Netty plutôt que Tomcat, que Spring Boot choisirait en premier puisqu'il
+     * reste sur le classpath pour la pile servlet
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public Jackson2CborEncoder cborEncoder(Jackson2ObjectMapperBuilder builder) {
+        return new Jackson2CborEncoder(builder.factory(new CBORFactory()).build(), MediaType.APPLICATION_CBOR);
+    }
+
+    @Bean
+    public Jackson2CborDecoder cborDecoder(Jackson2ObjectMapperBuilder builder) {
+        return new Jackson2CborDecoder(builder.factory(new CBORFactory()).build(), MediaType.APPLICATION_CBOR);
+    }
+
+    @Bean
+    public Jackson2SmileEncoder smileEncoder(Jackson2ObjectMapperBuilder builder) {
+        return new Jackson2SmileEncoder(builder.factory(new SmileFactory()).build(), TaskController.APPLICATION_SMILE);
+    }
+
+    @Bean
+    public Jackson2SmileDecoder smileDecoder(Jackson2ObjectMapperBuilder builder) {
+        return new Jackson2SmileDecoder(builder.factory(new SmileFactory()).build(), TaskController.APPLICATION_SMILE);
+    }
+
+    /**
+     * Corps de requête et de réponse en CBOR et en Smile, en plus du JSON.
+     * Les codecs ajoutés passent avant ceux par défaut : le JSON est déclaré une
+     * seconde fois en premier pour rester l'encodage choisi quand le client
+     * accepte tous les types ou n'envoie pas d'en-tête Accept.
+     */
+    @Bean
+    public CodecCustomizer binaryFormatsCodecCustomizer(ObjectMapper objectMapper,
+                                                        Jackson2CborEncoder cborEncoder, Jackson2CborDecoder cborDecoder,
+                                                        Jackson2SmileEncoder smileEncoder, Jackson2SmileDecoder smileDecoder) {
+        return configurer -> {
+            configurer.customCodecs().registerWithDefaultConfig(new Jackson2JsonEncoder(objectMapper));
+            configurer.customCodecs().registerWithDefaultConfig(new Jackson2JsonDecoder(objectMapper));
+            configurer.customCodecs().registerWithDefaultConfig(cborEncoder);
+            configurer.customCodecs().registerWithDefaultConfig(cborDecoder);
+            configurer.customCodecs().registerWithDefaultConfig(smileEncoder);
+            configurer.customCodecs().registerWithDefaultConfig(smileDecoder);
+        };
+    }
+
+    @Bean
+    public CorsWebFilter corsWebFilter() {
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        CorsConfiguration config = new CorsConfiguration();
+
+        // Autoriser localhost:4200, comme WebConfig
+        config.addAllowedOrigin("http://localhost:4200");
+        config.addAllowedHeader("*");
+        config.addAllowedMethod("*");
+        source.registerCorsConfiguration("/**", config);
+
+        return new CorsWebFilter(source);
+    }
+}
@@ -0,0 +1,53 @@
+package com.todolist.config;
+
+import com.todolist.controller.TaskController;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure du temps d'écriture des corps de réponse, commune aux convertisseurs
+ * JSON, CBOR et Smile de Spring MVC
+ */
+final class SerializationTimers {
+
+    /**
+     * Écriture d'un corps de réponse par le convertisseur parent
+     */
+    @FunctionalInterface
+    interface BodyWrite {
+
+        void write() throws IOException;
+    }
+
+    private SerializationTimers() {
+    }
+
+    /**
+     * @param meterRegistry Registre des métriques
+     * @param format Valeur du tag {@code format} : json, cbor ou smile
+     * @return Minuteur {@link TaskController#SERIALIZATION_METRIC} de cet encodage
+     */
+    static Timer timer(MeterRegistry meterRegistry, String format) {
+        return Timer.builder(TaskController.SERIALIZATION_METRIC)
+                .description("Time spent serializing response bodies")
+                .tag("format", format)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Exécute une écriture et enregistre sa durée, même si elle échoue
+     * @param timer Minuteur de l'encodage
+     * @param write Écriture à mesurer
+     */
+    static void record(Timer timer, BodyWrite write) throws IOException {
+        long start = System.nanoTime();
+        try {
+            write.write();
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
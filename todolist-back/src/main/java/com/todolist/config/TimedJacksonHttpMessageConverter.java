@@ -0,0 +1,32 @@
+package com.todolist.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Convertisseur JSON de Spring MVC qui mesure la durée d'écriture de chaque corps de réponse
+ */
+public class TimedJacksonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private final Timer timer;
+
+    /**
+     * @param objectMapper Mapper configuré par Spring Boot
+     * @param timer Minuteur alimenté à chaque écriture
+     */
+    public TimedJacksonHttpMessageConverter(ObjectMapper objectMapper, Timer timer) {
+        super(objectMapper);
+        this.timer = timer;
+    }
+
+    @Override
+    protected void writeInternal(Object object, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+        SerializationTimers.record(timer, () -> super.writeInternal(object, type, outputMessage));
+    }
+}
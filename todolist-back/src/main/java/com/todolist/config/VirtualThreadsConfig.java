@@ -0,0 +1,48 @@
+package com.todolist.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Exécution des requêtes sur threads virtuels, activée par
+ * {@code todolist.threads.virtual=true} avec la pile servlet : chaque requête,
+ * et chaque réponse asynchrone (exports en flux), s'exécute sur son propre thread
+ * virtuel au lieu du pool de Tomcat ({@code server.tomcat.threads.max}).
+ * <p>
+ * Les appels bloquants du stockage (attente du journal, requêtes JDBC) libèrent
+ * alors leur thread porteur au lieu d'immobiliser un thread du pool ; le nombre de
+ * requêtes traitées en même temps n'est plus borné que par
+ * {@code server.tomcat.max-connections}, et en stockage {@code jdbc} par le pool
+ * de connexions.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "todolist.threads.virtual", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadsProtocolHandlerCustomizer() {
+        ExecutorService executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("todolist-request-", 0).factory());
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    /**
+     * Exécuteur des requêtes asynchrones de Spring MVC, à la place du pool créé par Spring Boot
+     */
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("todolist-async-", 0).factory()));
+    }
+}
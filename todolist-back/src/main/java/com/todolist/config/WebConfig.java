@@ -1,5 +1,6 @@
 package com.todolist.config;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.cors.CorsConfiguration;
@@ -11,6 +12,7 @@ import org.springframework.web.filter.CorsFilter;
  * Permet au frontend Angular (localhost:4200) d'accéder aux API du backend Spring Boot
  */
 @Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class WebConfig {
 
     @Bean
@@ -0,0 +1,747 @@
+package com.todolist.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todolist.model.BulkItemResult;
+import com.todolist.model.BulkStatusUpdate;
+import com.todolist.model.Task;
+import com.todolist.model.TaskChange;
+import com.todolist.model.TaskChanges;
+import com.todolist.model.TaskPage;
+import com.todolist.model.TaskPatch;
+import com.todolist.model.TaskStatistics;
+import com.todolist.model.TaskStatusUpdate;
+import com.todolist.service.ReactiveTaskService;
+import com.todolist.service.TaskVersionConflictException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.AbstractJackson2Encoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking REST controller for task operations, with the same contract as
+ * {@link TaskController}. It replaces it when the application runs on the
+ * reactive stack (spring.main.web-application-type=reactive): every call to the
+ * task service goes through {@link ReactiveTaskService}, off the server's event loop.
+ * <p>
+ * Full lists are streamed with backpressure: tasks are read page by page as the
+ * client consumes the response, and JSON is written from the cached bytes of each
+ * task, so a slow client holds neither a thread nor the whole list in memory.
+ */
+@RestController
+@RequestMapping("/api/tasks")
+@CrossOrigin(origins = "*", exposedHeaders = {TaskController.NEXT_CURSOR_HEADER, TaskController.TOTAL_COUNT_HEADER, HttpHeaders.ETAG}) // Allow cross-origin requests from frontend
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTaskController {
+
+    private final ReactiveTaskService taskService;
+    private final TaskResponseCache responseCache;
+    private final TaskFragmentCache fragments;
+    private final Jackson2CborEncoder cborEncoder;
+    private final Jackson2SmileEncoder smileEncoder;
+    private final int maxSubscribers;
+    private final Duration heartbeat;
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final Timer jsonSerializationTimer;
+    private final Timer streamSerializationTimer;
+
+    /**
+     * @param taskService Non-blocking task service
+     * @param responseCache Serializes pages from the cached JSON of their tasks
+     * @param fragments Cache of serialized tasks, for streamed responses
+     * @param cborEncoder Encoder of CBOR responses
+     * @param smileEncoder Encoder of Smile responses
+     * @param meterRegistry Metrics registry, the global one when metrics are not configured
+     * @param maxSubscribers Number of change event subscribers above which new ones are refused
+     * @param heartbeatMillis Interval of the comments sent to change event subscribers to keep connections open
+     */
+    @Autowired
+    public ReactiveTaskController(ReactiveTaskService taskService, TaskResponseCache responseCache,
+                                  TaskFragmentCache fragments, Jackson2CborEncoder cborEncoder,
+                                  Jackson2SmileEncoder smileEncoder, ObjectProvider<MeterRegistry> meterRegistry,
+                                  @Value("${todolist.events.max-subscribers:10000}") int maxSubscribers,
+                                  @Value("${todolist.events.heartbeat-ms:15000}") long heartbeatMillis) {
+        this.taskService = taskService;
+        this.responseCache = responseCache;
+        this.fragments = fragments;
+        this.cborEncoder = cborEncoder;
+        this.smileEncoder = smileEncoder;
+        this.maxSubscribers = maxSubscribers;
+        this.heartbeat = Duration.ofMillis(heartbeatMillis);
+        MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        this.jsonSerializationTimer = Timer.builder(TaskController.SERIALIZATION_METRIC)
+                .description("Time spent serializing response bodies")
+                .tag("format", "json")
+                .register(registry);
+        this.streamSerializationTimer = Timer.builder(TaskController.SERIALIZATION_METRIC)
+                .description("Time spent serializing response bodies")
+                .tag("format", "ndjson")
+                .register(registry);
+    }
+
+    /**
+     * Get all tasks, optionally filtered by status and/or priority, as {@link TaskController#getAllTasks}.
+     * Without limit or after, the list is streamed as the client reads it.
+     * @param status Status to filter on (optional)
+     * @param priority Priority to filter on (optional)
+     * @param limit Maximum page size (optional)
+     * @param after Cursor returned by the previous page (optional)
+     * @param exchange Current exchange, for Accept and If-None-Match
+     * @return List of matching tasks, 304 if unchanged since the client's ETag, or 400 if the cursor or limit is invalid
+     */
+    @GetMapping
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getAllTasks(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String priority,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            ServerWebExchange exchange) {
+        MediaType encoding = encoding(exchange);
+        if (limit != null || after != null) {
+            return conditional(exchange, encoding, () -> page(limit, after,
+                    (afterId, size) -> taskService.getTasksPage(status, priority, afterId, size), encoding, exchange));
+        }
+        return conditional(exchange, encoding, () -> Mono.just(ResponseEntity.ok()
+                .contentType(encoding)
+                .body(encode(taskService.streamTasks(status, priority), encoding, exchange))));
+    }
+
+    /**
+     * Stream all tasks as newline-delimited JSON, optionally filtered by status and/or priority
+     * @param status Status to filter on (optional)
+     * @param priority Priority to filter on (optional)
+     * @param exchange Current exchange, for its buffers
+     * @return One JSON task per line
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<DataBuffer>> streamAllTasks(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String priority,
+            ServerWebExchange exchange) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(writeFragments(taskService.streamTasks(status, priority), false, exchange));
+    }
+
+    /**
+     * Get incomplete tasks, paginated like {@link #getAllTasks}
+     * @param limit Maximum page size (optional)
+     * @param after Cursor returned by the previous page (optional)
+     * @param exchange Current exchange, for Accept and If-None-Match
+     * @return List of tasks to do, 304 if unchanged since the client's ETag, or 400 if the cursor or limit is invalid
+     */
+    @GetMapping("/incomplete")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getIncompleteTasks(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            ServerWebExchange exchange) {
+        MediaType encoding = encoding(exchange);
+        if (limit != null || after != null) {
+            return conditional(exchange, encoding,
+                    () -> page(limit, after, taskService::getIncompleteTasksPage, encoding, exchange));
+        }
+        return conditional(exchange, encoding, () -> Mono.just(ResponseEntity.ok()
+                .contentType(encoding)
+                .body(encode(taskService.streamIncompleteTasks(), encoding, exchange))));
+    }
+
+    /**
+     * Stream incomplete tasks as newline-delimited JSON
+     * @param exchange Current exchange, for its buffers
+     * @return One JSON task per line
+     */
+    @GetMapping(value = "/incomplete", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<DataBuffer>> streamIncompleteTasks(ServerWebExchange exchange) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(writeFragments(taskService.streamIncompleteTasks(), false, exchange));
+    }
+
+    /**
+     * Search tasks, as {@link TaskController#searchTasks}
+     * @param q Search query
+     * @param limit Maximum page size (optional)
+     * @param offset Number of matches to skip (optional)
+     * @param exchange Current exchange, for Accept and If-None-Match
+     * @return Page of matching tasks, 304 if unchanged since the client's ETag, or 400 if the query, limit or offset is invalid
+     */
+    @GetMapping("/search")
+    public Mono<ResponseEntity<List<Task>>> searchTasks(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Integer offset,
+            ServerWebExchange exchange) {
+        if (q.isBlank() || (limit != null && limit < 1) || (offset != null && offset < 0)) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        int size = limit == null ? TaskController.DEFAULT_PAGE_SIZE : Math.min(limit, TaskController.MAX_PAGE_SIZE);
+        return conditional(exchange, encoding(exchange), () -> taskService.searchTasks(q, offset == null ? 0 : offset, size)
+                .map(page -> ResponseEntity.ok()
+                        .header(TaskController.TOTAL_COUNT_HEADER, String.valueOf(page.getTotal()))
+                        .body(page.getTasks())));
+    }
+
+    /**
+     * Get the most urgent incomplete tasks, as {@link TaskController#getNextTasks}
+     * @param k Maximum number of tasks (default 20, at most 1000)
+     * @param exchange Current exchange, for Accept and If-None-Match
+     * @return Most urgent tasks first, 304 if unchanged since the client's ETag, or 400 if k is invalid
+     */
+    @GetMapping("/next")
+    public Mono<ResponseEntity<List<Task>>> getNextTasks(
+            @RequestParam(defaultValue = "" + TaskController.DEFAULT_NEXT_SIZE) int k,
+            ServerWebExchange exchange) {
+        if (k < 1) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return conditional(exchange, encoding(exchange),
+                () -> taskService.getNextTasks(Math.min(k, TaskController.MAX_PAGE_SIZE)).map(ResponseEntity::ok));
+    }
+
+    /**
+     * Get the changes made after a sequence number, as {@link TaskController#getChanges}
+     * @param since Sequence number of the last change the client knows
+     * @param limit Maximum number of changes (default and maximum 1000)
+     * @return Changes oldest first with the sequence to poll from next, a resync
+     * request if some changes are no longer kept, or 400 if limit is invalid
+     */
+    @GetMapping("/changes")
+    public Mono<ResponseEntity<TaskChanges>> getChanges(
+            @RequestParam long since,
+            @RequestParam(defaultValue = "" + TaskController.MAX_PAGE_SIZE) int limit) {
+        if (limit < 1 || limit > TaskController.MAX_PAGE_SIZE) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return taskService.getChanges(since, limit).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Stream task changes as Server-Sent Events, as {@link TaskController#streamChanges}.
+     * Each subscriber reads the change log at its own pace: a slow client holds no
+     * buffered events, and gets a resync event once its changes are no longer kept.
+     * @param lastEventId ID of the last event received, sent by the browser on reconnection
+     * @return Event stream, or 503 if the server already has too many subscribers
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<Flux<ServerSentEvent<Object>>> streamChanges(
+            @RequestHeader(value = TaskController.LAST_EVENT_ID_HEADER, required = false) String lastEventId) {
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        long current = taskService.getChangeSequence();
+        Long from = lastEventId != null ? parseSequence(lastEventId) : Long.valueOf(current);
+        Flux<ServerSentEvent<Object>> events = from != null && from <= current
+                ? followChanges(from)
+                : Flux.concat(Mono.just(resyncEvent(current)), followChanges(current));
+        Flux<ServerSentEvent<Object>> heartbeats = Flux.interval(heartbeat)
+                .map(tick -> ServerSentEvent.builder().comment("heartbeat").build());
+        return ResponseEntity.ok(Flux.merge(events, heartbeats)
+                .doFinally(signal -> subscribers.decrementAndGet()));
+    }
+
+    /**
+     * Get aggregate figures over all tasks
+     * @return Task counts per status and priority, overdue tasks and total Pomodoro count
+     */
+    @GetMapping("/stats")
+    public Mono<ResponseEntity<TaskStatistics>> getStatistics() {
+        return taskService.getStatistics().map(ResponseEntity::ok);
+    }
+
+    /**
+     * Get incomplete tasks whose due date has passed
+     * @return Overdue tasks, oldest due date first
+     */
+    @GetMapping("/overdue")
+    public Mono<ResponseEntity<List<Task>>> getOverdueTasks() {
+        return taskService.getOverdueTasks().map(ResponseEntity::ok);
+    }
+
+    /**
+     * Get incomplete tasks due within the next hours
+     * @param hours Look-ahead from now, in hours (default 24)
+     * @return Tasks due soon, earliest first, or 400 if hours is out of range
+     */
+    @GetMapping("/due-soon")
+    public Mono<ResponseEntity<List<Task>>> getTasksDueSoon(@RequestParam(defaultValue = "24") int hours) {
+        if (hours < 1 || hours > TaskController.MAX_DUE_WITHIN_HOURS) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return taskService.getTasksDueWithin(Duration.ofHours(hours)).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Get tasks whose due date falls in a range, as {@link TaskController#getTasksDueBetween}
+     * @param from Start of the range, inclusive, as an ISO-8601 instant (optional)
+     * @param to End of the range, exclusive, as an ISO-8601 instant (optional)
+     * @param incomplete Whether to keep only incomplete tasks (default false)
+     * @param exchange Current exchange, for Accept and If-None-Match
+     * @return Matching tasks, earliest due date first, 304 if unchanged since the client's ETag, or 400 if the range is empty
+     */
+    @GetMapping("/due")
+    public Mono<ResponseEntity<List<Task>>> getTasksDueBetween(
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(defaultValue = "false") boolean incomplete,
+            ServerWebExchange exchange) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return conditional(exchange, encoding(exchange), () -> taskService.getTasksDueBetween(
+                from != null ? Date.from(from) : null,
+                to != null ? Date.from(to) : null,
+                incomplete).map(ResponseEntity::ok));
+    }
+
+    /**
+     * Get a task by its ID
+     * @param id Task ID
+     * @param exchange Current exchange, for Accept and If-None-Match
+     * @return Matching task tagged with its version, 304 if unchanged since the client's ETag, or 404 if not found
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Task>> getTaskById(@PathVariable Long id, ServerWebExchange exchange) {
+        return taskService.getTaskById(id)
+                .map(task -> {
+                    String eTag = TaskController.eTag(taskService.getVersionTag(task), encoding(exchange));
+                    if (exchange.checkNotModified(eTag)) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).<Task>build();
+                    }
+                    return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).cacheControl(CacheControl.noCache()).body(task);
+                })
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Add a new task
+     * @param task Task to add
+     * @return Added task with its ID
+     */
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Task> addTask(@RequestBody Task task) {
+        return taskService.addTask(task);
+    }
+
+    /**
+     * Add several tasks in one request
+     * @param tasks Tasks to add
+     * @return One result per task, in request order, or 400 if the batch is empty or too large
+     */
+    @PostMapping("/bulk")
+    public Mono<ResponseEntity<List<BulkItemResult>>> addTasks(@RequestBody List<Task> tasks) {
+        if (tasks.isEmpty() || tasks.size() > TaskController.MAX_BULK_SIZE) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        List<BulkItemResult> results = new ArrayList<>(tasks.size());
+        List<Task> valid = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            if (task == null) {
+                results.add(BulkItemResult.invalid(null, "Task is required"));
+            } else {
+                results.add(null); // Filled once the task has its ID
+                valid.add(task);
+            }
+        }
+        return taskService.addTasks(valid).map(added -> {
+            Iterator<Task> created = added.iterator();
+            for (int i = 0; i < results.size(); i++) {
+                if (results.get(i) == null) {
+                    results.set(i, BulkItemResult.created(created.next()));
+                }
+            }
+            return ResponseEntity.ok(results);
+        });
+    }
+
+    /**
+     * Update the status of several tasks in one request
+     * @param updates ID and new status of each task
+     * @return One result per update, in request order, or 400 if the batch is empty or too large
+     */
+    @PatchMapping("/bulk/status")
+    public Mono<ResponseEntity<List<BulkItemResult>>> updateTaskStatuses(@RequestBody List<BulkStatusUpdate> updates) {
+        if (updates.isEmpty() || updates.size() > TaskController.MAX_BULK_SIZE) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        List<BulkItemResult> results = new ArrayList<>(updates.size());
+        List<BulkStatusUpdate> valid = new ArrayList<>(updates.size());
+        for (BulkStatusUpdate update : updates) {
+            if (update == null || update.getId() == null) {
+                results.add(BulkItemResult.invalid(null, "Task ID is required"));
+            } else if (update.getStatus() == null || !TaskController.isValidStatus(update.getStatus())) {
+                results.add(BulkItemResult.invalid(update.getId(), "Invalid status"));
+            } else {
+                results.add(null); // Filled once the update has been applied
+                valid.add(update);
+            }
+        }
+        return taskService.updateTaskStatuses(valid).map(updated -> {
+            Iterator<Optional<Task>> outcomes = updated.iterator();
+            Iterator<BulkStatusUpdate> applied = valid.iterator();
+            for (int i = 0; i < results.size(); i++) {
+                if (results.get(i) == null) {
+                    Long id = applied.next().getId();
+                    results.set(i, outcomes.next()
+                            .map(BulkItemResult::ok)
+                            .orElseGet(() -> BulkItemResult.notFound(id)));
+                }
+            }
+            return ResponseEntity.ok(results);
+        });
+    }
+
+    /**
+     * Delete several tasks in one request
+     * @param ids IDs of the tasks to delete
+     * @return One result per ID, in request order, or 400 if the batch is empty or too large
+     */
+    @PostMapping("/bulk/delete")
+    public Mono<ResponseEntity<List<BulkItemResult>>> deleteTasks(@RequestBody List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > TaskController.MAX_BULK_SIZE) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return taskService.deleteTasks(ids).map(deleted -> {
+            List<BulkItemResult> results = new ArrayList<>(ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                Long id = ids.get(i);
+                results.add(deleted.get(i) ? BulkItemResult.deleted(id) : BulkItemResult.notFound(id));
+            }
+            return ResponseEntity.ok(results);
+        });
+    }
+
+    /**
+     * Update task status, as {@link TaskController#updateTaskStatus}
+     * @param id Task ID
+     * @param statusUpdate Object containing the new status
+     * @param ifMatch ETag of the task version the client started from (optional)
+     * @return Updated task tagged with its new version, 404 if not found, or 412 if the task has changed
+     */
+    @PatchMapping("/{id}/status")
+    public Mono<ResponseEntity<Task>> updateTaskStatus(
+            @PathVariable Long id,
+            @RequestBody TaskStatusUpdate statusUpdate,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        String status = statusUpdate.getStatus();
+        if (status == null || !TaskController.isValidStatus(status)) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return updated(taskService.updateTaskStatus(id, status, expectedVersion(id, ifMatch)));
+    }
+
+    /**
+     * Compatibility method to update task completion status
+     * @param id Task ID
+     * @param statusUpdate Map containing the new completion status
+     * @return Updated task or 404 if not found
+     * @deprecated Use updateTaskStatus with a complete status instead. Will be removed in version 2.0.0
+     */
+    @Deprecated(since = "1.0.0", forRemoval = true)
+    @PatchMapping("/{id}/completion")
+    public Mono<ResponseEntity<Task>> updateTaskCompletionStatus(
+            @PathVariable Long id,
+            @RequestBody Map<String, Boolean> statusUpdate) {
+        Boolean completed = statusUpdate.get("completed");
+        if (completed == null) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        String status = completed ? Task.STATUS_COMPLETED : Task.STATUS_PENDING;
+        return taskService.updateTaskStatus(id, status, null)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Update a complete task, as {@link TaskController#updateTask}
+     * @param id ID of the task to update
+     * @param task New task data
+     * @param ifMatch ETag of the task version the client started from (optional)
+     * @return Updated task tagged with its new version, 404 if not found, or 412 if the task has changed
+     */
+    @PatchMapping("/{id}/update")
+    public Mono<ResponseEntity<Task>> updateTask(
+            @PathVariable Long id,
+            @RequestBody Task task,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        task.setId(id); // Force the ID to avoid inconsistencies
+        return updated(taskService.updateTask(id, task, expectedVersion(id, ifMatch)));
+    }
+
+    /**
+     * Apply a JSON Merge Patch (RFC 7396) to a task, as {@link TaskController#patchTask}
+     * @param id ID of the task to patch
+     * @param patch Fields to change
+     * @param ifMatch ETag of the task version the client started from (optional)
+     * @return Patched task tagged with its version, 400 if a status, priority or
+     * Pomodoro count is invalid, 404 if not found, or 412 if the task has changed
+     */
+    @PatchMapping(value = "/{id}", consumes = TaskPatch.MEDIA_TYPE)
+    public Mono<ResponseEntity<Task>> patchTask(
+            @PathVariable Long id,
+            @RequestBody TaskPatch patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (!TaskController.isValidPatch(patch)) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return updated(taskService.patchTask(id, patch, expectedVersion(id, ifMatch)));
+    }
+
+    /**
+     * Delete a task by its ID
+     * @param id ID of the task to delete
+     * @return 204 No Content if deleted, 404 Not Found if not found
+     */
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteTask(@PathVariable Long id) {
+        return taskService.deleteTask(id).map(deleted -> deleted
+                ? ResponseEntity.noContent().<Void>build()
+                : ResponseEntity.notFound().<Void>build());
+    }
+
+    /**
+     * Answer with the updated task and its new ETag
+     * @param update Pending update
+     * @return Updated task, 404 if not found, or 412 if the expected version is stale
+     */
+    private Mono<ResponseEntity<Task>> updated(Mono<Task> update) {
+        return update
+                .map(task -> ResponseEntity.ok().eTag(TaskController.eTag(taskService.getVersionTag(task))).body(task))
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .onErrorResume(TaskVersionConflictException.class,
+                        e -> Mono.just(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build()));
+    }
+
+    private Long expectedVersion(Long id, String ifMatch) {
+        return TaskController.expectedVersion(id, ifMatch, taskService::getVersionFromTag);
+    }
+
+    /**
+     * Answer with 304 when the client already holds the current state of the store,
+     * before any query, as {@link TaskController}; otherwise build the response and tag it
+     * @param exchange Current exchange, for If-None-Match
+     * @param encoding Encoding of the response body
+     * @param response Builds the full response
+     * @return 304 without body, or the built response with the store ETag if successful
+     */
+    private <T> Mono<ResponseEntity<T>> conditional(ServerWebExchange exchange, MediaType encoding,
+                                                    Supplier<Mono<ResponseEntity<T>>> response) {
+        String eTag = TaskController.eTag(taskService.getStoreVersionTag(), encoding);
+        if (exchange.checkNotModified(eTag)) {
+            return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build());
+        }
+        return response.get().map(built -> {
+            if (!built.getStatusCode().is2xxSuccessful()) {
+                return built;
+            }
+            return ResponseEntity.status(built.getStatusCode())
+                    .headers(built.getHeaders())
+                    .eTag(eTag)
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .cacheControl(CacheControl.noCache())
+                    .body(built.getBody());
+        });
+    }
+
+    /**
+     * Run a paginated query and expose the next cursor in a response header
+     * @param limit Requested page size, or null for the default
+     * @param after Cursor of the previous page, or null for the first page
+     * @param query Query taking the last seen ID and the page size
+     * @param encoding Encoding of the response body
+     * @param exchange Current exchange, for its buffers
+     * @return Page of tasks, or 400 if the cursor or limit is invalid
+     */
+    private Mono<ResponseEntity<Flux<DataBuffer>>> page(Integer limit, String after,
+                                                        BiFunction<Long, Integer, Mono<TaskPage>> query,
+                                                        MediaType encoding, ServerWebExchange exchange) {
+        if (limit != null && limit < 1) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        Long afterId = after != null ? TaskController.decodeCursor(after) : Long.valueOf(0L);
+        if (afterId == null) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        int size = limit == null ? TaskController.DEFAULT_PAGE_SIZE : Math.min(limit, TaskController.MAX_PAGE_SIZE);
+        return query.apply(afterId, size).map(page -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(encoding);
+            if (page.hasMore()) {
+                response.header(TaskController.NEXT_CURSOR_HEADER, TaskController.encodeCursor(page.getLastId()));
+            }
+            Flux<DataBuffer> body = MediaType.APPLICATION_JSON.equals(encoding)
+                    ? Flux.just(exchange.getResponse().bufferFactory().wrap(responseCache.serialize(page.getTasks())))
+                    : encode(Flux.fromIterable(page.getTasks()), encoding, exchange);
+            return response.body(body);
+        });
+    }
+
+    /**
+     * Encode tasks in the negotiated format, streamed: JSON from the cached bytes
+     * of each task, binary formats as a single array written batch by batch
+     */
+    private Flux<DataBuffer> encode(Flux<Task> tasks, MediaType encoding, ServerWebExchange exchange) {
+        if (MediaType.APPLICATION_JSON.equals(encoding)) {
+            return writeFragments(tasks, true, exchange);
+        }
+        AbstractJackson2Encoder encoder = MediaType.APPLICATION_CBOR.equals(encoding) ? cborEncoder : smileEncoder;
+        return writeBinary(tasks, encoder.getObjectMapper(), exchange);
+    }
+
+    /**
+     * Write tasks as one CBOR or Smile array of unknown length, one buffer per
+     * batch of tasks. A single generator writes the whole response, so the
+     * array is one document even across buffers.
+     * @param tasks Tasks, read as the buffers are consumed
+     * @param mapper Mapper of the binary format
+     * @param exchange Current exchange, for its buffers
+     */
+    private Flux<DataBuffer> writeBinary(Flux<Task> tasks, ObjectMapper mapper, ServerWebExchange exchange) {
+        DataBufferFactory buffers = exchange.getResponse().bufferFactory();
+        return Flux.defer(() -> {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            JsonGenerator generator = createGenerator(mapper, bytes);
+            Supplier<DataBuffer> written = () -> {
+                DataBuffer buffer = buffers.wrap(bytes.toByteArray());
+                bytes.reset();
+                return buffer;
+            };
+            return Flux.concat(
+                    Mono.fromCallable(() -> {
+                        generator.writeStartArray();
+                        generator.flush();
+                        return written.get();
+                    }),
+                    tasks.buffer(TaskController.STREAM_BATCH_SIZE).concatMap(batch -> Mono.fromCallable(() -> {
+                        for (Task task : batch) {
+                            mapper.writeValue(generator, task);
+                        }
+                        generator.flush();
+                        return written.get();
+                    })),
+                    Mono.fromCallable(() -> {
+                        generator.writeEndArray();
+                        generator.close();
+                        return written.get();
+                    }));
+        });
+    }
+
+    private static JsonGenerator createGenerator(ObjectMapper mapper, ByteArrayOutputStream bytes) {
+        try {
+            return mapper.getFactory().createGenerator(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Write tasks from their cached JSON bytes, one buffer per batch of tasks
+     * @param tasks Tasks, read as the buffers are consumed
+     * @param array true for a JSON array, false for one JSON task per line
+     * @param exchange Current exchange, for its buffers
+     */
+    private Flux<DataBuffer> writeFragments(Flux<Task> tasks, boolean array, ServerWebExchange exchange) {
+        DataBufferFactory buffers = exchange.getResponse().bufferFactory();
+        Timer timer = array ? jsonSerializationTimer : streamSerializationTimer;
+        Flux<DataBuffer> batches = tasks.buffer(TaskController.STREAM_BATCH_SIZE).index().map(batch -> {
+            long start = System.nanoTime();
+            boolean first = batch.getT1() == 0;
+            List<Task> batchTasks = batch.getT2();
+            byte[][] parts = new byte[batchTasks.size()][];
+            int length = 0;
+            for (int i = 0; i < parts.length; i++) {
+                parts[i] = fragments.get(batchTasks.get(i));
+                length += parts[i].length + 1;
+            }
+            DataBuffer buffer = buffers.allocateBuffer(length);
+            for (int i = 0; i < parts.length; i++) {
+                if (array && (i > 0 || !first)) {
+                    buffer.write((byte) ',');
+                }
+                buffer.write(parts[i]);
+                if (!array) {
+                    buffer.write((byte) '\n');
+                }
+            }
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return buffer;
+        });
+        if (!array) {
+            return batches;
+        }
+        return Flux.concat(
+                Mono.fromSupplier(() -> buffers.wrap(new byte[] {'['})),
+                batches,
+                Mono.fromSupplier(() -> buffers.wrap(new byte[] {']'})));
+    }
+
+    private Flux<ServerSentEvent<Object>> followChanges(long since) {
+        return taskService.followChanges(since).concatMapIterable(changes -> {
+            if (changes.isResyncRequired()) {
+                return List.of(resyncEvent(changes.getSequence()));
+            }
+            List<ServerSentEvent<Object>> events = new ArrayList<>(changes.getChanges().size());
+            for (TaskChange change : changes.getChanges()) {
+                events.add(ServerSentEvent.<Object>builder(change)
+                        .id(Long.toString(change.getSequence()))
+                        .event(change.getType())
+                        .build());
+            }
+            return events;
+        });
+    }
+
+    private static ServerSentEvent<Object> resyncEvent(long sequence) {
+        return ServerSentEvent.<Object>builder(Long.toString(sequence))
+                .id(Long.toString(sequence))
+                .event(TaskChangeBroadcaster.RESYNC_EVENT)
+                .build();
+    }
+
+    private static MediaType encoding(ServerWebExchange exchange) {
+        return TaskController.negotiatedEncoding(exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT));
+    }
+
+    private static Long parseSequence(String eventId) {
+        try {
+            return Long.parseLong(eventId.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package com.todolist.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todolist.model.TaskChange;
+import com.todolist.model.TaskChanges;
+import com.todolist.service.TaskService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pushes task changes to Server-Sent Events subscribers.
+ * <p>
+ * A single dispatcher thread reads new changes from the service's change log,
+ * serializes each one once and publishes it in a ring of the last
+ * {@code bufferSize} events, shared by all subscribers. A subscriber only keeps
+ * its position in the ring, and a small pool of sender threads writes pending
+ * events to the subscribers that have some: publishing never waits for a client.
+ * A subscriber that falls more than {@code bufferSize} events behind is
+ * disconnected; when it reconnects, its Last-Event-ID is too old and it receives
+ * a {@value #RESYNC_EVENT} event asking it to reload all tasks.
+ * <p>
+ * Event IDs are the sequence numbers of {@code GET /api/tasks/changes}, so a
+ * client can switch between the stream and polling at any time.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class TaskChangeBroadcaster implements AutoCloseable {
+
+    /** Number of connected subscribers */
+    public static final String SUBSCRIBERS_METRIC = "todolist.events.subscribers";
+    /** Subscribers disconnected for falling too far behind */
+    public static final String EVICTIONS_METRIC = "todolist.events.evictions";
+    /** Name of the event asking the client to reload all tasks; its ID is the sequence to resume from */
+    static final String RESYNC_EVENT = "resync";
+    /** Number of changes read from the change log at a time */
+    private static final int READ_BATCH_SIZE = 1000;
+    /** Pause of the dispatcher after an unexpected error */
+    private static final long ERROR_PAUSE_MILLIS = 1000;
+
+    private static final Logger log = LoggerFactory.getLogger(TaskChangeBroadcaster.class);
+
+    /** Serialized change, published once for all subscribers */
+    private static final class Event {
+        final long sequence;
+        final String name;
+        final String data;
+
+        Event(long sequence, String name, String data) {
+            this.sequence = sequence;
+            this.name = name;
+            this.data = data;
+        }
+    }
+
+    private final TaskService taskService;
+    private final ObjectMapper objectMapper;
+    private final int maxSubscribers;
+    private final long heartbeatNanos;
+    private final Counter evictions;
+
+    // Last published events; the event of sequence n is in slot n % bufferSize
+    private final AtomicReferenceArray<Event> events;
+    // Sequence of the last published event, written by the dispatcher only
+    private volatile long published;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders;
+    private final Thread dispatcher;
+    private volatile boolean running = true;
+
+    @Autowired
+    public TaskChangeBroadcaster(TaskService taskService, ObjectMapper objectMapper,
+                                 ObjectProvider<MeterRegistry> meterRegistry,
+                                 @Value("${todolist.events.buffer-size:1024}") int bufferSize,
+                                 @Value("${todolist.events.sender-threads:8}") int senderThreads,
+                                 @Value("${todolist.events.max-subscribers:10000}") int maxSubscribers,
+                                 @Value("${todolist.events.heartbeat-ms:15000}") long heartbeatMillis) {
+        this(taskService, objectMapper, meterRegistry.getIfAvailable(() -> Metrics.globalRegistry),
+                bufferSize, senderThreads, maxSubscribers, heartbeatMillis);
+    }
+
+    /**
+     * Starts the dispatcher from the current end of the change log
+     * @param bufferSize Number of events a subscriber may lag behind before being disconnected
+     * @param senderThreads Number of threads writing events to subscribers
+     * @param maxSubscribers Number of subscribers above which new ones are refused
+     * @param heartbeatMillis Idle time after which a comment is sent to keep connections open
+     */
+    public TaskChangeBroadcaster(TaskService taskService, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                 int bufferSize, int senderThreads, int maxSubscribers, long heartbeatMillis) {
+        this.taskService = taskService;
+        this.objectMapper = objectMapper;
+        this.maxSubscribers = maxSubscribers;
+        this.heartbeatNanos = TimeUnit.MILLISECONDS.toNanos(heartbeatMillis);
+        this.events = new AtomicReferenceArray<>(bufferSize);
+        this.published = taskService.getChanges(0L, 1).getSequence();
+        Gauge.builder(SUBSCRIBERS_METRIC, subscribers, Set::size)
+                .description("Number of clients subscribed to task change events")
+                .register(meterRegistry);
+        this.evictions = Counter.builder(EVICTIONS_METRIC)
+                .description("Subscribers disconnected for falling too far behind")
+                .register(meterRegistry);
+        AtomicInteger senderCount = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "task-events-sender-" + senderCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dispatcher = new Thread(this::dispatch, "task-events-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+        taskService.addChangeListener(() -> LockSupport.unpark(dispatcher));
+    }
+
+    /**
+     * Subscribes a client to the changes made from now on, or since the last event it received
+     * @param emitter Emitter of the client's response
+     * @param lastEventId ID of the last event received before a reconnection, or null
+     * @return true if the client was subscribed, false if there are already too many subscribers
+     */
+    public boolean subscribe(SseEmitter emitter, @Nullable String lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            return false;
+        }
+        long current = published;
+        Subscriber subscriber = new Subscriber(emitter, current);
+        if (lastEventId != null) {
+            Long from = parseSequence(lastEventId);
+            // Resumable only if every later event is still in the ring
+            if (from != null && from <= current && current - from <= events.length()) {
+                subscriber.position = from;
+            } else {
+                subscriber.resync = true;
+            }
+        }
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        subscriber.schedule();
+        return true;
+    }
+
+    /**
+     * @return Number of connected subscribers
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(dispatcher);
+        senders.shutdownNow();
+        // Open connections are ended by the container on shutdown
+        subscribers.clear();
+    }
+
+    /**
+     * Dispatcher loop: publishes new changes and wakes the subscribers, or sends
+     * a heartbeat when nothing changed for a while
+     */
+    private void dispatch() {
+        long lastActivity = System.nanoTime();
+        while (running) {
+            try {
+                TaskChanges changes = taskService.getChanges(published, READ_BATCH_SIZE);
+                if (changes.isResyncRequired()) {
+                    // The dispatcher itself fell off the change log: every subscriber has missed changes
+                    log.warn("Task change events lost, all {} subscribers must resync", subscribers.size());
+                    published = changes.getSequence();
+                    subscribers.forEach(this::evict);
+                } else if (!changes.getChanges().isEmpty()) {
+                    for (TaskChange change : changes.getChanges()) {
+                        events.set(slot(change.getSequence()), new Event(change.getSequence(), change.getType(), serialize(change)));
+                        published = change.getSequence();
+                    }
+                    wakeSubscribers();
+                    lastActivity = System.nanoTime();
+                } else if (System.nanoTime() - lastActivity >= heartbeatNanos) {
+                    subscribers.forEach(Subscriber::heartbeat);
+                    lastActivity = System.nanoTime();
+                } else {
+                    LockSupport.parkNanos(this, heartbeatNanos);
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to publish task change events", e);
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(ERROR_PAUSE_MILLIS));
+            }
+        }
+    }
+
+    /**
+     * Schedules a send to every subscriber, and disconnects those that can no
+     * longer catch up from the ring
+     */
+    private void wakeSubscribers() {
+        long oldest = published - events.length();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.position < oldest) {
+                evict(subscriber);
+            } else {
+                subscriber.schedule();
+            }
+        }
+    }
+
+    /**
+     * Disconnects a subscriber without waiting for it: the emitter is completed
+     * by its sender, which may be blocked writing to the client
+     */
+    private void evict(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriber.closed = true;
+            evictions.increment();
+            subscriber.schedule();
+        }
+    }
+
+    private String serialize(TaskChange change) {
+        try {
+            return objectMapper.writeValueAsString(change);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % events.length());
+    }
+
+    private static Long parseSequence(String eventId) {
+        try {
+            return Long.parseLong(eventId.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Connected client. Its events are written by one sender at a time, which
+     * alone moves its position.
+     */
+    private final class Subscriber {
+        final SseEmitter emitter;
+        // Sequence of the last event sent
+        volatile long position;
+        // Whether a sender is scheduled or running for this subscriber
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        final AtomicBoolean heartbeatDue = new AtomicBoolean();
+        volatile boolean resync;
+        // Disconnection requested, then done by the sender
+        volatile boolean closed;
+        private boolean completed;
+
+        Subscriber(SseEmitter emitter, long position) {
+            this.emitter = emitter;
+            this.position = position;
+        }
+
+        void heartbeat() {
+            heartbeatDue.set(true);
+            schedule();
+        }
+
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // Broadcaster closed
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                do {
+                    send();
+                    scheduled.set(false);
+                } while (hasPending() && scheduled.compareAndSet(false, true));
+            } catch (IOException | RuntimeException e) {
+                // Client gone: the emitter reports the failure to the container
+                subscribers.remove(this);
+                closed = true;
+                completed = true;
+                scheduled.set(false);
+            }
+        }
+
+        private boolean hasPending() {
+            return !completed && (closed || resync || heartbeatDue.get() || position < published);
+        }
+
+        private void send() throws IOException {
+            if (completed) {
+                return;
+            }
+            if (resync && !closed) {
+                resync = false;
+                position = published;
+                emitter.send(SseEmitter.event().id(Long.toString(position)).name(RESYNC_EVENT).data(Long.toString(position)));
+            }
+            long end = published;
+            for (long sequence = position + 1; sequence <= end && !closed; sequence++) {
+                Event event = events.get(slot(sequence));
+                if (event == null || event.sequence != sequence) {
+                    // Overwritten before it could be sent
+                    evict(this);
+                    closed = true;
+                    break;
+                }
+                emitter.send(SseEmitter.event().id(Long.toString(sequence)).name(event.name).data(event.data));
+                position = sequence;
+            }
+            if (closed) {
+                completed = true;
+                emitter.complete();
+            } else if (heartbeatDue.getAndSet(false)) {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            }
+        }
+    }
+}
@@ -1,60 +1,358 @@
 package com.todolist.controller;
 
+import com.todolist.model.BulkItemResult;
+import com.todolist.model.BulkStatusUpdate;
 import com.todolist.model.Task;
+import com.todolist.model.TaskChanges;
+import com.todolist.model.TaskPage;
+import com.todolist.model.TaskPatch;
+import com.todolist.model.TaskSearchPage;
+import com.todolist.model.TaskStatistics;
 import com.todolist.model.TaskStatusUpdate;
 import com.todolist.service.TaskService;
+import com.todolist.service.TaskVersionConflictException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
 
 /**
  * REST Controller for task operations
  */
 @RestController
 @RequestMapping("/api/tasks")
-@CrossOrigin(origins = "*") // Allow cross-origin requests from frontend
+@CrossOrigin(origins = "*", exposedHeaders = {TaskController.NEXT_CURSOR_HEADER, TaskController.TOTAL_COUNT_HEADER, HttpHeaders.ETAG}) // Allow cross-origin requests from frontend
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class TaskController {
 
+    /** Response header carrying the opaque cursor of the next page */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    /** Response header carrying the total number of search results */
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    /** Request header carrying the ID of the last Server-Sent Event received */
+    static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+    private static final String CURSOR_PREFIX = "t:";
+
+    /** Number of tasks returned by the next-up view when k is not given */
+    static final int DEFAULT_NEXT_SIZE = 20;
+
+    /** Longest look-ahead accepted by the due-soon query, one year */
+    static final int MAX_DUE_WITHIN_HOURS = 24 * 366;
+
+    /** Media type of Smile, the binary encoding of JSON defined by Jackson */
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+    /** Encodings of response bodies, by order of preference when the client accepts several */
+    private static final List<MediaType> ENCODINGS =
+            List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, APPLICATION_SMILE);
+    /** Separates the version from the format in the entity tags of binary encodings */
+    private static final String ETAG_FORMAT_SEPARATOR = "+";
+
+    /** Expected version that no stored task has, for If-Match headers matching no version */
+    static final long NO_VERSION = -1L;
+
+    /** Maximum number of operations accepted in one bulk request */
+    static final int MAX_BULK_SIZE = 1000;
+    /** Number of tasks read from the store between two flushes of a stream */
+    static final int STREAM_BATCH_SIZE = 500;
+
+    /** Time spent writing response bodies, tagged by format */
+    public static final String SERIALIZATION_METRIC = "todolist.serialization";
+
     private final TaskService taskService;
+    private final TaskChangeBroadcaster changeBroadcaster;
+    private final TaskResponseCache responseCache;
+    private final TaskFragmentCache fragments;
+    private final Timer streamSerializationTimer;
 
+    /**
+     * @param taskService Task service
+     * @param changeBroadcaster Server-Sent Events of task changes
+     * @param responseCache Cache of serialized list responses
+     * @param fragments Cache of serialized tasks, for streamed responses
+     * @param meterRegistry Metrics registry, the global one when metrics are not configured
+     */
     @Autowired
-    public TaskController(TaskService taskService) {
+    public TaskController(TaskService taskService, TaskChangeBroadcaster changeBroadcaster,
+                          TaskResponseCache responseCache, TaskFragmentCache fragments,
+                          ObjectProvider<MeterRegistry> meterRegistry) {
         this.taskService = taskService;
+        this.changeBroadcaster = changeBroadcaster;
+        this.responseCache = responseCache;
+        this.fragments = fragments;
+        this.streamSerializationTimer = Timer.builder(SERIALIZATION_METRIC)
+                .description("Time spent serializing response bodies")
+                .tag("format", "ndjson")
+                .register(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
     }
 
     /**
-     * Get all tasks
-     * @return List of all tasks
+     * Get all tasks, optionally filtered by status and/or priority.
+     * When limit or after is given, a single page is returned and the cursor
+     * of the next page, if any, is sent in the X-Next-Cursor header. Otherwise the
+     * full list is written from a cache of serialized bodies when the filter uses
+     * standard values. Like every endpoint, the list can also be encoded in CBOR
+     * or Smile, negotiated by the Accept header.
+     * @param status Status to filter on (optional)
+     * @param priority Priority to filter on (optional)
+     * @param limit Maximum page size (optional)
+     * @param after Cursor returned by the previous page (optional)
+     * @param request Current request, for If-None-Match
+     * @return List of matching tasks, 304 if unchanged since the client's ETag, or 400 if the cursor or limit is invalid
      */
     @GetMapping
-    public List<Task> getAllTasks() {
-        return taskService.getAllTasks();
+    public ResponseEntity<?> getAllTasks(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String priority,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            WebRequest request) {
+        boolean json = MediaType.APPLICATION_JSON.equals(negotiatedEncoding(request));
+        if (limit != null || after != null) {
+            return conditional(request, () ->
+                    page(limit, after, (afterId, size) -> taskService.getTasksPage(status, priority, afterId, size), json));
+        }
+        Supplier<List<Task>> tasks = () -> status == null && priority == null
+                ? taskService.getAllTasks()
+                : taskService.getTasks(status, priority);
+        // The cached bodies are JSON: binary encodings go through the message converters
+        if (!json || !isCacheableFilter(status, priority)) {
+            return conditional(request, () -> ResponseEntity.ok(tasks.get()));
+        }
+        return conditional(request, () -> cached("tasks?status=" + status + "&priority=" + priority,
+                taskService.getListVersion(status, priority), tasks));
     }
 
     /**
-     * Get incomplete tasks
-     * @return List of tasks to do
+     * Stream all tasks as newline-delimited JSON, optionally filtered by status and/or priority.
+     * Tasks are read from the store batch by batch, so memory use does not depend on the number of tasks.
+     * @param status Status to filter on (optional)
+     * @param priority Priority to filter on (optional)
+     * @return One JSON task per line
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllTasks(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String priority) {
+        return stream((afterId, size) -> taskService.getTasksPage(status, priority, afterId, size));
+    }
+
+    /**
+     * Get incomplete tasks, paginated like {@link #getAllTasks}
+     * @param limit Maximum page size (optional)
+     * @param after Cursor returned by the previous page (optional)
+     * @param request Current request, for If-None-Match
+     * @return List of tasks to do, 304 if unchanged since the client's ETag, or 400 if the cursor or limit is invalid
      */
     @GetMapping("/incomplete")
-    public List<Task> getIncompleteTasks() {
-        return taskService.getIncompleteTasks();
+    public ResponseEntity<?> getIncompleteTasks(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            WebRequest request) {
+        boolean json = MediaType.APPLICATION_JSON.equals(negotiatedEncoding(request));
+        if (limit != null || after != null) {
+            return conditional(request, () -> page(limit, after, taskService::getIncompleteTasksPage, json));
+        }
+        if (!json) {
+            return conditional(request, () -> ResponseEntity.ok(taskService.getIncompleteTasks()));
+        }
+        return conditional(request, () -> cached("incomplete",
+                taskService.getIncompleteListVersion(), taskService::getIncompleteTasks));
+    }
+
+    /**
+     * Stream incomplete tasks as newline-delimited JSON
+     * @return One JSON task per line
+     */
+    @GetMapping(value = "/incomplete", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamIncompleteTasks() {
+        return stream(taskService::getIncompleteTasksPage);
+    }
+
+    /**
+     * Search tasks whose label or description contains every word of the query,
+     * ignoring case and accents; a word may also match the beginning of a longer word.
+     * Best matches come first, label matches ranking above description matches.
+     * The total number of matches is sent in the X-Total-Count header.
+     * @param q Search query
+     * @param limit Maximum page size (optional)
+     * @param offset Number of matches to skip (optional)
+     * @param request Current request, for If-None-Match
+     * @return Page of matching tasks, 304 if unchanged since the client's ETag, or 400 if the query, limit or offset is invalid
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<Task>> searchTasks(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Integer offset,
+            WebRequest request) {
+        if (q.isBlank() || (limit != null && limit < 1) || (offset != null && offset < 0)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return conditional(request, () -> {
+            int size = limit == null ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+            TaskSearchPage page = taskService.searchTasks(q, offset == null ? 0 : offset, size);
+            return ResponseEntity.ok()
+                    .header(TOTAL_COUNT_HEADER, String.valueOf(page.getTotal()))
+                    .body(page.getTasks());
+        });
+    }
+
+    /**
+     * Get the most urgent incomplete tasks: highest priority first, then earliest
+     * due date (tasks without one last), then oldest
+     * @param k Maximum number of tasks (default 20, at most 1000)
+     * @param request Current request, for If-None-Match
+     * @return Most urgent tasks first, 304 if unchanged since the client's ETag, or 400 if k is invalid
+     */
+    @GetMapping("/next")
+    public ResponseEntity<List<Task>> getNextTasks(
+            @RequestParam(defaultValue = "" + DEFAULT_NEXT_SIZE) int k,
+            WebRequest request) {
+        if (k < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        return conditional(request, () -> ResponseEntity.ok(taskService.getNextTasks(Math.min(k, MAX_PAGE_SIZE))));
+    }
+
+    /**
+     * Get the inserts, updates and deletes made after a sequence number, for clients
+     * that keep a local copy of the tasks. A client starts with since=0, which always
+     * asks for a resync: it then loads all tasks and polls from the returned sequence.
+     * @param since Sequence number of the last change the client knows
+     * @param limit Maximum number of changes (default and maximum 1000)
+     * @return Changes oldest first with the sequence to poll from next, a resync
+     * request if some changes are no longer kept, or 400 if limit is invalid
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<TaskChanges> getChanges(
+            @RequestParam long since,
+            @RequestParam(defaultValue = "" + MAX_PAGE_SIZE) int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(taskService.getChanges(since, limit));
+    }
+
+    /**
+     * Stream task changes as Server-Sent Events, named insert, update or delete, whose
+     * data is the change as returned by /changes and whose ID is its sequence number.
+     * On reconnection, the browser sends the ID of the last event received and the
+     * stream resumes from there; if those changes are no longer kept, a resync event
+     * asks the client to reload all tasks first.
+     * @param lastEventId ID of the last event received, sent by the browser on reconnection
+     * @return Event stream, or 503 if the server already has too many subscribers
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges(
+            @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) String lastEventId) {
+        SseEmitter emitter = new SseEmitter();
+        if (!changeBroadcaster.subscribe(emitter, lastEventId)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
+    /**
+     * Get aggregate figures over all tasks
+     * @return Task counts per status and priority, overdue tasks and total Pomodoro count
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<TaskStatistics> getStatistics() {
+        return ResponseEntity.ok(taskService.getStatistics());
+    }
+
+    /**
+     * Get incomplete tasks whose due date has passed
+     * @return Overdue tasks, oldest due date first
+     */
+    @GetMapping("/overdue")
+    public ResponseEntity<List<Task>> getOverdueTasks() {
+        return ResponseEntity.ok(taskService.getOverdueTasks());
+    }
+
+    /**
+     * Get incomplete tasks due within the next hours
+     * @param hours Look-ahead from now, in hours (default 24)
+     * @return Tasks due soon, earliest first, or 400 if hours is out of range
+     */
+    @GetMapping("/due-soon")
+    public ResponseEntity<List<Task>> getTasksDueSoon(@RequestParam(defaultValue = "24") int hours) {
+        if (hours < 1 || hours > MAX_DUE_WITHIN_HOURS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(taskService.getTasksDueWithin(Duration.ofHours(hours)));
+    }
+
+    /**
+     * Get tasks whose due date falls in a range; tasks without a due date are never returned
+     * @param from Start of the range, inclusive, as an ISO-8601 instant such as 2024-01-01T00:00:00Z (optional)
+     * @param to End of the range, exclusive, as an ISO-8601 instant such as 2024-01-01T00:00:00Z (optional)
+     * @param incomplete Whether to keep only incomplete tasks (default false)
+     * @param request Current request, for If-None-Match
+     * @return Matching tasks, earliest due date first, 304 if unchanged since the client's ETag, or 400 if the range is empty
+     */
+    @GetMapping("/due")
+    public ResponseEntity<List<Task>> getTasksDueBetween(
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(defaultValue = "false") boolean incomplete,
+            WebRequest request) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return conditional(request, () -> ResponseEntity.ok(taskService.getTasksDueBetween(
+                from != null ? Date.from(from) : null,
+                to != null ? Date.from(to) : null,
+                incomplete)));
     }
 
     /**
      * Get a task by its ID
      * @param id Task ID
-     * @return Matching task or 404 if not found
+     * @param request Current request, for If-None-Match
+     * @return Matching task tagged with its version, 304 if unchanged since the client's ETag, or 404 if not found
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Task> getTaskById(@PathVariable Long id) {
-        Optional<Task> task = taskService.getTaskById(id);
-        return task.map(ResponseEntity::ok)
-                .orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<Task> getTaskById(@PathVariable Long id, WebRequest request) {
+        Optional<Task> found = taskService.getTaskById(id);
+        if (found.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Task task = found.get();
+        String eTag = eTag(taskService.getVersionTag(task), negotiatedEncoding(request));
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).cacheControl(CacheControl.noCache()).body(task);
     }
 
     /**
@@ -69,15 +367,101 @@ public class TaskController {
     }
 
     /**
-     * Update task status
+     * Add several tasks in one request
+     * @param tasks Tasks to add
+     * @return One result per task, in request order, or 400 if the batch is empty or too large
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<List<BulkItemResult>> addTasks(@RequestBody List<Task> tasks) {
+        if (tasks.isEmpty() || tasks.size() > MAX_BULK_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<BulkItemResult> results = new ArrayList<>(tasks.size());
+        List<Task> valid = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            if (task == null) {
+                results.add(BulkItemResult.invalid(null, "Task is required"));
+            } else {
+                results.add(null); // Filled once the task has its ID
+                valid.add(task);
+            }
+        }
+        Iterator<Task> added = taskService.addTasks(valid).iterator();
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) == null) {
+                results.set(i, BulkItemResult.created(added.next()));
+            }
+        }
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Update the status of several tasks in one request
+     * @param updates ID and new status of each task
+     * @return One result per update, in request order, or 400 if the batch is empty or too large
+     */
+    @PatchMapping("/bulk/status")
+    public ResponseEntity<List<BulkItemResult>> updateTaskStatuses(@RequestBody List<BulkStatusUpdate> updates) {
+        if (updates.isEmpty() || updates.size() > MAX_BULK_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<BulkItemResult> results = new ArrayList<>(updates.size());
+        List<BulkStatusUpdate> valid = new ArrayList<>(updates.size());
+        for (BulkStatusUpdate update : updates) {
+            if (update == null || update.getId() == null) {
+                results.add(BulkItemResult.invalid(null, "Task ID is required"));
+            } else if (update.getStatus() == null || !isValidStatus(update.getStatus())) {
+                results.add(BulkItemResult.invalid(update.getId(), "Invalid status"));
+            } else {
+                results.add(null); // Filled once the update has been applied
+                valid.add(update);
+            }
+        }
+        Iterator<Optional<Task>> updated = taskService.updateTaskStatuses(valid).iterator();
+        Iterator<BulkStatusUpdate> applied = valid.iterator();
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) == null) {
+                Long id = applied.next().getId();
+                results.set(i, updated.next()
+                        .map(BulkItemResult::ok)
+                        .orElseGet(() -> BulkItemResult.notFound(id)));
+            }
+        }
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Delete several tasks in one request
+     * @param ids IDs of the tasks to delete
+     * @return One result per ID, in request order, or 400 if the batch is empty or too large
+     */
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<List<BulkItemResult>> deleteTasks(@RequestBody List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > MAX_BULK_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<Boolean> deleted = taskService.deleteTasks(ids);
+        List<BulkItemResult> results = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            results.add(deleted.get(i) ? BulkItemResult.deleted(id) : BulkItemResult.notFound(id));
+        }
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Update task status. With an If-Match header, the update is only applied
+     * if the task still has the version of the given ETag.
      * @param id Task ID
      * @param statusUpdate Object containing the new status
-     * @return Updated task or 404 if not found
+     * @param ifMatch ETag of the task version the client started from (optional)
+     * @return Updated task tagged with its new version, 404 if not found, or 412 if the task has changed
      */
     @PatchMapping("/{id}/status")
     public ResponseEntity<Task> updateTaskStatus(
             @PathVariable Long id,
-            @RequestBody TaskStatusUpdate statusUpdate) {
+            @RequestBody TaskStatusUpdate statusUpdate,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         
         String status = statusUpdate.getStatus();
         if (status == null) {
@@ -85,16 +469,14 @@ public class TaskController {
         }
         
         // Verify that the status is valid
-        if (!status.equals(Task.STATUS_PENDING) && 
-            !status.equals(Task.STATUS_IN_PROGRESS) && 
-            !status.equals(Task.STATUS_COMPLETED) && 
-            !status.equals(Task.STATUS_CANCELLED)) {
+        if (!isValidStatus(status)) {
             return ResponseEntity.badRequest().build();
         }
         
-        Optional<Task> updatedTask = taskService.updateTaskStatus(id, status);
-        return updatedTask.map(ResponseEntity::ok)
-                .orElseGet(() -> ResponseEntity.notFound().build());
+        Long expectedVersion = expectedVersion(id, ifMatch, taskService::getVersionFromTag);
+        return updated(() -> expectedVersion == null
+                ? taskService.updateTaskStatus(id, status)
+                : taskService.updateTaskStatus(id, status, expectedVersion));
     }
     
     /**
@@ -121,24 +503,53 @@ public class TaskController {
     }
     
     /**
-     * Update a complete task
+     * Update a complete task, all fields at once. With an If-Match header, the
+     * update is only applied if the task still has the version of the given ETag.
      * @param id ID of the task to update
      * @param task New task data
-     * @return Updated task or 404 if not found
+     * @param ifMatch ETag of the task version the client started from (optional)
+     * @return Updated task tagged with its new version, 404 if not found, or 412 if the task has changed
      */
     @PatchMapping("/{id}/update")
     public ResponseEntity<Task> updateTask(
             @PathVariable Long id,
-            @RequestBody Task task) {
+            @RequestBody Task task,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         
         // Ensure the ID is correctly set
         task.setId(id); // Force the ID to avoid inconsistencies
         
-        Optional<Task> updatedTask = taskService.updateTask(id, task);
-        return updatedTask.map(ResponseEntity::ok)
-                .orElseGet(() -> ResponseEntity.notFound().build());
+        Long expectedVersion = expectedVersion(id, ifMatch, taskService::getVersionFromTag);
+        return updated(() -> expectedVersion == null
+                ? taskService.updateTask(id, task)
+                : taskService.updateTask(id, task, expectedVersion));
     }
     
+    /**
+     * Apply a JSON Merge Patch (RFC 7396) to a task in a single request: only the
+     * fields present in the document change, null clears a field, and the patch
+     * is applied atomically on the server, after any concurrent update.
+     * With an If-Match header, it is only applied to the version of the given ETag.
+     * @param id ID of the task to patch
+     * @param patch Fields to change
+     * @param ifMatch ETag of the task version the client started from (optional)
+     * @return Patched task tagged with its version, 400 if a status, priority or
+     * Pomodoro count is invalid, 404 if not found, or 412 if the task has changed
+     */
+    @PatchMapping(value = "/{id}", consumes = TaskPatch.MEDIA_TYPE)
+    public ResponseEntity<Task> patchTask(
+            @PathVariable Long id,
+            @RequestBody TaskPatch patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+
+        if (!isValidPatch(patch)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Long expectedVersion = expectedVersion(id, ifMatch, taskService::getVersionFromTag);
+        return updated(() -> taskService.patchTask(id, patch, expectedVersion));
+    }
+
     /**
      * Delete a task by its ID
      * @param id ID of the task to delete
@@ -153,4 +564,259 @@ public class TaskController {
             return ResponseEntity.notFound().build();
         }
     }
+
+    /**
+     * Run a task update and answer with the updated task and its new ETag
+     * @param update Update to run
+     * @return Updated task, 404 if not found, or 412 if the expected version is stale
+     */
+    private ResponseEntity<Task> updated(Supplier<Optional<Task>> update) {
+        try {
+            return update.get()
+                    .map(task -> ResponseEntity.ok().eTag(eTag(taskService.getVersionTag(task))).body(task))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (TaskVersionConflictException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+    }
+
+    /**
+     * Read the task version a client expects from an If-Match header.
+     * Only strong ETags of this task issued since the last restart can match.
+     * @param id Task ID
+     * @param ifMatch If-Match header, or null
+     * @param versionFromTag Reads the version in a version tag of the task service
+     * @return null if there is no condition (no header or "*"), the version of the
+     * first matching ETag, or {@link #NO_VERSION} so that the update is rejected
+     */
+    static Long expectedVersion(Long id, String ifMatch, BiFunction<Long, String, OptionalLong> versionFromTag) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        for (String tag : ifMatch.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.length() > 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+                String versionTag = trimmed.substring(1, trimmed.length() - 1);
+                // A tag received in a binary encoding designates the same version
+                int separator = versionTag.indexOf(ETAG_FORMAT_SEPARATOR);
+                if (separator >= 0) {
+                    versionTag = versionTag.substring(0, separator);
+                }
+                OptionalLong version = versionFromTag.apply(id, versionTag);
+                if (version.isPresent()) {
+                    return version.getAsLong();
+                }
+            }
+        }
+        return NO_VERSION;
+    }
+
+    /**
+     * Answer with 304 when the client already holds the current state of the store,
+     * before any query or serialization; otherwise build the response and tag it.
+     * The ETag is read before the response is built, so the body is at least as recent as the tag.
+     * Responses must be revalidated (Cache-Control: no-cache), which lets browsers
+     * send If-None-Match on their own.
+     * @param request Current request, for If-None-Match
+     * @param response Builds the full response
+     * @return 304 without body, or the built response with the store ETag if successful
+     */
+    private <T> ResponseEntity<T> conditional(WebRequest request, Supplier<ResponseEntity<T>> response) {
+        String eTag = eTag(taskService.getStoreVersionTag(), negotiatedEncoding(request));
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        ResponseEntity<T> built = response.get();
+        if (!built.getStatusCode().is2xxSuccessful()) {
+            return built;
+        }
+        return ResponseEntity.status(built.getStatusCode())
+                .headers(built.getHeaders())
+                .eTag(eTag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .cacheControl(CacheControl.noCache())
+                .body(built.getBody());
+    }
+
+    /**
+     * @return Strong entity tag for a version tag of the service
+     */
+    static String eTag(String versionTag) {
+        return '"' + versionTag + '"';
+    }
+
+    /**
+     * @return Strong entity tag for a version tag of the service in the given encoding:
+     * the JSON tag, suffixed with the format for binary encodings so that each
+     * representation has its own tag
+     */
+    static String eTag(String versionTag, MediaType encoding) {
+        if (MediaType.APPLICATION_JSON.equals(encoding)) {
+            return eTag(versionTag);
+        }
+        return eTag(versionTag + ETAG_FORMAT_SEPARATOR + (MediaType.APPLICATION_CBOR.equals(encoding) ? "cbor" : "smile"));
+    }
+
+    /**
+     * Encoding of the response body, as the message converters will choose it:
+     * the first of JSON, CBOR and Smile acceptable to the client, by preference
+     * @param request Current request, for its Accept header
+     * @return JSON when the client accepts anything or sends no valid Accept header
+     */
+    static MediaType negotiatedEncoding(WebRequest request) {
+        return negotiatedEncoding(request.getHeader(HttpHeaders.ACCEPT));
+    }
+
+    /**
+     * @param accept Accept header of the request, or null
+     * @return Encoding of the response body, as {@link #negotiatedEncoding(WebRequest)}
+     */
+    static MediaType negotiatedEncoding(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        MediaType.sortBySpecificityAndQuality(accepted);
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            for (MediaType encoding : ENCODINGS) {
+                if (type.includes(encoding)) {
+                    return encoding;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    /**
+     * Answer with a serialized list from the response cache
+     * @param key Key of the list in the cache
+     * @param version Version of the list, read before the list itself
+     * @param tasks Reads the list on a cache miss
+     * @return JSON body written as is, without serializing the tasks again
+     */
+    private ResponseEntity<byte[]> cached(String key, long version, Supplier<List<Task>> tasks) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(responseCache.get(key, version, tasks));
+    }
+
+    /**
+     * Only standard filter values are cached, so clients cannot fill the cache
+     * with arbitrary keys
+     */
+    private static boolean isCacheableFilter(String status, String priority) {
+        return (status == null || isValidStatus(status))
+                && (priority == null || priority.equals(Task.PRIORITY_LOW)
+                        || priority.equals(Task.PRIORITY_MEDIUM) || priority.equals(Task.PRIORITY_HIGH));
+    }
+
+    /**
+     * Status, priority and Pomodoro count cannot be removed, only replaced
+     * @return Whether the patch only sets valid values
+     */
+    static boolean isValidPatch(TaskPatch patch) {
+        if (patch.hasStatus() && (patch.getStatus() == null || !isValidStatus(patch.getStatus()))) {
+            return false;
+        }
+        if (patch.hasPriority() && patch.getPriority() == null) {
+            return false;
+        }
+        return !patch.hasPomodoroCount() || (patch.getPomodoroCount() != null && patch.getPomodoroCount() >= 0);
+    }
+
+    static boolean isValidStatus(String status) {
+        return status.equals(Task.STATUS_PENDING) ||
+               status.equals(Task.STATUS_IN_PROGRESS) ||
+               status.equals(Task.STATUS_COMPLETED) ||
+               status.equals(Task.STATUS_CANCELLED);
+    }
+
+    /**
+     * Run a paginated query and expose the next cursor in a response header
+     * @param limit Requested page size, or null for the default
+     * @param after Cursor of the previous page, or null for the first page
+     * @param query Query taking the last seen ID and the page size
+     * @param json true to write the page from the cached JSON of its tasks,
+     * false to leave the encoding to the message converters
+     * @return Page of tasks, or 400 if the cursor or limit is invalid
+     */
+    private ResponseEntity<Object> page(Integer limit, String after, BiFunction<Long, Integer, TaskPage> query,
+                                        boolean json) {
+        if (limit != null && limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        Long afterId = after != null ? decodeCursor(after) : Long.valueOf(0L);
+        if (afterId == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        TaskPage page = query.apply(afterId, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasMore()) {
+            response.header(NEXT_CURSOR_HEADER, encodeCursor(page.getLastId()));
+        }
+        if (!json) {
+            return response.body(page.getTasks());
+        }
+        return response.contentType(MediaType.APPLICATION_JSON).body(responseCache.serialize(page.getTasks()));
+    }
+
+    /**
+     * Write every task returned by a paginated query, one JSON document per line,
+     * from the cached bytes of each task
+     * @param query Query taking the last seen ID and the page size
+     * @return Streaming NDJSON response
+     */
+    private ResponseEntity<StreamingResponseBody> stream(BiFunction<Long, Integer, TaskPage> query) {
+        StreamingResponseBody body = outputStream -> {
+            long afterId = 0L;
+            TaskPage page;
+            do {
+                page = query.apply(afterId, STREAM_BATCH_SIZE);
+                long start = System.nanoTime();
+                for (Task task : page.getTasks()) {
+                    outputStream.write(fragments.get(task));
+                    outputStream.write('\n');
+                }
+                outputStream.flush();
+                streamSerializationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                if (page.getLastId() != null) {
+                    afterId = page.getLastId();
+                }
+            } while (page.hasMore());
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    static String encodeCursor(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor Opaque cursor sent by the client
+     * @return Last seen ID, or null if the cursor is malformed
+     */
+    static Long decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(CURSOR_PREFIX)) {
+                return null;
+            }
+            long id = Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+            return id >= 0 ? id : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
 }
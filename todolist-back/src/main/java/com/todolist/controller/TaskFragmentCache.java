@@ -0,0 +1,233 @@
+package com.todolist.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.todolist.model.Task;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cache of the JSON bytes of each task, keyed by task ID and version.
+ * <p>
+ * A stored task never changes without a new version, so the bytes of a given
+ * (id, version) stay valid until evicted; only the latest version of a task is
+ * kept. Lists are then written by concatenating fragments, and only the tasks
+ * changed since they were last written are serialized again.
+ * <p>
+ * The cache is bounded by the size of its fragments. Beyond the bound, entries
+ * are evicted with the CLOCK policy: a hand walks the entries, sparing once
+ * those read since it last passed, until the cache is back under the low mark.
+ */
+@Component
+public class TaskFragmentCache {
+
+    /** Fragment lookups, tagged by result (hit or miss) */
+    public static final String GETS_METRIC = "todolist.response.fragments.gets";
+    /** Bytes held by the cache, entry overhead included */
+    public static final String SIZE_METRIC = "todolist.response.fragments.size";
+    /** Fragments evicted to stay under the size bound */
+    public static final String EVICTIONS_METRIC = "todolist.response.fragments.evictions";
+
+    // Approximate memory of an entry besides the JSON bytes: map node, boxed key, fragment, array header
+    static final int ENTRY_OVERHEAD = 96;
+    // Eviction brings the cache back to this share of the bound, so it does not run on every miss
+    private static final double LOW_MARK = 0.9;
+
+    /** JSON bytes of a task version */
+    private static final class Fragment {
+        final long version;
+        final byte[] json;
+        // Set on every hit, cleared by the eviction hand
+        volatile boolean referenced;
+
+        Fragment(long version, byte[] json) {
+            this.version = version;
+            this.json = json;
+        }
+
+        long weight() {
+            return json.length + ENTRY_OVERHEAD;
+        }
+    }
+
+    private final ConcurrentMap<Long, Fragment> fragments = new ConcurrentHashMap<>();
+    private final ObjectWriter writer;
+    private final long maxBytes;
+    private final AtomicLong size = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    // Position of the eviction hand, guarded by evictionLock
+    private Iterator<Map.Entry<Long, Fragment>> hand;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    @Autowired
+    public TaskFragmentCache(ObjectMapper objectMapper, ObjectProvider<MeterRegistry> meterRegistry,
+                             @Value("${todolist.response-cache.fragments-max-size-mb:64}") int maxSizeMb) {
+        this(objectMapper, meterRegistry.getIfAvailable(() -> Metrics.globalRegistry), maxSizeMb * 1024L * 1024L);
+    }
+
+    /**
+     * @param maxBytes Bound on the size of the cache, 0 to serialize every task on each call
+     */
+    public TaskFragmentCache(ObjectMapper objectMapper, MeterRegistry meterRegistry, long maxBytes) {
+        this.writer = objectMapper.writerFor(Task.class);
+        this.maxBytes = maxBytes;
+        this.hits = Counter.builder(GETS_METRIC)
+                .description("Lookups in the cache of serialized tasks")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder(GETS_METRIC)
+                .description("Lookups in the cache of serialized tasks")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.evictions = Counter.builder(EVICTIONS_METRIC)
+                .description("Serialized tasks evicted from the cache")
+                .register(meterRegistry);
+        Gauge.builder(SIZE_METRIC, size, AtomicLong::get)
+                .description("Bytes held by the cache of serialized tasks")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param task Task to write
+     * @return JSON bytes of the task, not to be modified
+     */
+    public byte[] get(Task task) {
+        Long id = task.getId();
+        long version = task.getVersion();
+        // Tasks not stored yet have no version identifying their content
+        if (id == null || version <= 0 || maxBytes <= 0) {
+            misses.increment();
+            return serialize(task);
+        }
+        Fragment fragment = fragments.get(id);
+        if (fragment != null && fragment.version == version) {
+            if (!fragment.referenced) {
+                fragment.referenced = true;
+            }
+            hits.increment();
+            return fragment.json;
+        }
+        misses.increment();
+        byte[] json = serialize(task);
+        Fragment built = new Fragment(version, json);
+        fragments.compute(id, (key, current) -> {
+            // A concurrent read may already have cached a later version
+            if (current != null && current.version > version) {
+                return current;
+            }
+            size.addAndGet(built.weight() - (current != null ? current.weight() : 0));
+            return built;
+        });
+        if (size.get() > maxBytes) {
+            evict();
+        }
+        return json;
+    }
+
+    /**
+     * Write tasks as a JSON array, from their cached fragments
+     * @param tasks Tasks to write
+     * @return JSON bytes of the array
+     */
+    public byte[] toJsonArray(List<Task> tasks) {
+        byte[][] parts = new byte[tasks.size()][];
+        int length = 2 + Math.max(0, tasks.size() - 1);
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = get(tasks.get(i));
+            length += parts[i].length;
+        }
+        byte[] array = new byte[length];
+        int offset = 0;
+        array[offset++] = '[';
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                array[offset++] = ',';
+            }
+            System.arraycopy(parts[i], 0, array, offset, parts[i].length);
+            offset += parts[i].length;
+        }
+        array[offset] = ']';
+        return array;
+    }
+
+    /**
+     * Drop every fragment
+     */
+    public void clear() {
+        evictionLock.lock();
+        try {
+            fragments.clear();
+            size.set(0);
+            hand = null;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * @return Bytes held by the cache, entry overhead included
+     */
+    public long size() {
+        return size.get();
+    }
+
+    /**
+     * Move the CLOCK hand until the cache is under the low mark. A single thread
+     * evicts at a time; the others go on without waiting.
+     */
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            long target = (long) (maxBytes * LOW_MARK);
+            // Two turns are enough to clear every reference bit, then evict
+            long steps = 2L * fragments.size() + 1;
+            while (size.get() > target && steps-- > 0) {
+                if (hand == null || !hand.hasNext()) {
+                    hand = fragments.entrySet().iterator();
+                    if (!hand.hasNext()) {
+                        return;
+                    }
+                }
+                Map.Entry<Long, Fragment> entry = hand.next();
+                Fragment fragment = entry.getValue();
+                if (fragment.referenced) {
+                    fragment.referenced = false;
+                } else if (fragments.remove(entry.getKey(), fragment)) {
+                    size.addAndGet(-fragment.weight());
+                    evictions.increment();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private byte[] serialize(Task task) {
+        try {
+            return writer.writeValueAsBytes(task);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.todolist.controller;
+
+import com.todolist.model.Task;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Cache of serialized JSON response bodies, for list endpoints read far more
+ * often than tasks change.
+ * <p>
+ * Each entry is tagged with the version of the list it was built from, as given
+ * by the task service; a mutation only bumps the versions of the lists it
+ * affects, so the other entries stay valid. The version must be read before
+ * the list: the cached body is then at least as recent as its version, and an
+ * entry is never served once a later change is visible.
+ * <p>
+ * On a miss, the body is assembled from the serialized tasks of the
+ * {@link TaskFragmentCache}: only the tasks changed since are serialized again.
+ * <p>
+ * Like the fragment cache, the cache is bounded by the size of its bodies and
+ * evicts with the CLOCK policy beyond the bound.
+ */
+@Component
+public class TaskResponseCache {
+
+    /** Cache lookups, tagged by result (hit or miss) */
+    public static final String GETS_METRIC = "todolist.response.cache.gets";
+    /** Bytes held by the cache */
+    public static final String SIZE_METRIC = "todolist.response.cache.size";
+    /** Bodies evicted to stay under the size bound */
+    public static final String EVICTIONS_METRIC = "todolist.response.cache.evictions";
+
+    // Eviction brings the cache back to this share of the bound, so it does not run on every miss
+    private static final double LOW_MARK = 0.9;
+
+    /** Serialized body of a list, and the version it was built from */
+    private static final class Entry {
+        final long version;
+        final byte[] body;
+        // Set on every hit, cleared by the eviction hand
+        volatile boolean referenced;
+
+        Entry(long version, byte[] body) {
+            this.version = version;
+            this.body = body;
+        }
+    }
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final TaskFragmentCache fragments;
+    private final boolean enabled;
+    private final long maxEntryBytes;
+    private final long maxBytes;
+    private final AtomicLong size = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    // Position of the eviction hand, guarded by evictionLock
+    private Iterator<Map.Entry<String, Entry>> hand;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Timer serializationTimer;
+
+    @Autowired
+    public TaskResponseCache(TaskFragmentCache fragments, ObjectProvider<MeterRegistry> meterRegistry,
+                             @Value("${todolist.response-cache.enabled:true}") boolean enabled,
+                             @Value("${todolist.response-cache.max-entry-size-mb:32}") int maxEntrySizeMb,
+                             @Value("${todolist.response-cache.max-size-mb:128}") int maxSizeMb) {
+        this(fragments, meterRegistry.getIfAvailable(() -> Metrics.globalRegistry), enabled,
+                maxEntrySizeMb * 1024L * 1024L, maxSizeMb * 1024L * 1024L);
+    }
+
+    /**
+     * @param enabled false to serialize on every call, without keeping anything
+     * @param maxEntryBytes Size above which a body is not kept
+     * @param maxBytes Bound on the size of all the bodies kept
+     */
+    public TaskResponseCache(TaskFragmentCache fragments, MeterRegistry meterRegistry, boolean enabled,
+                             long maxEntryBytes, long maxBytes) {
+        this.fragments = fragments;
+        this.enabled = enabled;
+        this.maxEntryBytes = Math.min(maxEntryBytes, maxBytes);
+        this.maxBytes = maxBytes;
+        this.hits = Counter.builder(GETS_METRIC)
+                .description("Lookups in the cache of serialized responses")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder(GETS_METRIC)
+                .description("Lookups in the cache of serialized responses")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.evictions = Counter.builder(EVICTIONS_METRIC)
+                .description("Serialized responses evicted from the cache")
+                .register(meterRegistry);
+        Gauge.builder(SIZE_METRIC, size, AtomicLong::get)
+                .description("Bytes held by the cache of serialized responses")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.serializationTimer = Timer.builder(TaskController.SERIALIZATION_METRIC)
+                .description("Time spent serializing response bodies")
+                .tag("format", "json")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Get the serialized body of a list, building it on a miss
+     * @param key Key of the list, one per endpoint and filter
+     * @param version Version of the list, read before calling this method
+     * @param body Reads the list, called on a miss only
+     * @return JSON body, to be written as is
+     */
+    public byte[] get(String key, long version, Supplier<List<Task>> body) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.version == version) {
+            if (!entry.referenced) {
+                entry.referenced = true;
+            }
+            hits.increment();
+            return entry.body;
+        }
+        misses.increment();
+        byte[] serialized = serialize(body.get());
+        if (enabled && serialized.length <= maxEntryBytes) {
+            Entry built = new Entry(version, serialized);
+            entries.compute(key, (k, current) -> {
+                // Two misses may race: keep the body of the most recent version
+                if (current != null && current.version > version) {
+                    return current;
+                }
+                size.addAndGet(serialized.length - (current != null ? current.body.length : 0));
+                return built;
+            });
+            if (size.get() > maxBytes) {
+                evict();
+            }
+        }
+        return serialized;
+    }
+
+    /**
+     * Drop every entry
+     */
+    public void clear() {
+        evictionLock.lock();
+        try {
+            entries.clear();
+            size.set(0);
+            hand = null;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * @return Bytes held by the cache
+     */
+    public long size() {
+        return size.get();
+    }
+
+    /**
+     * Write tasks as a JSON array without caching the result, for lists that
+     * are not worth keeping such as pages
+     * @param tasks Tasks to write
+     * @return JSON body, to be written as is
+     */
+    public byte[] serialize(List<Task> tasks) {
+        long start = System.nanoTime();
+        try {
+            return fragments.toJsonArray(tasks);
+        } finally {
+            serializationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Move the CLOCK hand until the cache is under the low mark. A single thread
+     * evicts at a time; the others go on without waiting.
+     */
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            long target = (long) (maxBytes * LOW_MARK);
+            // Two turns are enough to clear every reference bit, then evict
+            long steps = 2L * entries.size() + 1;
+            while (size.get() > target && steps-- > 0) {
+                if (hand == null || !hand.hasNext()) {
+                    hand = entries.entrySet().iterator();
+                    if (!hand.hasNext()) {
+                        return;
+                    }
+                }
+                Map.Entry<String, Entry> candidate = hand.next();
+                Entry entry = candidate.getValue();
+                if (entry.referenced) {
+                    entry.referenced = false;
+                } else if (entries.remove(candidate.getKey(), entry)) {
+                    size.addAndGet(-entry.body.length);
+                    evictions.increment();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.todolist.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one operation within a bulk request
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkItemResult {
+    private final Long id;
+    private final int status; // HTTP status the operation would have had on its own
+    private final Task task;
+    private final String error;
+
+    private BulkItemResult(Long id, int status, Task task, String error) {
+        this.id = id;
+        this.status = status;
+        this.task = task;
+        this.error = error;
+    }
+
+    public static BulkItemResult created(Task task) {
+        return new BulkItemResult(task.getId(), 201, task, null);
+    }
+
+    public static BulkItemResult ok(Task task) {
+        return new BulkItemResult(task.getId(), 200, task, null);
+    }
+
+    public static BulkItemResult deleted(Long id) {
+        return new BulkItemResult(id, 204, null, null);
+    }
+
+    public static BulkItemResult notFound(Long id) {
+        return new BulkItemResult(id, 404, null, "Task not found");
+    }
+
+    public static BulkItemResult invalid(Long id, String error) {
+        return new BulkItemResult(id, 400, null, error);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,34 @@
+package com.todolist.model;
+
+/**
+ * Représente la mise à jour du statut d'une tâche au sein d'un lot
+ */
+public class BulkStatusUpdate {
+    private Long id;
+    private String status;
+
+    public BulkStatusUpdate() {
+    }
+
+    public BulkStatusUpdate(Long id, String status) {
+        this.id = id;
+        this.status = status;
+    }
+
+    // Getters et setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+}
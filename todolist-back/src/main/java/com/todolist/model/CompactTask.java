@@ -0,0 +1,107 @@
+package com.todolist.model;
+
+import java.util.Date;
+
+/**
+ * Compact, immutable form of a {@link Task}, used to keep large numbers of tasks in memory.
+ * <p>
+ * Timestamps are stored as epoch milliseconds, status and priority as byte codes
+ * and the Pomodoro count as a primitive, so a task costs one object besides its
+ * label and description, instead of a {@link Task} with its boxed ID and counter
+ * and up to three {@link Date} objects. Values outside the standard statuses and
+ * priorities are kept as strings so that conversions never lose information.
+ */
+public final class CompactTask {
+
+    private static final String[] STATUSES = {
+            null, Task.STATUS_PENDING, Task.STATUS_IN_PROGRESS, Task.STATUS_COMPLETED, Task.STATUS_CANCELLED
+    };
+    private static final String[] PRIORITIES = {null, Task.PRIORITY_LOW, Task.PRIORITY_MEDIUM, Task.PRIORITY_HIGH};
+    /** Code of a status or priority outside the standard values, kept as a string */
+    private static final byte CUSTOM = -1;
+    /** Marks a missing Pomodoro count */
+    private static final int NO_COUNT = Integer.MIN_VALUE;
+
+    private final long id;
+    private final String label;
+    private final String description;
+    private final long createdAt;
+    private final long updatedAt;
+    private final long dueDate;
+    private final long version;
+    private final int pomodoroCount;
+    private final byte status;
+    private final byte priority;
+    // Only set for non-standard values
+    private final String customStatus;
+    private final String customPriority;
+
+    private CompactTask(Task task, long version) {
+        this.id = task.getId();
+        this.label = task.getLabel();
+        this.description = task.getDescription();
+        this.createdAt = task.createdAtMillis();
+        this.updatedAt = task.updatedAtMillis();
+        this.dueDate = task.dueDateMillis();
+        this.version = version;
+        this.pomodoroCount = task.getPomodoroCount() != null ? task.getPomodoroCount() : NO_COUNT;
+        this.status = encode(task.getStatus(), STATUSES);
+        this.customStatus = status == CUSTOM ? task.getStatus() : null;
+        this.priority = encode(task.getPriority(), PRIORITIES);
+        this.customPriority = priority == CUSTOM ? task.getPriority() : null;
+    }
+
+    /**
+     * @param task Task with its ID
+     * @return Compact copy of the task
+     */
+    public static CompactTask of(Task task) {
+        return new CompactTask(task, task.getVersion());
+    }
+
+    /**
+     * @param task Task with its ID
+     * @param version Version to record instead of the task's own, such as the one a store is about to assign
+     * @return Compact copy of the task with the given version
+     */
+    public static CompactTask of(Task task, long version) {
+        return new CompactTask(task, version);
+    }
+
+    /**
+     * @return New mutable task with the same content, free to be changed by the caller;
+     * its dates are only allocated if they are read
+     */
+    public Task toTask() {
+        return new Task(id, label, description, getStatus(), getPriority(), createdAt, updatedAt, dueDate,
+                pomodoroCount != NO_COUNT ? pomodoroCount : null, version);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getStatus() {
+        return status == CUSTOM ? customStatus : STATUSES[status];
+    }
+
+    public String getPriority() {
+        return priority == CUSTOM ? customPriority : PRIORITIES[priority];
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    private static byte encode(String value, String[] codes) {
+        if (value == null) {
+            return 0;
+        }
+        for (byte code = 1; code < codes.length; code++) {
+            if (codes[code].equals(value)) {
+                return code;
+            }
+        }
+        return CUSTOM;
+    }
+}
@@ -16,6 +16,8 @@ public class Task {
     public static final String PRIORITY_LOW = "low";
     public static final String PRIORITY_MEDIUM = "medium";
     public static final String PRIORITY_HIGH = "high";
+    /** Marks a missing timestamp in {@link #of} */
+    public static final long NO_DATE = Long.MIN_VALUE;
     // Basic properties
     private Long id;
     private String label;
@@ -23,17 +25,22 @@ public class Task {
     
     // Additional properties to match the frontend
     private String status; // pending, in-progress, completed, cancelled
+    // Timestamps in epoch milliseconds; the matching Date is only allocated when first read or set
+    private long createdAtMillis = NO_DATE;
+    private long updatedAtMillis = NO_DATE;
+    private long dueDateMillis = NO_DATE;
     private Date createdAt;
     private Date updatedAt;
     private Date dueDate;
     private String priority; // low, medium, high
     private Integer pomodoroCount; // Number of Pomodoro cycles
+    private long version; // Incremented by the store on every change, 0 until stored
     
     // Default constructor
     public Task() {
         // Initialize default dates
-        this.createdAt = new Date();
-        this.updatedAt = new Date();
+        this.createdAtMillis = System.currentTimeMillis();
+        this.updatedAtMillis = createdAtMillis;
         this.status = STATUS_PENDING; // Default status
         this.priority = PRIORITY_MEDIUM; // Default priority
         this.pomodoroCount = 0; // No Pomodoro cycles by default
@@ -48,17 +55,51 @@ public class Task {
         this.status = status != null ? status : STATUS_PENDING;
     }
     
+    // Used by the builder and by CompactTask, timestamps in epoch milliseconds or NO_DATE
+    Task(Long id, String label, String description, String status, String priority,
+         long createdAtMillis, long updatedAtMillis, long dueDateMillis, Integer pomodoroCount, long version) {
+        this.id = id;
+        this.label = label;
+        this.description = description;
+        this.status = status;
+        this.priority = priority;
+        this.createdAtMillis = createdAtMillis;
+        this.updatedAtMillis = updatedAtMillis;
+        this.dueDateMillis = dueDateMillis;
+        this.pomodoroCount = pomodoroCount;
+        this.version = version;
+    }
+    
+    /**
+     * Recreate a stored task from all its fields. Unlike the builder, dates are
+     * taken as epoch milliseconds and no Date is allocated until it is read.
+     * @param createdAtMillis Creation date in epoch milliseconds, or {@link #NO_DATE}
+     * @param updatedAtMillis Modification date in epoch milliseconds, or {@link #NO_DATE}
+     * @param dueDateMillis Due date in epoch milliseconds, or {@link #NO_DATE}
+     * @return The task, with the given fields unchanged
+     */
+    public static Task of(Long id, String label, String description, String status, String priority,
+                          long createdAtMillis, long updatedAtMillis, long dueDateMillis,
+                          Integer pomodoroCount, long version) {
+        return new Task(id, label, description, status, priority,
+                createdAtMillis, updatedAtMillis, dueDateMillis, pomodoroCount, version);
+    }
+    
     // Builder pattern to avoid constructor with too many parameters
     public static class Builder {
         private Long id;
         private String label;
         private String description;
         private String status = STATUS_PENDING;
-        private Date createdAt = new Date();
-        private Date updatedAt = new Date();
+        // Dates of creation, set to the build time when not given
+        private Date createdAt;
+        private Date updatedAt;
+        private boolean createdAtSet;
+        private boolean updatedAtSet;
         private Date dueDate;
         private String priority = PRIORITY_MEDIUM;
         private Integer pomodoroCount = 0;
+        private long version;
         
         public Builder(Long id, String label) {
             this.id = id;
@@ -87,11 +128,13 @@ public class Task {
         
         public Builder createdAt(Date createdAt) {
             this.createdAt = createdAt;
+            this.createdAtSet = true;
             return this;
         }
         
         public Builder updatedAt(Date updatedAt) {
             this.updatedAt = updatedAt;
+            this.updatedAtSet = true;
             return this;
         }
         
@@ -110,18 +153,17 @@ public class Task {
             return this;
         }
         
+        public Builder version(long version) {
+            this.version = version;
+            return this;
+        }
+        
         public Task build() {
-            Task task = new Task();
-            task.id = this.id;
-            task.label = this.label;
-            task.description = this.description;
-            task.status = this.status;
-            task.createdAt = this.createdAt;
-            task.updatedAt = this.updatedAt;
-            task.dueDate = this.dueDate;
-            task.priority = this.priority;
-            task.pomodoroCount = this.pomodoroCount;
-            return task;
+            long now = createdAtSet && updatedAtSet ? 0L : System.currentTimeMillis();
+            return new Task(id, label, description, status, priority,
+                    createdAtSet ? millis(createdAt) : now,
+                    updatedAtSet ? millis(updatedAt) : now,
+                    millis(dueDate), pomodoroCount, version);
         }
     }
     
@@ -148,19 +190,36 @@ public class Task {
         return STATUS_COMPLETED.equals(status);
     }
     
+    /**
+     * @param status Task status, possibly null or non-standard
+     * @return true if a task with this status is still to do: neither completed nor cancelled
+     */
+    public static boolean isIncomplete(String status) {
+        return !STATUS_COMPLETED.equals(status) && !STATUS_CANCELLED.equals(status);
+    }
+
     public String getStatus() {
         return status;
     }
     
     public Date getCreatedAt() {
+        if (createdAt == null && createdAtMillis != NO_DATE) {
+            createdAt = new Date(createdAtMillis);
+        }
         return createdAt;
     }
     
     public Date getUpdatedAt() {
+        if (updatedAt == null && updatedAtMillis != NO_DATE) {
+            updatedAt = new Date(updatedAtMillis);
+        }
         return updatedAt;
     }
     
     public Date getDueDate() {
+        if (dueDate == null && dueDateMillis != NO_DATE) {
+            dueDate = new Date(dueDateMillis);
+        }
         return dueDate;
     }
     
@@ -172,6 +231,10 @@ public class Task {
         return pomodoroCount;
     }
     
+    public long getVersion() {
+        return version;
+    }
+    
     // Setters
     public void setId(Long id) {
         this.id = id;
@@ -179,12 +242,12 @@ public class Task {
     
     public void setLabel(String label) {
         this.label = label;
-        this.updatedAt = new Date(); // Update the modification date
+        touch(); // Update the modification date
     }
     
     public void setDescription(String description) {
         this.description = description;
-        this.updatedAt = new Date(); // Update the modification date
+        touch(); // Update the modification date
     }
     
     /**
@@ -200,34 +263,72 @@ public class Task {
         } else if (!completed && STATUS_COMPLETED.equals(this.status)) {
             this.status = STATUS_PENDING;
         }
-        this.updatedAt = new Date(); // Mettre à jour la date de modification
+        touch(); // Mettre à jour la date de modification
     }
     
     public void setStatus(String status) {
         this.status = status;
-        this.updatedAt = new Date(); // Mettre à jour la date de modification
+        touch(); // Mettre à jour la date de modification
     }
     
     public void setCreatedAt(Date createdAt) {
         this.createdAt = createdAt;
+        this.createdAtMillis = millis(createdAt);
     }
     
     public void setUpdatedAt(Date updatedAt) {
         this.updatedAt = updatedAt;
+        this.updatedAtMillis = millis(updatedAt);
     }
     
     public void setDueDate(Date dueDate) {
         this.dueDate = dueDate;
-        this.updatedAt = new Date(); // Mettre à jour la date de modification
+        this.dueDateMillis = millis(dueDate);
+        touch(); // Mettre à jour la date de modification
     }
     
     public void setPriority(String priority) {
         this.priority = priority;
-        this.updatedAt = new Date(); // Mettre à jour la date de modification
+        touch(); // Mettre à jour la date de modification
     }
     
     public void setPomodoroCount(Integer pomodoroCount) {
         this.pomodoroCount = pomodoroCount;
-        this.updatedAt = new Date(); // Mettre à jour la date de modification
+        touch(); // Mettre à jour la date de modification
+    }
+    
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    /**
+     * @return An independent copy of this task, with the same id, fields and version
+     */
+    public Task copy() {
+        return new Task(id, label, description, status, priority,
+                createdAtMillis(), updatedAtMillis(), dueDateMillis(), pomodoroCount, version);
+    }
+
+    // Timestamps without allocating a Date, for CompactTask; a Date already handed out may have been changed
+    long createdAtMillis() {
+        return createdAt != null ? createdAt.getTime() : createdAtMillis;
+    }
+    
+    long updatedAtMillis() {
+        return updatedAt != null ? updatedAt.getTime() : updatedAtMillis;
+    }
+    
+    long dueDateMillis() {
+        return dueDate != null ? dueDate.getTime() : dueDateMillis;
+    }
+    
+    // Sets the modification date to now, without allocating a Date until it is read
+    private void touch() {
+        this.updatedAt = null;
+        this.updatedAtMillis = System.currentTimeMillis();
+    }
+    
+    private static long millis(Date date) {
+        return date != null ? date.getTime() : NO_DATE;
     }
 }
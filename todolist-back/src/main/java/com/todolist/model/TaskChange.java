@@ -0,0 +1,47 @@
+package com.todolist.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One insert, update or delete of a task, numbered in the order changes were made
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaskChange {
+    public static final String TYPE_INSERT = "insert";
+    public static final String TYPE_UPDATE = "update";
+    public static final String TYPE_DELETE = "delete";
+
+    private final long sequence;
+    private final String type;
+    private final long id;
+    private final Task task;
+
+    public TaskChange(long sequence, String type, long id, Task task) {
+        this.sequence = sequence;
+        this.type = type;
+        this.id = id;
+        this.task = task;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return insert, update or delete
+     */
+    public String getType() {
+        return type;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * @return State of the task right after the change, or null for a delete
+     */
+    public Task getTask() {
+        return task;
+    }
+}
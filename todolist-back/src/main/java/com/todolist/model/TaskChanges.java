@@ -0,0 +1,49 @@
+package com.todolist.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Changes made after a given sequence number, oldest first
+ */
+public class TaskChanges {
+    private final long sequence;
+    private final boolean resyncRequired;
+    private final boolean hasMore;
+    private final List<TaskChange> changes;
+
+    public TaskChanges(long sequence, boolean resyncRequired, boolean hasMore, List<TaskChange> changes) {
+        this.sequence = sequence;
+        this.resyncRequired = resyncRequired;
+        this.hasMore = hasMore;
+        this.changes = changes;
+    }
+
+    /**
+     * @return Sequence number to ask changes since on the next call
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return true if changes since the requested sequence are no longer known:
+     * the client must reload all tasks, then ask changes since {@link #getSequence()}
+     */
+    public boolean isResyncRequired() {
+        return resyncRequired;
+    }
+
+    /**
+     * @return true if more changes follow the last one of this response
+     */
+    @JsonProperty("hasMore")
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    public List<TaskChange> getChanges() {
+        return changes;
+    }
+}
@@ -0,0 +1,33 @@
+package com.todolist.model;
+
+import java.util.List;
+
+/**
+ * A page of tasks in ID order, with the position to resume from
+ */
+public class TaskPage {
+    private final List<Task> tasks;
+    private final Long lastId;
+    private final boolean hasMore;
+
+    public TaskPage(List<Task> tasks, Long lastId, boolean hasMore) {
+        this.tasks = tasks;
+        this.lastId = lastId;
+        this.hasMore = hasMore;
+    }
+
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    /**
+     * @return ID of the last task scanned for this page, or null if the page is empty
+     */
+    public Long getLastId() {
+        return lastId;
+    }
+
+    public boolean hasMore() {
+        return hasMore;
+    }
+}
@@ -0,0 +1,130 @@
+package com.todolist.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.Date;
+
+/**
+ * JSON Merge Patch (RFC 7396) of a task: only the members present in the
+ * document are changed, and a null member clears the field.
+ * Members the server manages (id, dates, version) are ignored.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TaskPatch {
+    /** Media type of merge-patch documents */
+    public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    private String label;
+    private String description;
+    private String status;
+    private Date dueDate;
+    private String priority;
+    private Integer pomodoroCount;
+
+    // Set when the member is present in the document, even with a null value
+    private boolean labelSet;
+    private boolean descriptionSet;
+    private boolean statusSet;
+    private boolean dueDateSet;
+    private boolean prioritySet;
+    private boolean pomodoroCountSet;
+
+    /**
+     * Apply the patch to a task
+     * @param task Task to change
+     */
+    public void applyTo(Task task) {
+        if (labelSet) {
+            task.setLabel(label);
+        }
+        if (descriptionSet) {
+            task.setDescription(description);
+        }
+        if (statusSet) {
+            task.setStatus(status);
+        }
+        if (dueDateSet) {
+            task.setDueDate(dueDate);
+        }
+        if (prioritySet) {
+            task.setPriority(priority);
+        }
+        if (pomodoroCountSet) {
+            task.setPomodoroCount(pomodoroCount);
+        }
+    }
+
+    /**
+     * @return true if the patch changes no field
+     */
+    public boolean isEmpty() {
+        return !(labelSet || descriptionSet || statusSet || dueDateSet || prioritySet || pomodoroCountSet);
+    }
+
+    public boolean hasStatus() {
+        return statusSet;
+    }
+
+    public boolean hasPriority() {
+        return prioritySet;
+    }
+
+    public boolean hasPomodoroCount() {
+        return pomodoroCountSet;
+    }
+
+    // Getters and setters; a setter marks its member as present
+    public String getLabel() {
+        return label;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+        this.labelSet = true;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+        this.descriptionSet = true;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+        this.statusSet = true;
+    }
+
+    public Date getDueDate() {
+        return dueDate;
+    }
+
+    public void setDueDate(Date dueDate) {
+        this.dueDate = dueDate;
+        this.dueDateSet = true;
+    }
+
+    public String getPriority() {
+        return priority;
+    }
+
+    public void setPriority(String priority) {
+        this.priority = priority;
+        this.prioritySet = true;
+    }
+
+    public Integer getPomodoroCount() {
+        return pomodoroCount;
+    }
+
+    public void setPomodoroCount(Integer pomodoroCount) {
+        this.pomodoroCount = pomodoroCount;
+        this.pomodoroCountSet = true;
+    }
+}
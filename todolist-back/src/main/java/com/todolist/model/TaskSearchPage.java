@@ -0,0 +1,27 @@
+package com.todolist.model;
+
+import java.util.List;
+
+/**
+ * A page of full-text search results, best matches first
+ */
+public class TaskSearchPage {
+    private final List<Task> tasks;
+    private final int total;
+
+    public TaskSearchPage(List<Task> tasks, int total) {
+        this.tasks = tasks;
+        this.total = total;
+    }
+
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    /**
+     * @return Number of matching tasks across all pages
+     */
+    public int getTotal() {
+        return total;
+    }
+}
@@ -0,0 +1,55 @@
+package com.todolist.model;
+
+import java.util.Map;
+
+/**
+ * Aggregate figures over all stored tasks
+ */
+public class TaskStatistics {
+    private final long total;
+    private final Map<String, Long> byStatus;
+    private final Map<String, Long> byPriority;
+    private final long overdue;
+    private final long pomodoroCount;
+
+    public TaskStatistics(long total, Map<String, Long> byStatus, Map<String, Long> byPriority,
+                          long overdue, long pomodoroCount) {
+        this.total = total;
+        this.byStatus = byStatus;
+        this.byPriority = byPriority;
+        this.overdue = overdue;
+        this.pomodoroCount = pomodoroCount;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * @return Number of tasks per status; standard statuses are always present, tasks without a status are not counted
+     */
+    public Map<String, Long> getByStatus() {
+        return byStatus;
+    }
+
+    /**
+     * @return Number of tasks per priority; standard priorities are always present, tasks without a priority are not counted
+     */
+    public Map<String, Long> getByPriority() {
+        return byPriority;
+    }
+
+    /**
+     * @return Number of incomplete tasks whose due date has passed
+     */
+    public long getOverdue() {
+        return overdue;
+    }
+
+    /**
+     * @return Sum of the Pomodoro counts of all tasks
+     */
+    public long getPomodoroCount() {
+        return pomodoroCount;
+    }
+}
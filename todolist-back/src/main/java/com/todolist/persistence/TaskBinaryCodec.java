@@ -0,0 +1,131 @@
+package com.todolist.persistence;
+
+import com.todolist.model.Task;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+/**
+ * Encodage binaire compact d'une tâche, partagé par le journal et les snapshots.
+ * Les champs optionnels sont précédés d'un marqueur de présence ; les dates
+ * sont stockées en millisecondes depuis l'epoch.
+ */
+public final class TaskBinaryCodec {
+
+    private TaskBinaryCodec() {
+    }
+
+    /**
+     * Écrit l'état complet d'une tâche
+     * @param out Flux de destination
+     * @param task Tâche à écrire (avec son ID)
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public static void write(DataOutput out, Task task) throws IOException {
+        out.writeLong(task.getId());
+        writeString(out, task.getLabel());
+        writeString(out, task.getDescription());
+        writeString(out, task.getStatus());
+        writeString(out, task.getPriority());
+        writeDate(out, task.getCreatedAt());
+        writeDate(out, task.getUpdatedAt());
+        writeDate(out, task.getDueDate());
+        out.writeBoolean(task.getPomodoroCount() != null);
+        if (task.getPomodoroCount() != null) {
+            out.writeInt(task.getPomodoroCount());
+        }
+        out.writeLong(task.getVersion());
+    }
+
+    /**
+     * Relit une tâche écrite par {@link #write}
+     * @param in Flux source
+     * @return Tâche reconstruite, sans modifier ses dates
+     * @throws IOException en cas d'erreur de lecture
+     */
+    public static Task read(DataInput in) throws IOException {
+        long id = in.readLong();
+        String label = readString(in);
+        String description = readString(in);
+        String status = readString(in);
+        String priority = readString(in);
+        long createdAt = readDate(in);
+        long updatedAt = readDate(in);
+        long dueDate = readDate(in);
+        Integer pomodoroCount = in.readBoolean() ? in.readInt() : null;
+        return Task.of(id, label, description, status, priority, createdAt, updatedAt, dueDate,
+                pomodoroCount, in.readLong());
+    }
+
+    /**
+     * Relit une tâche écrite par {@link #write} directement depuis un tampon,
+     * par exemple un fichier projeté en mémoire
+     * @param buffer Tampon positionné sur la tâche, avancé après lecture
+     * @return Tâche reconstruite, sans modifier ses dates
+     */
+    public static Task read(ByteBuffer buffer) {
+        long id = buffer.getLong();
+        String label = readString(buffer);
+        String description = readString(buffer);
+        String status = readString(buffer);
+        String priority = readString(buffer);
+        long createdAt = readDate(buffer);
+        long updatedAt = readDate(buffer);
+        long dueDate = readDate(buffer);
+        Integer pomodoroCount = buffer.get() != 0 ? buffer.getInt() : null;
+        return Task.of(id, label, description, status, priority, createdAt, updatedAt, dueDate,
+                pomodoroCount, buffer.getLong());
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeDate(DataOutput out, Date date) throws IOException {
+        out.writeBoolean(date != null);
+        if (date != null) {
+            out.writeLong(date.getTime());
+        }
+    }
+
+    /**
+     * @return Date en millisecondes, ou {@link Task#NO_DATE} si elle est absente
+     */
+    private static long readDate(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readLong() : Task.NO_DATE;
+    }
+
+    private static long readDate(ByteBuffer buffer) {
+        return buffer.get() != 0 ? buffer.getLong() : Task.NO_DATE;
+    }
+}
@@ -0,0 +1,190 @@
+package com.todolist.persistence;
+
+import com.todolist.model.Task;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Snapshots binaires de l'ensemble des tâches, utilisés pour borner la durée
+ * du rejeu du {@link TaskWriteAheadLog}.
+ * <p>
+ * Un snapshot {@code snapshot-<numéro>.bin} contient l'état des tâches tel que
+ * tous les enregistrements du journal de numéro inférieur y sont reflétés ;
+ * il suffit ensuite de rejouer le journal à partir de ce numéro. Le fichier est
+ * écrit sous un nom temporaire puis renommé atomiquement, et relu par projection
+ * en mémoire.
+ * <p>
+ * Format : magique (int), version (int), numéro de séquence (long), prochain
+ * ID (long), puis pour chaque tâche un marqueur 1 suivi de la tâche, un marqueur
+ * 0 de fin et le CRC32 (int) de tout ce qui précède.
+ */
+public class TaskSnapshotStore {
+
+    /** Contenu de l'en-tête d'un snapshot chargé */
+    public static final class SnapshotInfo {
+        private final long lsn;
+        private final long nextId;
+        private final long taskCount;
+
+        SnapshotInfo(long lsn, long nextId, long taskCount) {
+            this.lsn = lsn;
+            this.nextId = nextId;
+            this.taskCount = taskCount;
+        }
+
+        /** @return Premier numéro de séquence du journal à rejouer après ce snapshot */
+        public long getLsn() {
+            return lsn;
+        }
+
+        public long getNextId() {
+            return nextId;
+        }
+
+        public long getTaskCount() {
+            return taskCount;
+        }
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(TaskSnapshotStore.class);
+
+    private static final int MAGIC = 0x54534B53; // "TSKS"
+    private static final int VERSION = 1;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".bin";
+
+    private final Path directory;
+
+    /**
+     * @param directory Répertoire des snapshots (créé si besoin)
+     * @throws IOException si le répertoire ne peut pas être créé
+     */
+    public TaskSnapshotStore(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    /**
+     * Écrit un snapshot puis supprime les plus anciens. Les tâches peuvent être
+     * modifiées pendant l'écriture : toute modification postérieure à {@code lsn}
+     * est de toute façon rejouée depuis le journal.
+     * @param lsn Numéro de séquence à partir duquel le journal devra être rejoué
+     * @param nextId Prochain ID à allouer
+     * @param tasks Tâches à écrire
+     * @return Nombre de tâches écrites
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public long write(long lsn, long nextId, Iterable<Task> tasks) throws IOException {
+        Path target = snapshotPath(lsn);
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+        long count = 0;
+        try (OutputStream file = Files.newOutputStream(temporary)) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file, 1 << 16), new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(lsn);
+            out.writeLong(nextId);
+            for (Task task : tasks) {
+                out.writeByte(1);
+                TaskBinaryCodec.write(out, task);
+                count++;
+            }
+            out.writeByte(0);
+            out.flush();
+            out.writeInt((int) checked.getChecksum().getValue());
+            out.flush();
+        }
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        for (Path older : listSnapshots()) {
+            if (!older.equals(target)) {
+                Files.deleteIfExists(older);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Charge le snapshot le plus récent par projection en mémoire
+     * @param consumer Traitement de chaque tâche relue
+     * @return En-tête du snapshot chargé, ou vide s'il n'en existe aucun
+     * @throws IOException en cas d'erreur de lecture ou si le snapshot est corrompu
+     */
+    public Optional<SnapshotInfo> loadLatest(Consumer<Task> consumer) throws IOException {
+        List<Path> snapshots = listSnapshots();
+        if (snapshots.isEmpty()) {
+            return Optional.empty();
+        }
+        Path latest = snapshots.get(snapshots.size() - 1);
+        try (FileChannel channel = FileChannel.open(latest, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot trop volumineux pour être projeté en mémoire : " + latest);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            verifyChecksum(buffer, latest);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Format de snapshot non reconnu : " + latest);
+            }
+            long lsn = buffer.getLong();
+            long nextId = buffer.getLong();
+            long count = 0;
+            while (buffer.get() != 0) {
+                consumer.accept(TaskBinaryCodec.read(buffer));
+                count++;
+            }
+            log.info("Snapshot {} chargé : {} tâches", latest, count);
+            return Optional.of(new SnapshotInfo(lsn, nextId, count));
+        }
+    }
+
+    private static void verifyChecksum(ByteBuffer buffer, Path path) throws IOException {
+        int limit = buffer.limit();
+        if (limit < Integer.BYTES) {
+            throw new IOException("Snapshot tronqué : " + path);
+        }
+        CRC32 crc = new CRC32();
+        ByteBuffer content = buffer.duplicate();
+        content.limit(limit - Integer.BYTES);
+        crc.update(content);
+        if ((int) crc.getValue() != buffer.getInt(limit - Integer.BYTES)) {
+            throw new IOException("Snapshot corrompu : " + path);
+        }
+    }
+
+    private List<Path> listSnapshots() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private Path snapshotPath(long lsn) {
+        return directory.resolve(String.format("%s%020d%s", PREFIX, lsn, SUFFIX));
+    }
+}
@@ -0,0 +1,493 @@
+package com.todolist.persistence;
+
+import com.todolist.model.Task;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Journal binaire en ajout seul (write-ahead log) des mutations de tâches.
+ * <p>
+ * Chaque enregistrement contient l'état complet de la tâche (ou sa suppression),
+ * ce qui rend le rejeu idempotent. Les appelants déposent leurs enregistrements
+ * dans une file ; un thread d'écriture unique les regroupe (group commit),
+ * les écrit en un seul appel système et les synchronise sur disque selon la
+ * {@link FsyncPolicy} configurée avant de libérer les appelants.
+ * <p>
+ * Format d'un enregistrement : longueur (int), CRC32 (int), puis la charge
+ * utile : numéro de séquence (long), type (byte) et données.
+ * Le journal est découpé en segments {@code wal-<premier numéro>.log} ; après
+ * un snapshot, {@link #rollSegment()} et {@link #deleteSegmentsBefore(long)}
+ * permettent d'écarter les segments devenus inutiles.
+ * <p>
+ * Le journal échoue fermé : après une erreur d'écriture ou de synchronisation,
+ * le lot en cours est coupé du segment, puis tout enregistrement en attente ou
+ * déposé ensuite est refusé avec la même erreur. Aucun enregistrement acquitté
+ * ne peut ainsi suivre une fin de segment tronquée, que le rejeu écarterait.
+ */
+public class TaskWriteAheadLog implements Closeable {
+
+    /** Politique de synchronisation sur disque des écritures */
+    public enum FsyncPolicy {
+        /** fsync à chaque group commit, avant d'acquitter les appelants */
+        ALWAYS,
+        /** fsync au plus une fois par intervalle ; une panne peut perdre le dernier intervalle */
+        INTERVAL,
+        /** Pas de fsync explicite, laissé au système d'exploitation */
+        NEVER
+    }
+
+    /** Traitement des enregistrements relus au démarrage */
+    public interface ReplayHandler {
+        void upsert(Task task);
+
+        void delete(long id);
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(TaskWriteAheadLog.class);
+
+    private static final byte TYPE_UPSERT = 1;
+    private static final byte TYPE_DELETE = 2;
+    private static final int HEADER_SIZE = 8;
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalNanos;
+    private final int maxBatchSize;
+    private final long segmentSize;
+
+    private final BlockingQueue<PendingRecord> queue = new LinkedBlockingQueue<>();
+    private Thread writer;
+    private volatile boolean closed;
+    private volatile IOException failure;
+
+    // Protégés par segmentLock une fois le journal ouvert
+    private final Object segmentLock = new Object();
+    private FileChannel segment;
+    private long segmentStartLsn;
+    private long nextLsn = 1L;
+    private long lastFsyncNanos;
+    private boolean dirty;
+
+    /**
+     * @param directory Répertoire des segments (créé si besoin)
+     * @param fsyncPolicy Politique de synchronisation sur disque
+     * @param fsyncIntervalMillis Intervalle de synchronisation pour {@link FsyncPolicy#INTERVAL}
+     * @param maxBatchSize Nombre maximum d'enregistrements par group commit
+     * @param segmentSize Taille au-delà de laquelle un nouveau segment est ouvert
+     * @throws IOException si le répertoire ne peut pas être créé
+     */
+    public TaskWriteAheadLog(Path directory, FsyncPolicy fsyncPolicy, long fsyncIntervalMillis,
+                             int maxBatchSize, long segmentSize) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMillis);
+        this.maxBatchSize = maxBatchSize;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Rejoue l'intégralité du journal puis l'ouvre en écriture
+     * @param handler Traitement de chaque enregistrement, dans l'ordre du journal
+     * @return Nombre d'enregistrements rejoués
+     * @throws IOException en cas d'erreur de lecture ou si le journal est corrompu
+     * @see #replay(long, ReplayHandler)
+     */
+    public long replay(ReplayHandler handler) throws IOException {
+        return replay(1L, handler);
+    }
+
+    /**
+     * Rejoue le journal à partir d'un numéro de séquence puis l'ouvre en écriture.
+     * Doit être appelé une seule fois, avant tout ajout. Une fin de segment
+     * tronquée (écriture interrompue) est ignorée et coupée.
+     * @param fromLsn Premier numéro de séquence à rejouer (celui d'un snapshot chargé au préalable)
+     * @param handler Traitement de chaque enregistrement, dans l'ordre du journal
+     * @return Nombre d'enregistrements rejoués
+     * @throws IOException en cas d'erreur de lecture ou si le journal est corrompu
+     */
+    public synchronized long replay(long fromLsn, ReplayHandler handler) throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("Le journal est déjà ouvert");
+        }
+        long count = 0;
+        nextLsn = Math.max(nextLsn, fromLsn);
+        List<Path> segments = listSegments();
+        for (int i = 0; i < segments.size(); i++) {
+            count += replaySegment(segments.get(i), fromLsn, handler, i == segments.size() - 1);
+        }
+        if (segments.isEmpty()) {
+            segmentStartLsn = nextLsn;
+        } else {
+            segmentStartLsn = startLsnOf(segments.get(segments.size() - 1));
+            nextLsn = Math.max(nextLsn, segmentStartLsn);
+        }
+        segment = FileChannel.open(segmentPath(segmentStartLsn), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        segment.position(segment.size());
+        lastFsyncNanos = System.nanoTime();
+
+        writer = new Thread(this::runWriter, "task-wal-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Journal {} rejoué : {} enregistrements", directory, count);
+        return count;
+    }
+
+    /**
+     * Dépose l'état courant d'une tâche dans le journal. La tâche est encodée
+     * immédiatement : l'appelant peut la modifier dès le retour.
+     * @param task Tâche créée ou modifiée
+     * @return Futur complété une fois l'enregistrement écrit (et synchronisé selon la politique)
+     */
+    public CompletableFuture<Void> appendUpsert(Task task) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(TYPE_UPSERT);
+            TaskBinaryCodec.write(out, task);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return enqueue(bytes.toByteArray());
+    }
+
+    /**
+     * Dépose la suppression d'une tâche dans le journal
+     * @param id ID de la tâche supprimée
+     * @return Futur complété une fois l'enregistrement écrit (et synchronisé selon la politique)
+     */
+    public CompletableFuture<Void> appendDelete(long id) {
+        return enqueue(ByteBuffer.allocate(9).put(TYPE_DELETE).putLong(id).array());
+    }
+
+    /**
+     * Ferme le segment courant et en ouvre un nouveau, sauf si le segment courant
+     * est vide. Tous les enregistrements de numéro inférieur au résultat sont
+     * écrits ; ceux qui restent en file recevront un numéro supérieur ou égal.
+     * @return Premier numéro de séquence du nouveau segment
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public long rollSegment() throws IOException {
+        synchronized (segmentLock) {
+            if (failure != null) {
+                throw failure;
+            }
+            if (segment.size() > 0) {
+                try {
+                    openNextSegment();
+                } catch (IOException e) {
+                    failure = e;
+                    throw e;
+                }
+            }
+            return segmentStartLsn;
+        }
+    }
+
+    /**
+     * Supprime les segments dont tous les enregistrements précèdent un numéro
+     * de séquence, typiquement celui d'un snapshot écrit avec succès
+     * @param lsn Numéro de séquence à partir duquel le journal doit être conservé
+     * @return Nombre de segments supprimés
+     * @throws IOException en cas d'erreur de suppression
+     */
+    public int deleteSegmentsBefore(long lsn) throws IOException {
+        int deleted = 0;
+        synchronized (segmentLock) {
+            for (Path path : listSegments()) {
+                long start = startLsnOf(path);
+                // Un segment ne contient que des numéros inférieurs au début du segment suivant
+                if (start < lsn && start < segmentStartLsn) {
+                    Files.deleteIfExists(path);
+                    deleted++;
+                }
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Écrit les enregistrements en attente, synchronise et ferme le journal
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (writer != null) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (segmentLock) {
+                if (failure == null) {
+                    segment.force(false);
+                }
+                segment.close();
+            }
+        }
+        failPending(failure != null ? failure : new IOException("Journal fermé"));
+    }
+
+    private CompletableFuture<Void> enqueue(byte[] body) {
+        PendingRecord record = new PendingRecord(body);
+        IOException refusal = refusal();
+        if (refusal != null) {
+            record.done.completeExceptionally(refusal);
+            return record.done;
+        }
+        queue.add(record);
+        refusal = refusal();
+        if (refusal != null) {
+            // Fermeture ou échec concurrent : le thread d'écriture a pu s'arrêter avant l'ajout
+            failPending(refusal);
+        }
+        return record.done;
+    }
+
+    /**
+     * @return Erreur à opposer aux nouveaux enregistrements, ou null si le journal les accepte
+     */
+    private IOException refusal() {
+        IOException cause = failure;
+        if (cause != null) {
+            return cause;
+        }
+        return closed ? new IOException("Journal fermé") : null;
+    }
+
+    private void runWriter() {
+        List<PendingRecord> batch = new ArrayList<>(maxBatchSize);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                PendingRecord first = queue.poll(10, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    synchronized (segmentLock) {
+                        syncIfDue();
+                    }
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                synchronized (segmentLock) {
+                    writeBatch(batch);
+                }
+                for (PendingRecord record : batch) {
+                    record.done.complete(null);
+                }
+            } catch (IOException e) {
+                log.error("Échec d'écriture du journal {}, plus aucun enregistrement accepté", directory, e);
+                failure = e;
+                for (PendingRecord record : batch) {
+                    record.done.completeExceptionally(e);
+                }
+                failPending(e);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    private void writeBatch(List<PendingRecord> batch) throws IOException {
+        if (segment.size() >= segmentSize) {
+            openNextSegment();
+        }
+        int size = 0;
+        for (PendingRecord record : batch) {
+            size += HEADER_SIZE + Long.BYTES + record.body.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        CRC32 crc = new CRC32();
+        for (PendingRecord record : batch) {
+            ByteBuffer payload = ByteBuffer.allocate(Long.BYTES + record.body.length);
+            payload.putLong(nextLsn++).put(record.body).flip();
+            crc.reset();
+            crc.update(payload.duplicate());
+            buffer.putInt(payload.remaining()).putInt((int) crc.getValue()).put(payload);
+        }
+        buffer.flip();
+        long position = segment.position();
+        long firstLsn = nextLsn - batch.size();
+        try {
+            while (buffer.hasRemaining()) {
+                segment.write(buffer);
+            }
+            dirty = true;
+            if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+                sync();
+            } else {
+                syncIfDue();
+            }
+        } catch (IOException e) {
+            // Le lot est refusé : il ne doit ni laisser d'octets partiels ni revenir au rejeu
+            nextLsn = firstLsn;
+            try {
+                segment.truncate(position);
+            } catch (IOException truncation) {
+                e.addSuppressed(truncation);
+            }
+            throw e;
+        }
+    }
+
+    private void syncIfDue() throws IOException {
+        if (fsyncPolicy == FsyncPolicy.INTERVAL && dirty
+                && System.nanoTime() - lastFsyncNanos >= fsyncIntervalNanos) {
+            sync();
+        }
+    }
+
+    private void sync() throws IOException {
+        segment.force(false);
+        lastFsyncNanos = System.nanoTime();
+        dirty = false;
+    }
+
+    private void openNextSegment() throws IOException {
+        segment.force(false);
+        segment.close();
+        segmentStartLsn = nextLsn;
+        segment = FileChannel.open(segmentPath(segmentStartLsn), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        dirty = false;
+    }
+
+    private long replaySegment(Path path, long fromLsn, ReplayHandler handler, boolean last) throws IOException {
+        long count = 0;
+        long validLength = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            while (true) {
+                byte[] payload = readRecord(in);
+                if (payload == null) {
+                    break;
+                }
+                if (apply(payload, fromLsn, handler)) {
+                    count++;
+                }
+                validLength += HEADER_SIZE + payload.length;
+            }
+        }
+        long fileLength = Files.size(path);
+        if (validLength < fileLength) {
+            if (!last) {
+                throw new IOException("Segment de journal corrompu : " + path);
+            }
+            log.warn("Fin de journal tronquée ignorée dans {} ({} octets)", path, fileLength - validLength);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return Charge utile du prochain enregistrement, ou null en fin de segment
+     *         ou si l'enregistrement est incomplet ou corrompu
+     */
+    private static byte[] readRecord(DataInputStream in) throws IOException {
+        int length;
+        int checksum;
+        try {
+            length = in.readInt();
+            checksum = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (length < Long.BYTES + 1) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        try {
+            in.readFully(payload);
+        } catch (EOFException e) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue() == checksum ? payload : null;
+    }
+
+    /**
+     * @return true si l'enregistrement a été rejoué, false s'il précède {@code fromLsn}
+     */
+    private boolean apply(byte[] payload, long fromLsn, ReplayHandler handler) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        long lsn = buffer.getLong();
+        nextLsn = Math.max(nextLsn, lsn + 1);
+        if (lsn < fromLsn) {
+            return false;
+        }
+        byte type = buffer.get();
+        if (type == TYPE_UPSERT) {
+            handler.upsert(TaskBinaryCodec.read(buffer));
+        } else if (type == TYPE_DELETE) {
+            handler.delete(buffer.getLong());
+        } else {
+            throw new IOException("Type d'enregistrement inconnu : " + type);
+        }
+        return true;
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static long startLsnOf(Path segmentPath) {
+        String name = segmentPath.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private Path segmentPath(long firstLsn) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstLsn, SEGMENT_SUFFIX));
+    }
+
+    private void failPending(IOException cause) {
+        PendingRecord record;
+        while ((record = queue.poll()) != null) {
+            record.done.completeExceptionally(cause);
+        }
+    }
+
+    private static final class PendingRecord {
+        private final byte[] body;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private PendingRecord(byte[] body) {
+            this.body = body;
+        }
+    }
+}
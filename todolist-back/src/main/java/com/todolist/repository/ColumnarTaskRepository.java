@@ -0,0 +1,608 @@
+package com.todolist.repository;
+
+import com.todolist.model.Task;
+import com.todolist.model.TaskPage;
+import com.todolist.model.TaskStatistics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Stockage des tâches en mémoire par colonnes, pour les parcours et agrégats
+ * sur de très grands volumes.
+ * <p>
+ * Chaque champ est un tableau de types primitifs, une case par tâche dans
+ * l'ordre des IDs : IDs, dates (en millisecondes) et versions en {@code long[]},
+ * statut et priorité codés en {@code byte[]}, nombre de Pomodoros en {@code int[]} ;
+ * seuls le libellé et la description restent des objets. Un statut ou une
+ * priorité au-delà des 128 premières valeurs distinctes est gardé en texte dans
+ * une colonne de débordement, vide pour les autres tâches. Les filtres et les
+ * statistiques sont des boucles sur ces tableaux, sans objet par tâche ni
+ * indirection ; seules les tâches retenues sont converties en {@link Task}.
+ * <p>
+ * Les lectures partagent un verrou que les écritures prennent en exclusivité.
+ * Une tâche supprimée laisse une case vide, récupérée lorsque les cases vides
+ * deviennent majoritaires. Ce stockage n'est pas journalisé : les tâches sont
+ * perdues à l'arrêt.
+ */
+public class ColumnarTaskRepository implements TaskRepository {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    // Nombre minimal de cases vides avant de compacter les colonnes
+    private static final int MIN_COMPACTION = 1024;
+    /** Code de statut d'une case dont la tâche a été supprimée */
+    private static final byte DELETED = Byte.MIN_VALUE;
+    /** Code d'un statut ou d'une priorité null */
+    private static final byte NONE = -1;
+    /** Code d'une valeur hors du dictionnaire, gardée en texte dans la colonne de débordement */
+    private static final byte OTHER = -2;
+    /** Code recherché lorsqu'un filtre est absent */
+    private static final int ANY = Integer.MAX_VALUE;
+    /** Code recherché lorsqu'un filtre ne correspond à aucune valeur stockée */
+    private static final int UNKNOWN = Integer.MIN_VALUE;
+    private static final long NO_DATE = Task.NO_DATE;
+    private static final int NO_COUNT = Integer.MIN_VALUE;
+    private static final String[] STANDARD_STATUSES = {
+            Task.STATUS_PENDING, Task.STATUS_IN_PROGRESS, Task.STATUS_COMPLETED, Task.STATUS_CANCELLED};
+    // Statuts standard terminés, par code : les filtres et statistiques comparent
+    // des codes sans relire le texte, mais selon le même prédicat que Task.isIncomplete
+    private static final boolean[] DONE_STANDARD_CODES = doneStandardCodes();
+
+    // Codes des statuts et priorités ; les valeurs standard ont toujours les premiers codes
+    private final Codes statusCodes = new Codes(STANDARD_STATUSES);
+    private final Codes priorityCodes = new Codes(Task.PRIORITY_LOW, Task.PRIORITY_MEDIUM, Task.PRIORITY_HIGH);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Colonnes : les size premières cases sont utilisées, par ID croissant
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private byte[] statuses = new byte[INITIAL_CAPACITY];
+    private byte[] priorities = new byte[INITIAL_CAPACITY];
+    private long[] createdAts = new long[INITIAL_CAPACITY];
+    private long[] updatedAts = new long[INITIAL_CAPACITY];
+    private long[] dueDates = new long[INITIAL_CAPACITY];
+    private long[] versions = new long[INITIAL_CAPACITY];
+    private int[] pomodoroCounts = new int[INITIAL_CAPACITY];
+    private String[] labels = new String[INITIAL_CAPACITY];
+    private String[] descriptions = new String[INITIAL_CAPACITY];
+    // Colonnes de débordement : valeur des cases de code OTHER, null ailleurs
+    private String[] otherStatuses = new String[INITIAL_CAPACITY];
+    private String[] otherPriorities = new String[INITIAL_CAPACITY];
+    private int size;
+    private int deleted;
+    private long nextId = 1L;
+
+    @Override
+    public boolean isNewStore() {
+        return true;
+    }
+
+    @Override
+    public long count() {
+        lock.readLock().lock();
+        try {
+            return size - deleted;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Task> findById(long id) {
+        lock.readLock().lock();
+        try {
+            int slot = slotOf(id);
+            return slot >= 0 ? Optional.of(toTask(slot)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Task> findAll() {
+        lock.readLock().lock();
+        try {
+            return find(new Filter(null, null, false));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Task> findIncomplete() {
+        lock.readLock().lock();
+        try {
+            return find(new Filter(null, null, true));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Task> findByStatusAndPriority(String status, String priority) {
+        lock.readLock().lock();
+        try {
+            return find(new Filter(status, priority, false));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public TaskPage findPage(String status, String priority, long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            return page(new Filter(status, priority, false), afterId, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public TaskPage findIncompletePage(long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            return page(new Filter(null, null, true), afterId, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Task insert(Task task, TaskWriteTracker tracker) {
+        lock.writeLock().lock();
+        try {
+            ensureCapacity(size + 1);
+            append(task);
+            tracker.inserted(List.of(task));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return task;
+    }
+
+    @Override
+    public List<Task> insertAll(List<Task> newTasks, TaskWriteTracker tracker) {
+        lock.writeLock().lock();
+        try {
+            ensureCapacity(size + newTasks.size());
+            for (Task task : newTasks) {
+                append(task);
+            }
+            tracker.inserted(newTasks);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return newTasks;
+    }
+
+    /**
+     * Applique la modification à une tâche reconstruite à partir des colonnes,
+     * puis réécrit sa case ; si la modification lève une exception, la case
+     * n'est pas modifiée.
+     */
+    @Override
+    public Optional<Task> update(long id, Consumer<Task> mutation, TaskWriteTracker tracker) {
+        lock.writeLock().lock();
+        try {
+            int slot = slotOf(id);
+            if (slot < 0) {
+                return Optional.empty();
+            }
+            Task task = toTask(slot);
+            mutation.accept(task);
+            task.setVersion(versions[slot] + 1);
+            Task previous = toTask(slot);
+            write(slot, task);
+            tracker.updated(previous, task);
+            return Optional.of(task);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Task> delete(long id, TaskWriteTracker tracker) {
+        lock.writeLock().lock();
+        try {
+            Optional<Task> removed = remove(id);
+            removed.ifPresent(task -> tracker.deleted(List.of(task)));
+            compactIfSparse();
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Optional<Task>> deleteAll(List<Long> taskIds, TaskWriteTracker tracker) {
+        List<Optional<Task>> results = new ArrayList<>(taskIds.size());
+        List<Task> removed = new ArrayList<>(taskIds.size());
+        lock.writeLock().lock();
+        try {
+            for (Long id : taskIds) {
+                Optional<Task> task = id != null ? remove(id) : Optional.empty();
+                task.ifPresent(removed::add);
+                results.add(task);
+            }
+            if (!removed.isEmpty()) {
+                tracker.deleted(removed);
+            }
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return results;
+    }
+
+    /**
+     * Calcule les statistiques en un seul parcours des colonnes de statut, de
+     * priorité, d'échéance et de Pomodoros, sans construire aucune tâche
+     */
+    @Override
+    public TaskStatistics statistics(Date now) {
+        long nowMillis = now.getTime();
+        lock.readLock().lock();
+        try {
+            long[] byStatus = new long[statusCodes.size()];
+            long[] byPriority = new long[priorityCodes.size()];
+            Map<String, Long> otherByStatus = new HashMap<>();
+            Map<String, Long> otherByPriority = new HashMap<>();
+            long overdue = 0;
+            long pomodoroCount = 0;
+            for (int slot = 0; slot < size; slot++) {
+                byte status = statuses[slot];
+                if (status == DELETED) {
+                    continue;
+                }
+                if (status >= 0) {
+                    byStatus[status]++;
+                } else if (status == OTHER) {
+                    otherByStatus.merge(otherStatuses[slot], 1L, Long::sum);
+                }
+                byte priority = priorities[slot];
+                if (priority >= 0) {
+                    byPriority[priority]++;
+                } else if (priority == OTHER) {
+                    otherByPriority.merge(otherPriorities[slot], 1L, Long::sum);
+                }
+                long due = dueDates[slot];
+                if (due != NO_DATE && due < nowMillis && isIncomplete(status)) {
+                    overdue++;
+                }
+                int pomodoros = pomodoroCounts[slot];
+                if (pomodoros != NO_COUNT) {
+                    pomodoroCount += pomodoros;
+                }
+            }
+            return new TaskStatistics(size - deleted, statusCodes.toMap(byStatus, otherByStatus),
+                    priorityCodes.toMap(byPriority, otherByPriority), overdue, pomodoroCount);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Liste les tâches retenues par le filtre ; l'appelant détient le verrou en lecture
+     */
+    private List<Task> find(Filter filter) {
+        List<Task> result = new ArrayList<>();
+        if (filter.isEmpty()) {
+            return result;
+        }
+        for (int slot = 0; slot < size; slot++) {
+            if (filter.matches(slot)) {
+                result.add(toTask(slot));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Construit une page à partir de la première case d'ID supérieur au curseur ;
+     * l'appelant détient le verrou en lecture
+     */
+    private TaskPage page(Filter filter, long afterId, int limit) {
+        List<Task> page = new ArrayList<>(Math.min(limit, 1024));
+        if (filter.isEmpty()) {
+            return new TaskPage(page, null, false);
+        }
+        Long lastId = null;
+        for (int slot = firstSlotAfter(afterId); slot < size; slot++) {
+            if (filter.matches(slot)) {
+                if (page.size() == limit) {
+                    return new TaskPage(page, lastId, true);
+                }
+                page.add(toTask(slot));
+                lastId = ids[slot];
+            }
+        }
+        return new TaskPage(page, lastId, false);
+    }
+
+    /**
+     * @return Case de la tâche, ou -1 si elle n'existe pas ou a été supprimée
+     */
+    private int slotOf(long id) {
+        int slot = Arrays.binarySearch(ids, 0, size, id);
+        return slot >= 0 && statuses[slot] != DELETED ? slot : -1;
+    }
+
+    /**
+     * @return Première case dont l'ID est strictement supérieur à afterId
+     */
+    private int firstSlotAfter(long afterId) {
+        if (afterId == Long.MAX_VALUE) {
+            return size;
+        }
+        int slot = Arrays.binarySearch(ids, 0, size, afterId + 1);
+        return slot >= 0 ? slot : -slot - 1;
+    }
+
+    /**
+     * Ajoute une tâche en fin de colonnes, avec un nouvel ID et la version 1 ;
+     * la capacité doit avoir été vérifiée
+     */
+    private void append(Task task) {
+        task.setId(nextId++);
+        task.setVersion(1L);
+        ids[size] = task.getId();
+        write(size, task);
+        size++;
+    }
+
+    /**
+     * Écrit tous les champs d'une tâche, hormis son ID, dans une case
+     */
+    private void write(int slot, Task task) {
+        byte status = statusCodes.encode(task.getStatus());
+        byte priority = priorityCodes.encode(task.getPriority());
+        statuses[slot] = status;
+        priorities[slot] = priority;
+        otherStatuses[slot] = status == OTHER ? task.getStatus() : null;
+        otherPriorities[slot] = priority == OTHER ? task.getPriority() : null;
+        createdAts[slot] = toMillis(task.getCreatedAt());
+        updatedAts[slot] = toMillis(task.getUpdatedAt());
+        dueDates[slot] = toMillis(task.getDueDate());
+        versions[slot] = task.getVersion();
+        pomodoroCounts[slot] = task.getPomodoroCount() != null ? task.getPomodoroCount() : NO_COUNT;
+        labels[slot] = task.getLabel();
+        descriptions[slot] = task.getDescription();
+    }
+
+    private Task toTask(int slot) {
+        return Task.of(ids[slot], labels[slot], descriptions[slot],
+                statusCodes.decode(statuses[slot], otherStatuses[slot]),
+                priorityCodes.decode(priorities[slot], otherPriorities[slot]),
+                createdAts[slot], updatedAts[slot], dueDates[slot],
+                pomodoroCounts[slot] != NO_COUNT ? pomodoroCounts[slot] : null,
+                versions[slot]);
+    }
+
+    /**
+     * Vide la case d'une tâche
+     * @return Tâche supprimée, dans son dernier état, ou vide si elle n'existe pas
+     */
+    private Optional<Task> remove(long id) {
+        int slot = slotOf(id);
+        if (slot < 0) {
+            return Optional.empty();
+        }
+        Task removed = toTask(slot);
+        statuses[slot] = DELETED;
+        labels[slot] = null;
+        descriptions[slot] = null;
+        otherStatuses[slot] = null;
+        otherPriorities[slot] = null;
+        deleted++;
+        return Optional.of(removed);
+    }
+
+    /**
+     * Rassemble les cases occupées en début de colonnes lorsque les cases
+     * vides sont majoritaires ; l'ordre des IDs est conservé
+     */
+    private void compactIfSparse() {
+        if (deleted < MIN_COMPACTION || deleted * 2 < size) {
+            return;
+        }
+        int live = 0;
+        for (int slot = 0; slot < size; slot++) {
+            if (statuses[slot] == DELETED) {
+                continue;
+            }
+            if (live != slot) {
+                ids[live] = ids[slot];
+                statuses[live] = statuses[slot];
+                priorities[live] = priorities[slot];
+                createdAts[live] = createdAts[slot];
+                updatedAts[live] = updatedAts[slot];
+                dueDates[live] = dueDates[slot];
+                versions[live] = versions[slot];
+                pomodoroCounts[live] = pomodoroCounts[slot];
+                labels[live] = labels[slot];
+                descriptions[live] = descriptions[slot];
+                otherStatuses[live] = otherStatuses[slot];
+                otherPriorities[live] = otherPriorities[slot];
+            }
+            live++;
+        }
+        Arrays.fill(labels, live, size, null);
+        Arrays.fill(descriptions, live, size, null);
+        Arrays.fill(otherStatuses, live, size, null);
+        Arrays.fill(otherPriorities, live, size, null);
+        size = live;
+        deleted = 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, newCapacity);
+        statuses = Arrays.copyOf(statuses, newCapacity);
+        priorities = Arrays.copyOf(priorities, newCapacity);
+        createdAts = Arrays.copyOf(createdAts, newCapacity);
+        updatedAts = Arrays.copyOf(updatedAts, newCapacity);
+        dueDates = Arrays.copyOf(dueDates, newCapacity);
+        versions = Arrays.copyOf(versions, newCapacity);
+        pomodoroCounts = Arrays.copyOf(pomodoroCounts, newCapacity);
+        labels = Arrays.copyOf(labels, newCapacity);
+        descriptions = Arrays.copyOf(descriptions, newCapacity);
+        otherStatuses = Arrays.copyOf(otherStatuses, newCapacity);
+        otherPriorities = Arrays.copyOf(otherPriorities, newCapacity);
+    }
+
+    private static long toMillis(Date date) {
+        return date != null ? date.getTime() : NO_DATE;
+    }
+
+    /**
+     * @return true si une case de ce code de statut contient une tâche à faire ;
+     * les statuts hors des valeurs standard, codés ou débordés, n'en sont jamais exclus
+     */
+    private static boolean isIncomplete(byte status) {
+        return status < 0 || status >= DONE_STANDARD_CODES.length || !DONE_STANDARD_CODES[status];
+    }
+
+    private static boolean[] doneStandardCodes() {
+        boolean[] done = new boolean[STANDARD_STATUSES.length];
+        for (int code = 0; code < done.length; code++) {
+            done[code] = !Task.isIncomplete(STANDARD_STATUSES[code]);
+        }
+        return done;
+    }
+
+    /**
+     * Filtre des listes et des pages, résolu en codes une fois pour toutes ;
+     * utilisé sous le verrou en lecture
+     */
+    private final class Filter {
+        private final int status;
+        private final String statusValue;
+        private final int priority;
+        private final String priorityValue;
+        private final boolean incompleteOnly;
+
+        Filter(String status, String priority, boolean incompleteOnly) {
+            this.status = statusCodes.filter(status);
+            this.statusValue = status;
+            this.priority = priorityCodes.filter(priority);
+            this.priorityValue = priority;
+            this.incompleteOnly = incompleteOnly;
+        }
+
+        /**
+         * @return true si aucune tâche ne peut être retenue
+         */
+        boolean isEmpty() {
+            return status == UNKNOWN || priority == UNKNOWN;
+        }
+
+        boolean matches(int slot) {
+            byte code = statuses[slot];
+            if (code == DELETED || (incompleteOnly && !isIncomplete(code))) {
+                return false;
+            }
+            return matches(code, otherStatuses[slot], status, statusValue)
+                    && matches(priorities[slot], otherPriorities[slot], priority, priorityValue);
+        }
+
+        private boolean matches(byte code, String other, int wanted, String wantedValue) {
+            if (wanted == ANY) {
+                return true;
+            }
+            return wanted == OTHER ? code == OTHER && wantedValue.equals(other) : code == wanted;
+        }
+    }
+
+    /**
+     * Dictionnaire des valeurs d'un champ texte codé sur un octet : les valeurs
+     * standard d'abord, puis les autres dans l'ordre de leur apparition. Une
+     * fois les 128 codes attribués, les nouvelles valeurs reçoivent le code
+     * OTHER et sont gardées dans la colonne de débordement.
+     * Modifié sous le verrou en écriture, lu sous le verrou en lecture.
+     */
+    private static final class Codes {
+        private final List<String> values = new ArrayList<>();
+        private final Map<String, Byte> codes = new HashMap<>();
+
+        Codes(String... standardValues) {
+            for (String value : standardValues) {
+                encode(value);
+            }
+        }
+
+        /**
+         * @return Code de la valeur, attribué à sa première apparition, ou OTHER si le dictionnaire est plein
+         */
+        byte encode(String value) {
+            if (value == null) {
+                return NONE;
+            }
+            Byte code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            if (values.size() > Byte.MAX_VALUE) {
+                return OTHER;
+            }
+            byte newCode = (byte) values.size();
+            values.add(value);
+            codes.put(value, newCode);
+            return newCode;
+        }
+
+        /**
+         * @return Code à rechercher pour un filtre : ANY si absent, OTHER si la valeur
+         * peut être dans la colonne de débordement, UNKNOWN si elle n'a jamais été stockée
+         */
+        int filter(String value) {
+            if (value == null) {
+                return ANY;
+            }
+            Byte code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            return values.size() > Byte.MAX_VALUE ? OTHER : UNKNOWN;
+        }
+
+        /**
+         * @param other Valeur de la colonne de débordement, pour le code OTHER
+         */
+        String decode(byte code, String other) {
+            if (code == OTHER) {
+                return other;
+            }
+            return code == NONE ? null : values.get(code);
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        /**
+         * @param counts Nombre de tâches par code
+         * @param otherCounts Nombre de tâches par valeur de la colonne de débordement
+         */
+        Map<String, Long> toMap(long[] counts, Map<String, Long> otherCounts) {
+            Map<String, Long> map = new LinkedHashMap<>();
+            for (int code = 0; code < counts.length; code++) {
+                map.put(values.get(code), counts[code]);
+            }
+            map.putAll(otherCounts);
+            return map;
+        }
+    }
+}
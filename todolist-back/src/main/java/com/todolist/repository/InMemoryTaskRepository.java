@@ -0,0 +1,437 @@
+package com.todolist.repository;
+
+import com.todolist.model.CompactTask;
+import com.todolist.model.Task;
+import com.todolist.model.TaskPage;
+import com.todolist.persistence.TaskSnapshotStore;
+import com.todolist.persistence.TaskWriteAheadLog;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Stockage des tâches en mémoire, indexé par statut et priorité, rendu
+ * optionnellement durable par le journal des mutations et ses snapshots.
+ * Les tâches sont stockées sous leur forme compacte et immuable
+ * ({@link CompactTask}) : chaque modification publie une nouvelle instance, et
+ * chaque lecture renvoie une {@link Task} que l'appelant peut modifier librement.
+ * <p>
+ * Une écriture n'est publiée (tâches, index, suivi des écritures) qu'une fois
+ * son enregistrement durable dans le journal ; si le journal échoue, rien n'est
+ * publié et l'exception est propagée. L'écriture garde le verrou de ses tâches
+ * pendant l'attente du journal : deux modifications d'une même tâche attendent
+ * chacune leur fsync l'une après l'autre, tandis que celles de tâches
+ * différentes partagent le même group commit.
+ * <p>
+ * Les IDs étant alloués avant l'attente du journal, deux insertions peuvent
+ * être publiées dans le désordre : les pages s'arrêtent au dernier ID dont
+ * tous les prédécesseurs sont réglés ({@link TaskIdSequence}), si bien qu'un
+ * curseur ne saute jamais une tâche publiée après coup.
+ */
+public class InMemoryTaskRepository implements TaskRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryTaskRepository.class);
+
+    // Tâches indexées par ID (lectures sans verrou, écritures sous le verrou de la tâche)
+    private final ConcurrentMap<Long, CompactTask> tasks = new ConcurrentHashMap<>();
+    private final TaskIdSequence idSequence = new TaskIdSequence(TaskBitmapIndex.MAX_ID);
+    // Index par statut et priorité pour les listes filtrées
+    private final TaskBitmapIndex index = new TaskBitmapIndex();
+    // Journal des mutations et snapshots, ou null si la persistance est désactivée
+    private final TaskWriteAheadLog writeAheadLog;
+    private final TaskSnapshotStore snapshotStore;
+    // Verrous des tâches, pris par chaque écriture avant checkpointLock
+    private final TaskLocks locks = new TaskLocks();
+    // Partagé par les mutations, exclusif le temps de choisir le point de reprise d'un snapshot
+    private final ReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+    private final boolean newStore;
+
+    public InMemoryTaskRepository() {
+        this(null, null);
+    }
+
+    /**
+     * Crée le stockage et, si la persistance est activée, recharge le dernier
+     * snapshot puis rejoue la fin du journal avant que le stockage ne soit utilisable
+     * @param writeAheadLog Journal des mutations, ou null pour un stockage purement en mémoire
+     * @param snapshotStore Snapshots du journal, ou null pour rejouer tout le journal
+     */
+    public InMemoryTaskRepository(@Nullable TaskWriteAheadLog writeAheadLog, @Nullable TaskSnapshotStore snapshotStore) {
+        this.writeAheadLog = writeAheadLog;
+        this.snapshotStore = snapshotStore;
+        this.newStore = writeAheadLog == null || !recover();
+    }
+
+    @Override
+    public boolean isNewStore() {
+        return newStore;
+    }
+
+    @Override
+    public long count() {
+        return tasks.size();
+    }
+
+    @Override
+    public Optional<Task> findById(long id) {
+        CompactTask task = tasks.get(id);
+        return task != null ? Optional.of(task.toTask()) : Optional.empty();
+    }
+
+    @Override
+    public List<Task> findAll() {
+        return resolve(index.all());
+    }
+
+    @Override
+    public List<Task> findIncomplete() {
+        return resolve(index.incomplete());
+    }
+
+    @Override
+    public List<Task> findByStatusAndPriority(String status, String priority) {
+        return resolve(index.matching(status, priority));
+    }
+
+    @Override
+    public TaskPage findPage(String status, String priority, long afterId, int limit) {
+        int[] ids = status == null && priority == null
+                ? index.pageAll(afterId, limit + 1)
+                : index.pageMatching(status, priority, afterId, limit + 1);
+        return toPage(ids, limit);
+    }
+
+    @Override
+    public TaskPage findIncompletePage(long afterId, int limit) {
+        return toPage(index.pageIncomplete(afterId, limit + 1), limit);
+    }
+
+    @Override
+    public Task insert(Task task, TaskWriteTracker tracker) {
+        long id = idSequence.allocate(1);
+        task.setId(id);
+        task.setVersion(1L);
+        locks.lock(id);
+        checkpointLock.readLock().lock();
+        try {
+            awaitLogged(logUpsert(task));
+            index.add(task);
+            tracker.inserted(List.of(task));
+            tasks.put(id, CompactTask.of(task));
+        } finally {
+            checkpointLock.readLock().unlock();
+            locks.unlock(id);
+            idSequence.settle(id, 1);
+        }
+        return task;
+    }
+
+    /**
+     * Ajoute un lot de tâches en une seule allocation d'IDs et une seule mise à
+     * jour de l'index ; les enregistrements du lot sont attendus ensemble
+     */
+    @Override
+    public List<Task> insertAll(List<Task> newTasks, TaskWriteTracker tracker) {
+        long firstId = idSequence.allocate(newTasks.size());
+        List<Long> ids = new ArrayList<>(newTasks.size());
+        for (int i = 0; i < newTasks.size(); i++) {
+            newTasks.get(i).setId(firstId + i);
+            newTasks.get(i).setVersion(1L);
+            ids.add(firstId + i);
+        }
+        int[] taken = locks.lockAll(ids);
+        checkpointLock.readLock().lock();
+        try {
+            List<CompletableFuture<Void>> logged = new ArrayList<>(newTasks.size());
+            for (Task task : newTasks) {
+                logged.add(logUpsert(task));
+            }
+            logged.forEach(this::awaitLogged);
+            index.addAll(newTasks);
+            tracker.inserted(newTasks);
+            for (Task task : newTasks) {
+                tasks.put(task.getId(), CompactTask.of(task));
+            }
+        } finally {
+            checkpointLock.readLock().unlock();
+            locks.unlockAll(taken);
+            idSequence.settle(firstId, newTasks.size());
+        }
+        return newTasks;
+    }
+
+    /**
+     * Applique la modification à une copie modifiable de la tâche, dont la forme
+     * compacte remplace l'original en une seule écriture : une lecture
+     * concurrente voit l'état d'avant ou d'après, jamais un état intermédiaire.
+     * Si la modification lève une exception, rien n'est changé.
+     */
+    @Override
+    public Optional<Task> update(long id, Consumer<Task> mutation, TaskWriteTracker tracker) {
+        locks.lock(id);
+        checkpointLock.readLock().lock();
+        try {
+            CompactTask current = tasks.get(id);
+            if (current == null) {
+                return Optional.empty();
+            }
+            Task task = current.toTask();
+            mutation.accept(task);
+            task.setVersion(current.getVersion() + 1);
+            awaitLogged(logUpsert(task));
+            index.update(id, current.getStatus(), current.getPriority(), task);
+            tracker.updated(current.toTask(), task);
+            tasks.put(id, CompactTask.of(task));
+            return Optional.of(task);
+        } finally {
+            checkpointLock.readLock().unlock();
+            locks.unlock(id);
+        }
+    }
+
+    @Override
+    public Optional<Task> delete(long id, TaskWriteTracker tracker) {
+        locks.lock(id);
+        checkpointLock.readLock().lock();
+        try {
+            CompactTask task = tasks.get(id);
+            if (task == null) {
+                return Optional.empty();
+            }
+            awaitLogged(logDelete(id));
+            tasks.remove(id);
+            Task removed = task.toTask();
+            index.remove(removed);
+            tracker.deleted(List.of(removed));
+            return Optional.of(removed);
+        } finally {
+            checkpointLock.readLock().unlock();
+            locks.unlock(id);
+        }
+    }
+
+    /**
+     * Supprime un lot de tâches, avec une seule mise à jour de l'index ; les
+     * enregistrements du lot sont attendus ensemble
+     */
+    @Override
+    public List<Optional<Task>> deleteAll(List<Long> ids, TaskWriteTracker tracker) {
+        // Tâches trouvées, une seule fois par ID, dans l'ordre du lot
+        Map<Long, Task> found = new LinkedHashMap<>();
+        int[] taken = locks.lockAll(ids);
+        checkpointLock.readLock().lock();
+        try {
+            List<CompletableFuture<Void>> logged = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                CompactTask task = id != null && !found.containsKey(id) ? tasks.get(id) : null;
+                if (task != null) {
+                    found.put(id, task.toTask());
+                    logged.add(logDelete(id));
+                }
+            }
+            logged.forEach(this::awaitLogged);
+            List<Task> removed = new ArrayList<>(found.values());
+            for (Task task : removed) {
+                tasks.remove(task.getId());
+            }
+            index.removeAll(removed);
+            if (!removed.isEmpty()) {
+                tracker.deleted(removed);
+            }
+        } finally {
+            checkpointLock.readLock().unlock();
+            locks.unlockAll(taken);
+        }
+        List<Optional<Task>> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            // remove : une répétition de l'ID ne correspond plus à aucune tâche
+            results.add(Optional.ofNullable(id != null ? found.remove(id) : null));
+        }
+        return results;
+    }
+
+    /**
+     * Écrit un snapshot de toutes les tâches puis supprime les segments du
+     * journal qu'il rend inutiles. Le changement de segment attend la fin des
+     * écritures en cours, fsync compris, et suspend les suivantes le temps de
+     * se faire ; le snapshot est écrit pendant qu'elles continuent.
+     * Sans effet si les snapshots ne sont pas configurés.
+     */
+    @Override
+    public synchronized void checkpoint() {
+        if (writeAheadLog == null || snapshotStore == null) {
+            return;
+        }
+        try {
+            long lsn;
+            long highestId;
+            // Aucune mutation n'est alors entre sa journalisation et sa visibilité en mémoire :
+            // tout enregistrement de numéro inférieur à lsn est reflété par l'itération qui suit
+            checkpointLock.writeLock().lock();
+            try {
+                lsn = writeAheadLog.rollSegment();
+                highestId = idSequence.next();
+            } finally {
+                checkpointLock.writeLock().unlock();
+            }
+            long start = System.nanoTime();
+            Iterable<Task> snapshot = () -> tasks.values().stream().map(CompactTask::toTask).iterator();
+            long count = snapshotStore.write(lsn, highestId, snapshot);
+            int segments = writeAheadLog.deleteSegmentsBefore(lsn);
+            log.info("Snapshot de {} tâches écrit en {} ms, {} segments de journal supprimés",
+                    count, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), segments);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible d'écrire le snapshot des tâches", e);
+        }
+    }
+
+    /**
+     * Convertit un ensemble d'IDs issu de l'index en liste de tâches
+     * @param ids IDs des tâches, parcourus dans l'ordre croissant
+     * @return Tâches correspondantes encore présentes
+     */
+    private List<Task> resolve(RoaringBitmap ids) {
+        List<Task> result = new ArrayList<>(ids.getCardinality());
+        IntIterator it = ids.getIntIterator();
+        while (it.hasNext()) {
+            CompactTask task = tasks.get((long) it.next());
+            if (task != null) {
+                result.add(task.toTask());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Construit une page à partir d'IDs issus de l'index, limitée aux IDs
+     * visibles ; un ID de plus que la limite indique l'existence d'une page suivante
+     */
+    private TaskPage toPage(int[] ids, int limit) {
+        long visibleUpTo = idSequence.visibleUpTo();
+        int visible = 0;
+        while (visible < ids.length && ids[visible] <= visibleUpTo) {
+            visible++;
+        }
+        boolean hasMore = visible > limit;
+        int count = hasMore ? limit : visible;
+        List<Task> page = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            CompactTask task = tasks.get((long) ids[i]);
+            if (task != null) {
+                page.add(task.toTask());
+            }
+        }
+        Long lastId = count > 0 ? (long) ids[count - 1] : null;
+        return new TaskPage(page, lastId, hasMore);
+    }
+
+    private CompletableFuture<Void> logUpsert(Task task) {
+        return writeAheadLog != null ? writeAheadLog.appendUpsert(task) : null;
+    }
+
+    private CompletableFuture<Void> logDelete(Long id) {
+        return writeAheadLog != null ? writeAheadLog.appendDelete(id) : null;
+    }
+
+    /**
+     * Attend l'écriture d'un enregistrement du journal
+     * @param logged Futur retourné par le journal, ou null si la persistance est désactivée
+     */
+    private void awaitLogged(CompletableFuture<Void> logged) {
+        if (logged == null) {
+            return;
+        }
+        try {
+            logged.join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Échec d'écriture du journal des tâches", e.getCause());
+        }
+    }
+
+    /**
+     * Reconstruit l'état en mémoire à partir du dernier snapshot et de la fin du journal
+     * @return true si au moins une tâche ou un enregistrement a été rechargé
+     */
+    private boolean recover() {
+        long start = System.nanoTime();
+        try {
+            long fromLsn = 1L;
+            long loaded = 0;
+            if (snapshotStore != null) {
+                Optional<TaskSnapshotStore.SnapshotInfo> snapshot = snapshotStore.loadLatest(this::restore);
+                if (snapshot.isPresent()) {
+                    fromLsn = snapshot.get().getLsn();
+                    loaded = snapshot.get().getTaskCount();
+                    idSequence.restore(snapshot.get().getNextId());
+                }
+            }
+            long replayed = replay(fromLsn);
+            log.info("Tâches restaurées en {} ms : {} depuis le snapshot, {} enregistrements de journal rejoués",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), loaded, replayed);
+            return loaded > 0 || replayed > 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de restaurer les tâches", e);
+        }
+    }
+
+    /**
+     * Rejoue le journal à partir d'un numéro de séquence
+     * @return Nombre d'enregistrements rejoués
+     */
+    private long replay(long fromLsn) throws IOException {
+        return writeAheadLog.replay(fromLsn, new TaskWriteAheadLog.ReplayHandler() {
+            @Override
+            public void upsert(Task task) {
+                restore(task);
+            }
+
+            @Override
+            public void delete(long id) {
+                restoreDeletion(id);
+            }
+        });
+    }
+
+    /**
+     * Remplace l'état d'une tâche sans la journaliser (restauration)
+     * @param task État complet de la tâche
+     */
+    private void restore(Task task) {
+        CompactTask previous = tasks.put(task.getId(), CompactTask.of(task));
+        if (previous != null) {
+            index.remove(previous.toTask());
+        }
+        index.add(task);
+        idSequence.restore(task.getId() + 1);
+    }
+
+    /**
+     * Supprime une tâche sans la journaliser (restauration)
+     * @param id ID de la tâche supprimée
+     */
+    private void restoreDeletion(long id) {
+        CompactTask previous = tasks.remove(id);
+        if (previous != null) {
+            index.remove(previous.toTask());
+        }
+        idSequence.restore(id + 1);
+    }
+}
@@ -0,0 +1,411 @@
+package com.todolist.repository;
+
+import com.todolist.model.Task;
+import com.todolist.model.TaskPage;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Stockage des tâches dans une base relationnelle (H2 embarquée par défaut).
+ * Les écritures par lot sont envoyées en batchs de requêtes préparées dans une
+ * seule transaction ; les IDs sont alloués par une séquence, en un seul
+ * aller-retour pour un lot.
+ * <p>
+ * Le suivi des écritures n'est appelé qu'après la validation de la transaction :
+ * une écriture annulée ne laisse aucune trace dans les index ni le journal des
+ * modifications du service. Pour qu'aucune autre écriture sur la même tâche ne
+ * s'intercale entre la validation et ce suivi, chaque écriture garde le verrou
+ * de ses tâches dans l'application ({@link TaskLocks}) de l'ouverture de la
+ * transaction à la fin du suivi. Ce verrou ne vaut que pour cette instance :
+ * la base ne doit pas être modifiée par un autre processus.
+ */
+public class JdbcTaskRepository implements TaskRepository {
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS tasks ("
+                    + "id BIGINT PRIMARY KEY, "
+                    + "label VARCHAR(1000), "
+                    + "description VARCHAR(100000), "
+                    + "status VARCHAR(32), "
+                    + "priority VARCHAR(16), "
+                    + "created_at TIMESTAMP, "
+                    + "updated_at TIMESTAMP, "
+                    + "due_date TIMESTAMP, "
+                    + "pomodoro_count INT, "
+                    + "version BIGINT DEFAULT 0 NOT NULL)",
+            "CREATE SEQUENCE IF NOT EXISTS task_id_seq START WITH 1",
+            // (status, id) couvre les filtres par statut parcourus dans l'ordre des IDs
+            "CREATE INDEX IF NOT EXISTS idx_tasks_status ON tasks (status, id)",
+            "CREATE INDEX IF NOT EXISTS idx_tasks_due_date ON tasks (due_date)"
+    };
+
+    private static final String COLUMNS =
+            "id, label, description, status, priority, created_at, updated_at, due_date, pomodoro_count, version";
+    private static final String SELECT = "SELECT " + COLUMNS + " FROM tasks";
+    private static final String INCOMPLETE = "(status IS NULL OR status NOT IN (?, ?))";
+    private static final String INSERT = "INSERT INTO tasks (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE = "UPDATE tasks SET label = ?, description = ?, status = ?, priority = ?, "
+            + "created_at = ?, updated_at = ?, due_date = ?, pomodoro_count = ?, version = ? WHERE id = ?";
+    private static final String DELETE = "DELETE FROM tasks WHERE id = ?";
+    // Syntaxe H2 : une valeur de séquence par ligne de la plage
+    private static final String ALLOCATE_IDS = "SELECT NEXT VALUE FOR task_id_seq FROM SYSTEM_RANGE(1, ?)";
+
+    private static final RowMapper<Task> ROW_MAPPER = (rs, rowNum) -> Task.of(rs.getLong(1), rs.getString(2),
+            rs.getString(3), rs.getString(4), rs.getString(5),
+            toMillis(rs.getTimestamp(6)), toMillis(rs.getTimestamp(7)), toMillis(rs.getTimestamp(8)),
+            getInteger(rs, 9), rs.getLong(10));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final boolean newStore;
+    // Ordonnent les appels au suivi comme les transactions validées, pour une même tâche
+    private final TaskLocks locks = new TaskLocks();
+
+    /**
+     * Crée le stockage et, si besoin, la table, la séquence et les index
+     * @param jdbcTemplate Accès à la base
+     * @param transactionTemplate Transactions des écritures par lot et des modifications
+     * @param batchSize Nombre maximal de requêtes envoyées par batch
+     */
+    public JdbcTaskRepository(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.newStore = !tableExists();
+        for (String statement : SCHEMA) {
+            jdbcTemplate.execute(statement);
+        }
+    }
+
+    @Override
+    public boolean isNewStore() {
+        return newStore;
+    }
+
+    @Override
+    public long count() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tasks", Long.class);
+        return count != null ? count : 0L;
+    }
+
+    @Override
+    public Optional<Task> findById(long id) {
+        return jdbcTemplate.query(SELECT + " WHERE id = ?", ROW_MAPPER, id).stream().findFirst();
+    }
+
+    @Override
+    public List<Task> findAll() {
+        return jdbcTemplate.query(SELECT + " ORDER BY id", ROW_MAPPER);
+    }
+
+    @Override
+    public List<Task> findIncomplete() {
+        return jdbcTemplate.query(SELECT + " WHERE " + INCOMPLETE + " ORDER BY id", ROW_MAPPER,
+                Task.STATUS_COMPLETED, Task.STATUS_CANCELLED);
+    }
+
+    @Override
+    public List<Task> findByStatusAndPriority(String status, String priority) {
+        List<Object> args = new ArrayList<>(2);
+        String where = filter(status, priority, args);
+        return jdbcTemplate.query(SELECT + (where.isEmpty() ? "" : " WHERE " + where) + " ORDER BY id",
+                ROW_MAPPER, args.toArray());
+    }
+
+    @Override
+    public TaskPage findPage(String status, String priority, long afterId, int limit) {
+        List<Object> args = new ArrayList<>(4);
+        args.add(afterId);
+        String where = filter(status, priority, args);
+        args.add(limit + 1);
+        List<Task> rows = jdbcTemplate.query(
+                SELECT + " WHERE id > ?" + (where.isEmpty() ? "" : " AND " + where) + " ORDER BY id LIMIT ?",
+                ROW_MAPPER, args.toArray());
+        return toPage(rows, limit);
+    }
+
+    @Override
+    public TaskPage findIncompletePage(long afterId, int limit) {
+        List<Task> rows = jdbcTemplate.query(SELECT + " WHERE id > ? AND " + INCOMPLETE + " ORDER BY id LIMIT ?",
+                ROW_MAPPER, afterId, Task.STATUS_COMPLETED, Task.STATUS_CANCELLED, limit + 1);
+        return toPage(rows, limit);
+    }
+
+    /**
+     * Insère la tâche sous son verrou, pris dès l'allocation de l'ID : aucune
+     * modification de la tâche n'est possible avant que le suivi ne l'ait vue
+     */
+    @Override
+    public Task insert(Task task, TaskWriteTracker tracker) {
+        long id = allocateIds(1).get(0);
+        task.setId(id);
+        task.setVersion(1L);
+        locks.lock(id);
+        try {
+            jdbcTemplate.update(INSERT, ps -> bindInsert(ps, task));
+            tracker.inserted(List.of(task));
+        } finally {
+            locks.unlock(id);
+        }
+        return task;
+    }
+
+    @Override
+    public List<Task> insertAll(List<Task> newTasks, TaskWriteTracker tracker) {
+        if (newTasks.isEmpty()) {
+            return newTasks;
+        }
+        List<Long> ids = allocateIds(newTasks.size());
+        for (int i = 0; i < newTasks.size(); i++) {
+            newTasks.get(i).setId(ids.get(i));
+            newTasks.get(i).setVersion(1L);
+        }
+        int[] taken = locks.lockAll(ids);
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT, newTasks, batchSize, JdbcTaskRepository::bindInsert));
+            tracker.inserted(newTasks);
+        } finally {
+            locks.unlockAll(taken);
+        }
+        return newTasks;
+    }
+
+    /**
+     * Relit la tâche verrouillée, applique la modification puis réécrit la ligne
+     * dans la même transaction ; le suivi n'est appelé qu'une fois la transaction
+     * validée
+     */
+    @Override
+    public Optional<Task> update(long id, Consumer<Task> mutation, TaskWriteTracker tracker) {
+        Task[] previous = new Task[1];
+        locks.lock(id);
+        try {
+            Optional<Task> updated = transactionTemplate.execute(status -> {
+                List<Task> found = jdbcTemplate.query(SELECT + " WHERE id = ? FOR UPDATE", ROW_MAPPER, id);
+                if (found.isEmpty()) {
+                    return Optional.<Task>empty();
+                }
+                previous[0] = found.get(0);
+                Task task = previous[0].copy();
+                mutation.accept(task);
+                task.setVersion(previous[0].getVersion() + 1);
+                jdbcTemplate.update(UPDATE, ps -> bindUpdate(ps, task));
+                return Optional.of(task);
+            });
+            updated.ifPresent(task -> tracker.updated(previous[0], task));
+            return updated;
+        } finally {
+            locks.unlock(id);
+        }
+    }
+
+    /**
+     * Relit et verrouille les tâches en une requête, applique les modifications
+     * puis réécrit les lignes modifiées en un batch, dans la même transaction ;
+     * le suivi n'est appelé qu'une fois la transaction validée
+     */
+    @Override
+    public List<Optional<Task>> updateAll(List<Long> ids, List<Consumer<Task>> mutations, TaskWriteTracker tracker) {
+        List<Long> distinct = ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        // États avant et après chaque modification, dans l'ordre du lot (un ID répété est modifié plusieurs fois)
+        List<Task> before = new ArrayList<>();
+        List<Task> after = new ArrayList<>();
+        int[] taken = locks.lockAll(distinct);
+        try {
+            List<Optional<Task>> results = transactionTemplate.execute(status -> {
+                Map<Long, Task> found = findByIds(distinct, true);
+                List<Optional<Task>> updated = new ArrayList<>(ids.size());
+                for (int i = 0; i < ids.size(); i++) {
+                    Long id = ids.get(i);
+                    Task task = id != null ? found.get(id) : null;
+                    if (task != null) {
+                        before.add(task.copy());
+                        mutations.get(i).accept(task);
+                        task.setVersion(task.getVersion() + 1);
+                        after.add(task.copy());
+                    }
+                    updated.add(Optional.ofNullable(task));
+                }
+                jdbcTemplate.batchUpdate(UPDATE, found.values(), batchSize, JdbcTaskRepository::bindUpdate);
+                return updated;
+            });
+            for (int i = 0; i < before.size(); i++) {
+                tracker.updated(before.get(i), after.get(i));
+            }
+            return results;
+        } finally {
+            locks.unlockAll(taken);
+        }
+    }
+
+    /**
+     * Relit et verrouille la tâche avant de la supprimer, dans la même transaction ;
+     * le suivi n'est appelé qu'une fois la transaction validée
+     */
+    @Override
+    public Optional<Task> delete(long id, TaskWriteTracker tracker) {
+        locks.lock(id);
+        try {
+            Optional<Task> deleted = transactionTemplate.execute(status -> {
+                Optional<Task> found = jdbcTemplate.query(SELECT + " WHERE id = ? FOR UPDATE", ROW_MAPPER, id)
+                        .stream().findFirst();
+                found.ifPresent(task -> jdbcTemplate.update(DELETE, id));
+                return found;
+            });
+            deleted.ifPresent(task -> tracker.deleted(List.of(task)));
+            return deleted;
+        } finally {
+            locks.unlock(id);
+        }
+    }
+
+    /**
+     * Relit et verrouille les tâches en une requête puis les supprime en un batch ;
+     * un ID répété n'est supprimé qu'une fois. Le suivi n'est appelé qu'une fois
+     * la transaction validée.
+     */
+    @Override
+    public List<Optional<Task>> deleteAll(List<Long> ids, TaskWriteTracker tracker) {
+        List<Long> distinct = ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        int[] taken = locks.lockAll(distinct);
+        try {
+            Map<Long, Task> found = transactionTemplate.execute(status -> {
+                Map<Long, Task> locked = findByIds(distinct, true);
+                jdbcTemplate.batchUpdate(DELETE, locked.keySet(), batchSize, (ps, id) -> ps.setLong(1, id));
+                return locked;
+            });
+            if (!found.isEmpty()) {
+                tracker.deleted(new ArrayList<>(found.values()));
+            }
+            List<Optional<Task>> results = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                // remove : une répétition de l'ID ne correspond plus à aucune tâche
+                results.add(Optional.ofNullable(id != null ? found.remove(id) : null));
+            }
+            return results;
+        } finally {
+            locks.unlockAll(taken);
+        }
+    }
+
+    /**
+     * Relit des tâches par ID, par paquets de {@code batchSize} paramètres
+     * @param forUpdate true pour verrouiller les lignes jusqu'à la fin de la transaction
+     * @return Tâches trouvées, indexées par ID
+     */
+    private Map<Long, Task> findByIds(List<Long> ids, boolean forUpdate) {
+        Map<Long, Task> found = new HashMap<>(ids.size() * 2);
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + batchSize));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            String sql = SELECT + " WHERE id IN (" + placeholders + ")" + (forUpdate ? " FOR UPDATE" : "");
+            for (Task task : jdbcTemplate.query(sql, ROW_MAPPER, chunk.toArray())) {
+                found.put(task.getId(), task);
+            }
+        }
+        return found;
+    }
+
+    private List<Long> allocateIds(int count) {
+        List<Long> ids = jdbcTemplate.queryForList(ALLOCATE_IDS, Long.class, count);
+        Collections.sort(ids);
+        return ids;
+    }
+
+    private boolean tableExists() {
+        Integer tables = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = CURRENT_SCHEMA AND TABLE_NAME = 'TASKS'",
+                Integer.class);
+        return tables != null && tables > 0;
+    }
+
+    /**
+     * Construit la condition sur le statut et la priorité et ajoute ses paramètres
+     * @return Condition SQL, vide si aucun filtre
+     */
+    private static String filter(String status, String priority, List<Object> args) {
+        List<String> conditions = new ArrayList<>(2);
+        if (status != null) {
+            conditions.add("status = ?");
+            args.add(status);
+        }
+        if (priority != null) {
+            conditions.add("priority = ?");
+            args.add(priority);
+        }
+        return String.join(" AND ", conditions);
+    }
+
+    /**
+     * Construit une page à partir d'au plus {@code limit + 1} lignes ; la ligne
+     * supplémentaire indique l'existence d'une page suivante
+     */
+    private static TaskPage toPage(List<Task> rows, int limit) {
+        boolean hasMore = rows.size() > limit;
+        List<Task> page = hasMore ? new ArrayList<>(rows.subList(0, limit)) : rows;
+        Long lastId = page.isEmpty() ? null : page.get(page.size() - 1).getId();
+        return new TaskPage(page, lastId, hasMore);
+    }
+
+    private static void bindInsert(PreparedStatement ps, Task task) throws SQLException {
+        ps.setLong(1, task.getId());
+        bindFields(ps, 2, task);
+    }
+
+    private static void bindUpdate(PreparedStatement ps, Task task) throws SQLException {
+        bindFields(ps, 1, task);
+        ps.setLong(10, task.getId());
+    }
+
+    /**
+     * Lie les colonnes de la tâche hors ID, dans l'ordre de {@link #COLUMNS}
+     * @param first Index du premier paramètre
+     */
+    private static void bindFields(PreparedStatement ps, int first, Task task) throws SQLException {
+        ps.setString(first, task.getLabel());
+        ps.setString(first + 1, task.getDescription());
+        ps.setString(first + 2, task.getStatus());
+        ps.setString(first + 3, task.getPriority());
+        ps.setTimestamp(first + 4, toTimestamp(task.getCreatedAt()));
+        ps.setTimestamp(first + 5, toTimestamp(task.getUpdatedAt()));
+        ps.setTimestamp(first + 6, toTimestamp(task.getDueDate()));
+        if (task.getPomodoroCount() != null) {
+            ps.setInt(first + 7, task.getPomodoroCount());
+        } else {
+            ps.setNull(first + 7, Types.INTEGER);
+        }
+        ps.setLong(first + 8, task.getVersion());
+    }
+
+    private static Timestamp toTimestamp(Date date) {
+        return date != null ? new Timestamp(date.getTime()) : null;
+    }
+
+    private static long toMillis(Timestamp timestamp) {
+        return timestamp != null ? timestamp.getTime() : Task.NO_DATE;
+    }
+
+    private static Integer getInteger(ResultSet rs, int column) throws SQLException {
+        int value = rs.getInt(column);
+        return rs.wasNull() ? null : value;
+    }
+}
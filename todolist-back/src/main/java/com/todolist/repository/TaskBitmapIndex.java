@@ -0,0 +1,266 @@
+package com.todolist.repository;
+
+import com.todolist.model.Task;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index bitmap compressé (Roaring) des tâches par statut et par priorité.
+ * Maintenu de manière incrémentale par l'{@link InMemoryTaskRepository} à chaque
+ * création, modification de statut/priorité et suppression.
+ * Les identifiants étant alloués séquentiellement, ils sont stockés sur 32 bits :
+ * le stockage en mémoire n'alloue pas d'ID au-delà de {@link #MAX_ID}.
+ */
+class TaskBitmapIndex {
+
+    /** Plus grand ID indexable */
+    static final long MAX_ID = Integer.MAX_VALUE;
+
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final RoaringBitmap incomplete = new RoaringBitmap();
+    private final Map<String, RoaringBitmap> byStatus = new HashMap<>();
+    private final Map<String, RoaringBitmap> byPriority = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Indexe une nouvelle tâche
+     * @param task Tâche ajoutée (avec son ID)
+     */
+    void add(Task task) {
+        addAll(Collections.singletonList(task));
+    }
+
+    /**
+     * Indexe un lot de nouvelles tâches en une seule prise de verrou
+     * @param tasks Tâches ajoutées (avec leur ID)
+     */
+    void addAll(Collection<Task> tasks) {
+        lock.writeLock().lock();
+        try {
+            for (Task task : tasks) {
+                int id = toKey(task.getId());
+                all.add(id);
+                if (Task.isIncomplete(task.getStatus())) {
+                    incomplete.add(id);
+                }
+                bitmapFor(byStatus, task.getStatus()).add(id);
+                bitmapFor(byPriority, task.getPriority()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Met à jour l'index après une modification de statut ou de priorité
+     * @param id ID de la tâche
+     * @param oldStatus Statut avant modification
+     * @param oldPriority Priorité avant modification
+     * @param task Tâche après modification
+     */
+    void update(Long id, String oldStatus, String oldPriority, Task task) {
+        boolean statusChanged = !Objects.equals(oldStatus, task.getStatus());
+        boolean priorityChanged = !Objects.equals(oldPriority, task.getPriority());
+        if (!statusChanged && !priorityChanged) {
+            return;
+        }
+        int key = toKey(id);
+        lock.writeLock().lock();
+        try {
+            if (statusChanged) {
+                move(byStatus, key, oldStatus, task.getStatus());
+                if (Task.isIncomplete(task.getStatus())) {
+                    incomplete.add(key);
+                } else {
+                    incomplete.remove(key);
+                }
+            }
+            if (priorityChanged) {
+                move(byPriority, key, oldPriority, task.getPriority());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retire une tâche de l'index
+     * @param task Tâche supprimée
+     */
+    void remove(Task task) {
+        removeAll(Collections.singletonList(task));
+    }
+
+    /**
+     * Retire un lot de tâches de l'index en une seule prise de verrou
+     * @param tasks Tâches supprimées
+     */
+    void removeAll(Collection<Task> tasks) {
+        lock.writeLock().lock();
+        try {
+            for (Task task : tasks) {
+                int id = toKey(task.getId());
+                all.remove(id);
+                incomplete.remove(id);
+                removeFrom(byStatus, task.getStatus(), id);
+                removeFrom(byPriority, task.getPriority(), id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return Copie des IDs de toutes les tâches
+     */
+    RoaringBitmap all() {
+        lock.readLock().lock();
+        try {
+            return all.clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Copie des IDs des tâches ni complétées ni annulées
+     */
+    RoaringBitmap incomplete() {
+        lock.readLock().lock();
+        try {
+            return incomplete.clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Calcule l'intersection des filtres de statut et de priorité
+     * @param status Statut recherché, ou null pour ne pas filtrer
+     * @param priority Priorité recherchée, ou null pour ne pas filtrer
+     * @return Copie des IDs correspondants
+     */
+    RoaringBitmap matching(String status, String priority) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = all;
+            if (status != null) {
+                result = RoaringBitmap.and(result, byStatus.getOrDefault(status, new RoaringBitmap()));
+            }
+            if (priority != null) {
+                result = RoaringBitmap.and(result, byPriority.getOrDefault(priority, new RoaringBitmap()));
+            }
+            return result == all ? all.clone() : result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Récupère une page d'IDs parmi toutes les tâches
+     * @param after ID après lequel commencer (exclu), ou 0 pour commencer au début
+     * @param limit Nombre maximum d'IDs à retourner
+     * @return IDs croissants, au plus {@code limit}
+     */
+    int[] pageAll(long after, int limit) {
+        lock.readLock().lock();
+        try {
+            return page(all, null, after, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Récupère une page d'IDs parmi les tâches ni complétées ni annulées
+     * @param after ID après lequel commencer (exclu), ou 0 pour commencer au début
+     * @param limit Nombre maximum d'IDs à retourner
+     * @return IDs croissants, au plus {@code limit}
+     */
+    int[] pageIncomplete(long after, int limit) {
+        lock.readLock().lock();
+        try {
+            return page(incomplete, null, after, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Récupère une page d'IDs parmi les tâches d'un statut et/ou d'une priorité
+     * @param status Statut recherché, ou null pour ne pas filtrer
+     * @param priority Priorité recherchée, ou null pour ne pas filtrer
+     * @param after ID après lequel commencer (exclu), ou 0 pour commencer au début
+     * @param limit Nombre maximum d'IDs à retourner
+     * @return IDs croissants, au plus {@code limit}
+     */
+    int[] pageMatching(String status, String priority, long after, int limit) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap statusIds = status != null ? byStatus.get(status) : all;
+            RoaringBitmap priorityIds = priority != null ? byPriority.get(priority) : null;
+            if (statusIds == null || (priority != null && priorityIds == null)) {
+                return new int[0];
+            }
+            return page(statusIds, priorityIds, after, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Parcourt un bitmap à partir d'un ID, sans copie : le coût est
+     * proportionnel à la taille de la page (et aux IDs écartés par le filtre)
+     */
+    private static int[] page(RoaringBitmap source, RoaringBitmap filter, long after, int limit) {
+        if (after >= Integer.MAX_VALUE) {
+            return new int[0];
+        }
+        int[] ids = new int[limit];
+        int count = 0;
+        PeekableIntIterator it = source.getIntIterator();
+        it.advanceIfNeeded((int) Math.max(after + 1, 0));
+        while (count < limit && it.hasNext()) {
+            int id = it.next();
+            if (filter == null || filter.contains(id)) {
+                ids[count++] = id;
+            }
+        }
+        return count == limit ? ids : Arrays.copyOf(ids, count);
+    }
+
+    private static void move(Map<String, RoaringBitmap> index, int id, String from, String to) {
+        removeFrom(index, from, id);
+        bitmapFor(index, to).add(id);
+    }
+
+    private static void removeFrom(Map<String, RoaringBitmap> index, String value, int id) {
+        RoaringBitmap bitmap = index.get(value);
+        if (bitmap != null) {
+            bitmap.remove(id);
+            if (bitmap.isEmpty()) {
+                index.remove(value);
+            }
+        }
+    }
+
+    private static RoaringBitmap bitmapFor(Map<String, RoaringBitmap> index, String value) {
+        return index.computeIfAbsent(value, v -> new RoaringBitmap());
+    }
+
+    private static int toKey(Long id) {
+        if (id < 0 || id > MAX_ID) {
+            throw new IllegalArgumentException("ID de tâche hors de l'index : " + id + " (" + MAX_ID + " au plus)");
+        }
+        return (int) (long) id;
+    }
+}
@@ -0,0 +1,35 @@
+package com.todolist.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+
+/**
+ * Déclenche périodiquement un snapshot des tâches et la compaction du journal
+ */
+@Component
+@ConditionalOnProperty(name = {"todolist.wal.enabled", "todolist.snapshot.enabled"}, havingValue = "true")
+public class TaskCheckpointJob {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskCheckpointJob.class);
+
+    private final TaskRepository repository;
+
+    public TaskCheckpointJob(TaskRepository repository) {
+        this.repository = repository;
+    }
+
+    @Scheduled(fixedDelayString = "${todolist.snapshot.interval-ms:300000}",
+            initialDelayString = "${todolist.snapshot.interval-ms:300000}")
+    public void checkpoint() {
+        try {
+            repository.checkpoint();
+        } catch (UncheckedIOException e) {
+            log.error("Échec du snapshot des tâches, le journal est conservé", e);
+        }
+    }
+}
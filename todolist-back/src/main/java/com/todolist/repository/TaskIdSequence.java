@@ -0,0 +1,88 @@
+package com.todolist.repository;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Allocation des IDs des tâches et limite de visibilité des pages. Les
+ * insertions concurrentes se terminent dans un ordre quelconque : tant qu'un
+ * ID alloué n'est pas réglé (tâche publiée ou insertion abandonnée), les IDs
+ * supérieurs restent hors des pages, pour qu'un curseur ne puisse jamais
+ * dépasser un ID publié ensuite.
+ */
+final class TaskIdSequence {
+
+    private final long maxId;
+    // Protégés par this
+    private long next = 1L;
+    // Plages réglées au-delà de la limite visible, par premier ID
+    private final TreeMap<Long, Long> settledAhead = new TreeMap<>();
+    // Tous les IDs jusqu'à celui-ci inclus sont réglés
+    private volatile long visibleUpTo;
+
+    /**
+     * @param maxId Plus grand ID allouable
+     */
+    TaskIdSequence(long maxId) {
+        this.maxId = maxId;
+    }
+
+    /**
+     * Alloue des IDs consécutifs, à régler par {@link #settle(long, int)}
+     * @param count Nombre d'IDs
+     * @return Premier ID alloué
+     * @throws IllegalStateException si le dernier ID dépasserait l'ID maximal ; rien n'est alloué
+     */
+    synchronized long allocate(int count) {
+        if (next - 1 > maxId - count) {
+            throw new IllegalStateException("Plus assez d'IDs de tâche disponibles : " + count
+                    + " demandés, " + (next - 1) + " alloués sur " + maxId + " au plus");
+        }
+        long first = next;
+        next += count;
+        return first;
+    }
+
+    /**
+     * Règle des IDs alloués, que leur insertion ait abouti ou non
+     * @param first Premier ID retourné par {@link #allocate(int)}
+     * @param count Nombre d'IDs alloués
+     */
+    synchronized void settle(long first, int count) {
+        if (count == 0) {
+            return;
+        }
+        settledAhead.put(first, first + count - 1);
+        long visible = visibleUpTo;
+        Map.Entry<Long, Long> range;
+        while ((range = settledAhead.firstEntry()) != null && range.getKey() == visible + 1) {
+            visible = range.getValue();
+            settledAhead.pollFirstEntry();
+        }
+        visibleUpTo = visible;
+    }
+
+    /**
+     * @return Prochain ID à allouer
+     */
+    synchronized long next() {
+        return next;
+    }
+
+    /**
+     * Porte le prochain ID au moins à une valeur et rend visibles tous les IDs
+     * précédents ; réservé à la restauration, sans insertion en cours
+     * @param nextId Prochain ID minimal
+     */
+    synchronized void restore(long nextId) {
+        next = Math.max(next, nextId);
+        visibleUpTo = next - 1;
+    }
+
+    /**
+     * @return Plus grand ID qu'une page peut contenir
+     */
+    long visibleUpTo() {
+        return visibleUpTo;
+    }
+}
@@ -0,0 +1,66 @@
+package com.todolist.repository;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Verrous des tâches par ID, répartis sur un nombre fixe de bandes : deux
+ * tâches peuvent partager une bande, jamais une tâche deux bandes. Les bandes
+ * d'un lot sont prises dans l'ordre croissant, ce qui exclut tout interblocage
+ * entre deux écritures par lot. Un thread virtuel qui attend un de ces verrous
+ * libère son thread porteur.
+ */
+final class TaskLocks {
+
+    private static final int STRIPES = 1024;
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    TaskLocks() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Prend le verrou d'une tâche
+     * @param id ID de la tâche
+     */
+    void lock(long id) {
+        stripes[stripe(id)].lock();
+    }
+
+    /**
+     * @param id ID d'une tâche verrouillée par {@link #lock(long)}
+     */
+    void unlock(long id) {
+        stripes[stripe(id)].unlock();
+    }
+
+    /**
+     * Prend les verrous d'un lot de tâches, dans l'ordre croissant des bandes
+     * @param ids IDs des tâches, éventuellement répétés ou null
+     * @return Bandes prises, à rendre à {@link #unlockAll(int[])}
+     */
+    int[] lockAll(Collection<Long> ids) {
+        int[] taken = ids.stream().filter(Objects::nonNull).mapToInt(TaskLocks::stripe).sorted().distinct().toArray();
+        for (int stripe : taken) {
+            stripes[stripe].lock();
+        }
+        return taken;
+    }
+
+    /**
+     * @param taken Bandes retournées par {@link #lockAll(Collection)}
+     */
+    void unlockAll(int[] taken) {
+        for (int i = taken.length - 1; i >= 0; i--) {
+            stripes[taken[i]].unlock();
+        }
+    }
+
+    private static int stripe(long id) {
+        return (int) ((id ^ (id >>> 32)) & (STRIPES - 1));
+    }
+}
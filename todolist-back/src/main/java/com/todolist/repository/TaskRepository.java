@@ -0,0 +1,236 @@
+package com.todolist.repository;
+
+import com.todolist.model.Task;
+import com.todolist.model.TaskPage;
+import com.todolist.model.TaskStatistics;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Stockage des tâches utilisé par le service. Les listes sont toujours triées
+ * par ID (ordre de création) ; les pages s'arrêtent au plus à {@code limit} tâches.
+ * <p>
+ * Le choix de l'implémentation se fait par la propriété {@code todolist.storage}
+ * ({@code memory}, {@code columnar} ou {@code jdbc}).
+ */
+public interface TaskRepository {
+
+    /** Nombre de tâches lues à la fois par le calcul par défaut des statistiques */
+    int STATISTICS_PAGE_SIZE = 10_000;
+
+    /**
+     * @return true si le stockage vient d'être créé (aucune donnée existante
+     * n'a été retrouvée au démarrage)
+     */
+    boolean isNewStore();
+
+    /**
+     * @return Nombre de tâches stockées
+     */
+    long count();
+
+    Optional<Task> findById(long id);
+
+    List<Task> findAll();
+
+    /**
+     * @return Tâches dont le statut n'est ni terminé ni annulé
+     */
+    List<Task> findIncomplete();
+
+    /**
+     * @param status Statut recherché, ou null pour ne pas filtrer
+     * @param priority Priorité recherchée, ou null pour ne pas filtrer
+     */
+    List<Task> findByStatusAndPriority(String status, String priority);
+
+    /**
+     * @param status Statut recherché, ou null pour ne pas filtrer
+     * @param priority Priorité recherchée, ou null pour ne pas filtrer
+     * @param afterId ID après lequel reprendre (exclu), ou 0 pour la première page
+     * @param limit Taille maximale de la page
+     */
+    TaskPage findPage(String status, String priority, long afterId, int limit);
+
+    /**
+     * @param afterId ID après lequel reprendre (exclu), ou 0 pour la première page
+     * @param limit Taille maximale de la page
+     */
+    TaskPage findIncompletePage(long afterId, int limit);
+
+    /**
+     * Enregistre une nouvelle tâche en lui attribuant un ID et la version 1
+     * @param task Tâche sans ID
+     * @return La même tâche, avec son ID et sa version
+     */
+    default Task insert(Task task) {
+        return insert(task, TaskWriteTracker.NONE);
+    }
+
+    /**
+     * Enregistre une nouvelle tâche et la signale au suivi avant qu'elle ne
+     * puisse être modifiée ou supprimée
+     * @param task Tâche sans ID
+     * @param tracker Suivi des écritures de l'appel
+     * @return La même tâche, avec son ID et sa version
+     */
+    Task insert(Task task, TaskWriteTracker tracker);
+
+    /**
+     * Enregistre un lot de nouvelles tâches
+     * @param tasks Tâches sans ID
+     * @return Les mêmes tâches avec leur ID et la version 1, dans le même ordre
+     */
+    default List<Task> insertAll(List<Task> tasks) {
+        return insertAll(tasks, TaskWriteTracker.NONE);
+    }
+
+    /**
+     * Enregistre un lot de nouvelles tâches et les signale au suivi
+     * @param tasks Tâches sans ID
+     * @param tracker Suivi des écritures de l'appel
+     * @return Les mêmes tâches avec leur ID et la version 1, dans le même ordre
+     */
+    List<Task> insertAll(List<Task> tasks, TaskWriteTracker tracker);
+
+    /**
+     * Applique une modification à une tâche de manière atomique vis-à-vis des
+     * autres écritures sur le même ID, et incrémente sa version. Si la
+     * modification lève une exception, la tâche n'est pas modifiée et
+     * l'exception est propagée.
+     * @param id ID de la tâche
+     * @param mutation Modification à appliquer
+     * @return Tâche modifiée ou vide si non trouvée
+     */
+    default Optional<Task> update(long id, Consumer<Task> mutation) {
+        return update(id, mutation, TaskWriteTracker.NONE);
+    }
+
+    /**
+     * Applique une modification comme {@link #update(long, Consumer)} et la
+     * signale au suivi, avant toute autre écriture sur la même tâche. Une
+     * modification qui lève une exception n'est pas signalée.
+     * @param id ID de la tâche
+     * @param mutation Modification à appliquer
+     * @param tracker Suivi des écritures de l'appel
+     * @return Tâche modifiée ou vide si non trouvée
+     */
+    Optional<Task> update(long id, Consumer<Task> mutation, TaskWriteTracker tracker);
+
+    /**
+     * Applique une modification à chacune des tâches d'un lot
+     * @param ids IDs des tâches (un ID null ne correspond à aucune tâche)
+     * @param mutations Modification de la tâche de même rang
+     * @return Pour chaque ID, dans le même ordre, la tâche modifiée ou vide si non trouvée
+     */
+    default List<Optional<Task>> updateAll(List<Long> ids, List<Consumer<Task>> mutations) {
+        return updateAll(ids, mutations, TaskWriteTracker.NONE);
+    }
+
+    /**
+     * Applique une modification à chacune des tâches d'un lot et signale chacune au suivi
+     * @param ids IDs des tâches (un ID null ne correspond à aucune tâche)
+     * @param mutations Modification de la tâche de même rang
+     * @param tracker Suivi des écritures de l'appel
+     * @return Pour chaque ID, dans le même ordre, la tâche modifiée ou vide si non trouvée
+     */
+    default List<Optional<Task>> updateAll(List<Long> ids, List<Consumer<Task>> mutations, TaskWriteTracker tracker) {
+        List<Optional<Task>> results = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            results.add(id == null ? Optional.empty() : update(id, mutations.get(i), tracker));
+        }
+        return results;
+    }
+
+    /**
+     * @param id ID de la tâche à supprimer
+     * @return Tâche supprimée, dans son dernier état, ou vide si elle n'a pas été trouvée
+     */
+    default Optional<Task> delete(long id) {
+        return delete(id, TaskWriteTracker.NONE);
+    }
+
+    /**
+     * Supprime une tâche et la signale au suivi
+     * @param id ID de la tâche à supprimer
+     * @param tracker Suivi des écritures de l'appel
+     * @return Tâche supprimée, dans son dernier état, ou vide si elle n'a pas été trouvée
+     */
+    Optional<Task> delete(long id, TaskWriteTracker tracker);
+
+    /**
+     * @param ids IDs des tâches à supprimer
+     * @return Pour chaque ID, dans le même ordre, la tâche supprimée ou vide si
+     * elle n'a pas été trouvée (ou a déjà été supprimée plus tôt dans le lot)
+     */
+    default List<Optional<Task>> deleteAll(List<Long> ids) {
+        return deleteAll(ids, TaskWriteTracker.NONE);
+    }
+
+    /**
+     * Supprime un lot de tâches et signale au suivi celles qui ont été trouvées
+     * @param ids IDs des tâches à supprimer
+     * @param tracker Suivi des écritures de l'appel
+     * @return Pour chaque ID, dans le même ordre, la tâche supprimée ou vide si
+     * elle n'a pas été trouvée (ou a déjà été supprimée plus tôt dans le lot)
+     */
+    List<Optional<Task>> deleteAll(List<Long> ids, TaskWriteTracker tracker);
+
+    /**
+     * Calcule les statistiques de toutes les tâches. Par défaut, parcourt le
+     * stockage page par page ; un stockage peut fournir un calcul plus direct.
+     * @param now Instant de référence pour les tâches en retard
+     */
+    default TaskStatistics statistics(Date now) {
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        for (String status : List.of(Task.STATUS_PENDING, Task.STATUS_IN_PROGRESS, Task.STATUS_COMPLETED, Task.STATUS_CANCELLED)) {
+            byStatus.put(status, 0L);
+        }
+        Map<String, Long> byPriority = new LinkedHashMap<>();
+        for (String priority : List.of(Task.PRIORITY_LOW, Task.PRIORITY_MEDIUM, Task.PRIORITY_HIGH)) {
+            byPriority.put(priority, 0L);
+        }
+        long total = 0;
+        long overdue = 0;
+        long pomodoroCount = 0;
+        long afterId = 0L;
+        TaskPage page;
+        do {
+            page = findPage(null, null, afterId, STATISTICS_PAGE_SIZE);
+            for (Task task : page.getTasks()) {
+                total++;
+                if (task.getStatus() != null) {
+                    byStatus.merge(task.getStatus(), 1L, Long::sum);
+                }
+                if (task.getPriority() != null) {
+                    byPriority.merge(task.getPriority(), 1L, Long::sum);
+                }
+                if (task.getDueDate() != null && task.getDueDate().before(now)
+                        && Task.isIncomplete(task.getStatus())) {
+                    overdue++;
+                }
+                if (task.getPomodoroCount() != null) {
+                    pomodoroCount += task.getPomodoroCount();
+                }
+            }
+            if (page.getLastId() != null) {
+                afterId = page.getLastId();
+            }
+        } while (page.hasMore());
+        return new TaskStatistics(total, byStatus, byPriority, overdue, pomodoroCount);
+    }
+
+    /**
+     * Consolide l'état durable du stockage (snapshot, compaction).
+     * Sans effet par défaut : une base de données gère elle-même sa durabilité.
+     */
+    default void checkpoint() {
+    }
+}
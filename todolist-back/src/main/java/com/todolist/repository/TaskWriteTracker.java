@@ -0,0 +1,41 @@
+package com.todolist.repository;
+
+import com.todolist.model.Task;
+
+import java.util.List;
+
+/**
+ * Suivi des écritures d'un appel au stockage, pour tenir à jour ce qui en
+ * dérive hors du stockage (index, journal des modifications).
+ * <p>
+ * Le stockage appelle le suivi sous le verrou de chaque tâche concernée, avant
+ * qu'une autre écriture sur la même tâche ne puisse avoir lieu : une création
+ * est suivie avant toute modification de la tâche, et deux modifications d'une
+ * même tâche le sont dans leur ordre. Les méthodes doivent être brèves et ne
+ * jamais bloquer ; aucune ne peut annuler l'écriture.
+ */
+public interface TaskWriteTracker {
+
+    /** Suivi qui ignore toutes les écritures */
+    TaskWriteTracker NONE = new TaskWriteTracker() {
+    };
+
+    /**
+     * @param tasks Tâches créées, avec leur ID et leur version
+     */
+    default void inserted(List<Task> tasks) {
+    }
+
+    /**
+     * @param previous État de la tâche avant la modification
+     * @param task État après la modification, avec sa nouvelle version
+     */
+    default void updated(Task previous, Task task) {
+    }
+
+    /**
+     * @param tasks Tâches supprimées, dans leur dernier état
+     */
+    default void deleted(List<Task> tasks) {
+    }
+}
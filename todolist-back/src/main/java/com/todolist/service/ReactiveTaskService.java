@@ -0,0 +1,342 @@
+package com.todolist.service;
+
+import com.todolist.model.BulkStatusUpdate;
+import com.todolist.model.Task;
+import com.todolist.model.TaskChanges;
+import com.todolist.model.TaskPage;
+import com.todolist.model.TaskPatch;
+import com.todolist.model.TaskSearchPage;
+import com.todolist.model.TaskStatistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * Façade non bloquante de {@link TaskService}, pour la pile web réactive
+ * ({@code spring.main.web-application-type=reactive}).
+ * <p>
+ * Le service peut bloquer : verrous du stockage, requêtes JDBC, attente de
+ * l'écriture du journal. Chaque appel est donc exécuté sur un pool borné de
+ * threads dédiés, ou sur son propre thread virtuel avec
+ * {@code todolist.threads.virtual=true}, et rendu sous forme de {@link Mono},
+ * sans jamais occuper les threads d'entrée-sortie du serveur. Seules les méthodes qui ne font que lire
+ * des compteurs en mémoire (identifiants de version) restent synchrones.
+ * <p>
+ * Les listes complètes sont lues page par page au fil de la demande du client
+ * (backpressure) : une page n'est lue que quand la précédente a été consommée,
+ * si bien que la mémoire utilisée ne dépend ni du nombre de tâches ni de la
+ * vitesse du client.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTaskService implements AutoCloseable {
+
+    /** Nombre de tâches lues à la fois pour les listes en flux */
+    static final int STREAM_PAGE_SIZE = 500;
+    /** Nombre de modifications lues à la fois pour les abonnés aux modifications */
+    static final int CHANGES_BATCH_SIZE = 1000;
+
+    private final TaskService taskService;
+    private final Scheduler scheduler;
+    // Signale chaque modification aux abonnés, qui la relisent ensuite dans le journal des modifications
+    private final Sinks.Many<Boolean> changeSignals = Sinks.many().multicast().directBestEffort();
+
+    /**
+     * @param taskService Service appelé
+     * @param threads Nombre de threads des appels au service
+     * @param queueSize Nombre d'appels en attente d'un thread au-delà duquel les appels sont refusés
+     * @param virtualThreads true pour exécuter chaque appel sur son propre thread virtuel, sans pool
+     */
+    @Autowired
+    public ReactiveTaskService(TaskService taskService,
+                               @Value("${todolist.reactive.service-threads:64}") int threads,
+                               @Value("${todolist.reactive.service-queue-size:100000}") int queueSize,
+                               @Value("${todolist.threads.virtual:false}") boolean virtualThreads) {
+        this(taskService, virtualThreads
+                ? Schedulers.fromExecutorService(Executors.newThreadPerTaskExecutor(
+                        Thread.ofVirtual().name("todolist-service-", 0).factory()), "todolist-service")
+                : Schedulers.newBoundedElastic(threads, queueSize, "todolist-service"));
+    }
+
+    /**
+     * @param taskService Service appelé
+     * @param scheduler Threads sur lesquels les appels au service sont exécutés
+     */
+    public ReactiveTaskService(TaskService taskService, Scheduler scheduler) {
+        this.taskService = taskService;
+        this.scheduler = scheduler;
+        // Appelé par le thread qui modifie, parfois sous verrou : l'émission ne fait que réveiller les abonnés
+        taskService.addChangeListener(() -> changeSignals.emitNext(Boolean.TRUE,
+                (signal, result) -> result == Sinks.EmitResult.FAIL_NON_SERIALIZED));
+    }
+
+    /**
+     * Lit toutes les tâches, éventuellement filtrées, au fil de la demande
+     * @param status Statut recherché, ou null pour ne pas filtrer
+     * @param priority Priorité recherchée, ou null pour ne pas filtrer
+     * @return Tâches triées par ID
+     */
+    public Flux<Task> streamTasks(@Nullable String status, @Nullable String priority) {
+        return stream((afterId, size) -> taskService.getTasksPage(status, priority, afterId, size));
+    }
+
+    /**
+     * Lit toutes les tâches non complétées, au fil de la demande
+     * @return Tâches à effectuer triées par ID
+     */
+    public Flux<Task> streamIncompleteTasks() {
+        return stream(taskService::getIncompleteTasksPage);
+    }
+
+    /**
+     * @see TaskService#getTasksPage
+     */
+    public Mono<TaskPage> getTasksPage(@Nullable String status, @Nullable String priority, long afterId, int limit) {
+        return call(() -> taskService.getTasksPage(status, priority, afterId, limit));
+    }
+
+    /**
+     * @see TaskService#getIncompleteTasksPage
+     */
+    public Mono<TaskPage> getIncompleteTasksPage(long afterId, int limit) {
+        return call(() -> taskService.getIncompleteTasksPage(afterId, limit));
+    }
+
+    /**
+     * @return Tâche correspondante, ou vide si non trouvée
+     */
+    public Mono<Task> getTaskById(Long id) {
+        return call(() -> taskService.getTaskById(id).orElse(null));
+    }
+
+    /**
+     * @see TaskService#searchTasks
+     */
+    public Mono<TaskSearchPage> searchTasks(String query, int offset, int limit) {
+        return call(() -> taskService.searchTasks(query, offset, limit));
+    }
+
+    /**
+     * @see TaskService#getNextTasks
+     */
+    public Mono<List<Task>> getNextTasks(int k) {
+        return call(() -> taskService.getNextTasks(k));
+    }
+
+    /**
+     * @see TaskService#getStatistics
+     */
+    public Mono<TaskStatistics> getStatistics() {
+        return call(taskService::getStatistics);
+    }
+
+    /**
+     * @see TaskService#getOverdueTasks
+     */
+    public Mono<List<Task>> getOverdueTasks() {
+        return call(taskService::getOverdueTasks);
+    }
+
+    /**
+     * @see TaskService#getTasksDueWithin
+     */
+    public Mono<List<Task>> getTasksDueWithin(Duration within) {
+        return call(() -> taskService.getTasksDueWithin(within));
+    }
+
+    /**
+     * @see TaskService#getTasksDueBetween
+     */
+    public Mono<List<Task>> getTasksDueBetween(@Nullable Date from, @Nullable Date to, boolean incompleteOnly) {
+        return call(() -> taskService.getTasksDueBetween(from, to, incompleteOnly));
+    }
+
+    /**
+     * @see TaskService#getChanges
+     */
+    public Mono<TaskChanges> getChanges(long since, int limit) {
+        return call(() -> taskService.getChanges(since, limit));
+    }
+
+    /**
+     * Suit les modifications faites après un numéro de séquence, sans fin. Un
+     * abonné lent ne retient aucune modification en mémoire : il relit le journal
+     * des modifications à son rythme, et reçoit une demande de resynchronisation
+     * s'il a pris trop de retard.
+     * @param since Numéro de la dernière modification déjà connue
+     * @return Lots de modifications non vides, ou demandes de resynchronisation
+     * portant le numéro à partir duquel reprendre
+     */
+    public Flux<TaskChanges> followChanges(long since) {
+        return Flux.defer(() -> {
+            AtomicLong position = new AtomicLong(since);
+            // Les signaux reçus pendant une lecture sont fusionnés en un seul
+            return Flux.concat(Mono.just(Boolean.TRUE), changeSignals.asFlux())
+                    .onBackpressureLatest()
+                    .publishOn(Schedulers.parallel(), 1)
+                    .concatMap(signal -> readChanges(position), 1);
+        });
+    }
+
+    /**
+     * @return Dernier numéro de séquence du journal des modifications
+     */
+    public long getChangeSequence() {
+        return taskService.getChanges(0L, 1).getSequence();
+    }
+
+    /**
+     * @see TaskService#addTask
+     */
+    public Mono<Task> addTask(Task task) {
+        return call(() -> taskService.addTask(task));
+    }
+
+    /**
+     * @see TaskService#addTasks
+     */
+    public Mono<List<Task>> addTasks(List<Task> tasks) {
+        return call(() -> taskService.addTasks(tasks));
+    }
+
+    /**
+     * Met à jour le statut d'une tâche
+     * @param expectedVersion Version attendue, ou null pour ne pas vérifier
+     * @return Tâche modifiée, vide si non trouvée, ou erreur {@link TaskVersionConflictException}
+     */
+    public Mono<Task> updateTaskStatus(Long id, String status, @Nullable Long expectedVersion) {
+        return call(() -> (expectedVersion == null
+                ? taskService.updateTaskStatus(id, status)
+                : taskService.updateTaskStatus(id, status, expectedVersion)).orElse(null));
+    }
+
+    /**
+     * @see TaskService#updateTaskStatuses
+     */
+    public Mono<List<Optional<Task>>> updateTaskStatuses(List<BulkStatusUpdate> updates) {
+        return call(() -> taskService.updateTaskStatuses(updates));
+    }
+
+    /**
+     * Met à jour tous les champs d'une tâche
+     * @param expectedVersion Version attendue, ou null pour ne pas vérifier
+     * @return Tâche modifiée, vide si non trouvée, ou erreur {@link TaskVersionConflictException}
+     */
+    public Mono<Task> updateTask(Long id, Task task, @Nullable Long expectedVersion) {
+        return call(() -> (expectedVersion == null
+                ? taskService.updateTask(id, task)
+                : taskService.updateTask(id, task, expectedVersion)).orElse(null));
+    }
+
+    /**
+     * @return Tâche modifiée, vide si non trouvée, ou erreur {@link TaskVersionConflictException}
+     * @see TaskService#patchTask
+     */
+    public Mono<Task> patchTask(Long id, TaskPatch patch, @Nullable Long expectedVersion) {
+        return call(() -> taskService.patchTask(id, patch, expectedVersion).orElse(null));
+    }
+
+    /**
+     * @see TaskService#deleteTask
+     */
+    public Mono<Boolean> deleteTask(Long id) {
+        return call(() -> taskService.deleteTask(id));
+    }
+
+    /**
+     * @see TaskService#deleteTasks
+     */
+    public Mono<List<Boolean>> deleteTasks(List<Long> ids) {
+        return call(() -> taskService.deleteTasks(ids));
+    }
+
+    /**
+     * Non bloquant
+     * @see TaskService#getStoreVersionTag
+     */
+    public String getStoreVersionTag() {
+        return taskService.getStoreVersionTag();
+    }
+
+    /**
+     * Non bloquant
+     * @see TaskService#getVersionTag
+     */
+    public String getVersionTag(Task task) {
+        return taskService.getVersionTag(task);
+    }
+
+    /**
+     * Non bloquant
+     * @see TaskService#getVersionFromTag
+     */
+    public OptionalLong getVersionFromTag(Long id, String versionTag) {
+        return taskService.getVersionFromTag(id, versionTag);
+    }
+
+    @Override
+    public void close() {
+        changeSignals.tryEmitComplete();
+        scheduler.dispose();
+    }
+
+    /**
+     * Exécute un appel au service sur les threads dédiés
+     * @param call Appel, qui peut rendre null pour un résultat vide
+     */
+    private <T> Mono<T> call(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(scheduler);
+    }
+
+    /**
+     * Lit les pages d'une requête paginée, une par demande de l'aval
+     * @param query Requête prenant le dernier ID lu et la taille de page
+     */
+    private Flux<Task> stream(BiFunction<Long, Integer, TaskPage> query) {
+        return Flux.<TaskPage, Long>generate(() -> 0L, (afterId, sink) -> {
+                    TaskPage page = query.apply(afterId, STREAM_PAGE_SIZE);
+                    sink.next(page);
+                    if (!page.hasMore() || page.getLastId() == null) {
+                        sink.complete();
+                        return afterId;
+                    }
+                    return page.getLastId();
+                })
+                // Les demandes de l'aval sont aussi transmises sur les threads dédiés, où les pages sont lues
+                .subscribeOn(scheduler)
+                .flatMapIterable(TaskPage::getTasks, 1);
+    }
+
+    /**
+     * Lit les modifications en attente d'un abonné, lot par lot
+     * @param position Numéro de la dernière modification lue par l'abonné, avancé au fil des lectures
+     */
+    private Flux<TaskChanges> readChanges(AtomicLong position) {
+        return Flux.<TaskChanges>generate(sink -> {
+                    TaskChanges changes = taskService.getChanges(position.get(), CHANGES_BATCH_SIZE);
+                    position.set(changes.getSequence());
+                    sink.next(changes);
+                    if (changes.isResyncRequired() || !changes.hasMore()) {
+                        sink.complete();
+                    }
+                })
+                .filter(changes -> changes.isResyncRequired() || !changes.getChanges().isEmpty());
+    }
+}
@@ -0,0 +1,146 @@
+package com.todolist.service;
+
+import com.todolist.model.CompactTask;
+import com.todolist.model.Task;
+import com.todolist.model.TaskChange;
+import com.todolist.model.TaskChanges;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Journal borné des dernières modifications de tâches, numérotées par un
+ * numéro de séquence global.
+ * <p>
+ * Les {@code capacity} dernières modifications sont gardées dans un tampon
+ * circulaire, avec l'état de la tâche sous forme compacte ; au-delà, un client
+ * en retard doit tout recharger. Les numéros partent de l'instant de création
+ * du journal en microsecondes : un numéro obtenu avant un redémarrage est donc
+ * toujours antérieur au journal, tant que le service fait moins d'un million de
+ * modifications par seconde en moyenne, et reste exact en JavaScript.
+ */
+class TaskChangeLog {
+
+    /** Modification conservée ; la tâche est null pour une suppression */
+    private static final class Entry {
+        final String type;
+        final long id;
+        final CompactTask task;
+
+        Entry(String type, long id, CompactTask task) {
+            this.type = type;
+            this.id = id;
+            this.task = task;
+        }
+    }
+
+    private final Entry[] entries;
+    // Prévenus après chaque enregistrement, hors du verrou du journal
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    // Numéro de la dernière modification enregistrée ; celle de numéro n est dans entries[n % capacity]
+    private long lastSequence;
+    // Numéro de la plus ancienne modification encore conservée
+    private long firstSequence;
+
+    /**
+     * @param capacity Nombre de modifications conservées
+     */
+    TaskChangeLog(int capacity) {
+        this.entries = new Entry[capacity];
+        this.lastSequence = System.currentTimeMillis() * 1000;
+        this.firstSequence = lastSequence + 1;
+    }
+
+    /**
+     * @param tasks Tâches créées, avec leur ID
+     */
+    void inserted(List<Task> tasks) {
+        synchronized (this) {
+            for (Task task : tasks) {
+                append(new Entry(TaskChange.TYPE_INSERT, task.getId(), CompactTask.of(task)));
+            }
+        }
+        notifyListeners();
+    }
+
+    /**
+     * Enregistre une modification ; appelé sous le verrou de la tâche, pour que
+     * deux modifications d'une même tâche soient numérotées dans leur ordre
+     * @param task Tâche modifiée
+     * @param version Version que le stockage lui attribue
+     */
+    void updated(Task task, long version) {
+        synchronized (this) {
+            append(new Entry(TaskChange.TYPE_UPDATE, task.getId(), CompactTask.of(task, version)));
+        }
+        notifyListeners();
+    }
+
+    /**
+     * @param tasks Tâches supprimées
+     */
+    void deleted(List<Task> tasks) {
+        synchronized (this) {
+            for (Task task : tasks) {
+                append(new Entry(TaskChange.TYPE_DELETE, task.getId(), null));
+            }
+        }
+        notifyListeners();
+    }
+
+    /**
+     * @param listener Action exécutée après chaque enregistrement, sur le thread
+     * qui a fait la modification et parfois sous le verrou de la tâche : elle doit
+     * être brève et ne jamais bloquer
+     */
+    void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Lit les modifications qui suivent un numéro de séquence
+     * @param since Numéro de la dernière modification déjà connue du client
+     * @param limit Nombre maximal de modifications
+     * @return Modifications par numéro croissant, ou demande de resynchronisation
+     * si certaines ne sont plus conservées ou si le numéro est inconnu
+     */
+    TaskChanges since(long since, int limit) {
+        long end;
+        boolean hasMore;
+        Entry[] read;
+        // Seules les références sont copiées sous le verrou, que les écritures attendent
+        synchronized (this) {
+            if (since < firstSequence - 1 || since > lastSequence) {
+                return new TaskChanges(lastSequence, true, false, List.of());
+            }
+            end = Math.min(lastSequence, since + limit);
+            hasMore = end < lastSequence;
+            read = new Entry[(int) (end - since)];
+            for (int i = 0; i < read.length; i++) {
+                read[i] = entries[(int) ((since + 1 + i) % entries.length)];
+            }
+        }
+        List<TaskChange> changes = new ArrayList<>(read.length);
+        for (int i = 0; i < read.length; i++) {
+            Entry entry = read[i];
+            changes.add(new TaskChange(since + 1 + i, entry.type, entry.id,
+                    entry.task != null ? entry.task.toTask() : null));
+        }
+        return new TaskChanges(end, false, hasMore, changes);
+    }
+
+    private void notifyListeners() {
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+
+    private void append(Entry entry) {
+        lastSequence++;
+        entries[(int) (lastSequence % entries.length)] = entry;
+        if (lastSequence - firstSequence >= entries.length) {
+            firstSequence++;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.todolist.service;
+
+import com.todolist.model.Task;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Collectors;
+
+/**
+ * Index trié des tâches par échéance.
+ * <p>
+ * Deux ensembles triés concurrents de couples (échéance, ID) : toutes les tâches
+ * ayant une échéance, et seulement celles qui restent à faire. Une recherche par
+ * intervalle d'échéances coûte O(log n + k) pour k résultats ; les tâches terminées
+ * ne ralentissent donc pas la recherche des tâches en retard. Les lectures ne
+ * prennent aucun verrou : une tâche en cours de modification peut manquer dans un résultat.
+ */
+class TaskDueDateIndex {
+
+    /** Entrée de l'index, comparée par échéance puis par ID */
+    private static final class Entry implements Comparable<Entry> {
+        final long due;
+        final long id;
+
+        Entry(long due, long id) {
+            this.due = due;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byDue = Long.compare(due, other.due);
+            return byDue != 0 ? byDue : Long.compare(id, other.id);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry other = (Entry) o;
+            return due == other.due && id == other.id;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(due, id);
+        }
+    }
+
+    private final NavigableSet<Entry> all = new ConcurrentSkipListSet<>();
+    private final NavigableSet<Entry> incomplete = new ConcurrentSkipListSet<>();
+
+    /**
+     * Indexe des tâches nouvellement ajoutées
+     * @param tasks Tâches avec leur ID
+     */
+    void addAll(Collection<Task> tasks) {
+        for (Task task : tasks) {
+            insert(task.getId(), task.getDueDate(), task.getStatus());
+        }
+    }
+
+    /**
+     * Réindexe une tâche dont l'échéance ou le statut a pu changer ; sans effet sinon
+     * @param id ID de la tâche
+     * @param oldDueDate Échéance avant modification, en millisecondes, ou null
+     * @param oldStatus Statut avant modification
+     * @param task Tâche après modification
+     */
+    void update(long id, Long oldDueDate, String oldStatus, Task task) {
+        Long dueDate = millis(task.getDueDate());
+        if (Objects.equals(oldDueDate, dueDate) && Task.isIncomplete(oldStatus) == Task.isIncomplete(task.getStatus())) {
+            return;
+        }
+        if (oldDueDate != null) {
+            Entry old = new Entry(oldDueDate, id);
+            all.remove(old);
+            incomplete.remove(old);
+        }
+        insert(id, task.getDueDate(), task.getStatus());
+    }
+
+    /**
+     * Retire des tâches supprimées de l'index
+     * @param tasks Tâches supprimées, dans leur dernier état
+     */
+    void removeAll(Collection<Task> tasks) {
+        for (Task task : tasks) {
+            if (task.getDueDate() != null) {
+                Entry entry = new Entry(task.getDueDate().getTime(), task.getId());
+                all.remove(entry);
+                incomplete.remove(entry);
+            }
+        }
+    }
+
+    /**
+     * Recherche les tâches dont l'échéance est dans un intervalle
+     * @param from Début de l'intervalle (inclus), ou null pour ne pas borner
+     * @param to Fin de l'intervalle (exclue), ou null pour ne pas borner
+     * @param incompleteOnly true pour ne garder que les tâches à faire
+     * @return IDs des tâches par échéance croissante, puis par ID
+     */
+    List<Long> between(Date from, Date to, boolean incompleteOnly) {
+        NavigableSet<Entry> set = incompleteOnly ? incomplete : all;
+        if (from != null && to != null) {
+            if (!from.before(to)) {
+                return List.of();
+            }
+            set = set.subSet(new Entry(from.getTime(), Long.MIN_VALUE), true, new Entry(to.getTime(), Long.MIN_VALUE), false);
+        } else if (from != null) {
+            set = set.tailSet(new Entry(from.getTime(), Long.MIN_VALUE), true);
+        } else if (to != null) {
+            set = set.headSet(new Entry(to.getTime(), Long.MIN_VALUE), false);
+        }
+        return set.stream().map(entry -> entry.id).collect(Collectors.toList());
+    }
+
+    /**
+     * @return Échéance en millisecondes, ou null si la tâche n'en a pas
+     */
+    static Long millis(Date dueDate) {
+        return dueDate != null ? dueDate.getTime() : null;
+    }
+
+    private void insert(Long id, Date dueDate, String status) {
+        if (dueDate == null) {
+            return;
+        }
+        Entry entry = new Entry(dueDate.getTime(), id);
+        all.add(entry);
+        if (Task.isIncomplete(status)) {
+            incomplete.add(entry);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.todolist.service;
+
+import com.todolist.model.Task;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Versions des listes de tâches filtrées par statut et priorité, pour savoir
+ * précisément quelles réponses en cache une modification rend obsolètes.
+ * <p>
+ * Les tâches sont réparties en groupes par couple (statut, priorité), les
+ * valeurs non standard étant regroupées. Chaque groupe a un compteur,
+ * incrémenté après toute modification d'une tâche qui en sort, y entre ou y
+ * reste ; la version d'une liste est la somme des compteurs des groupes que son
+ * filtre peut contenir. Elle ne change donc pas quand la modification ne
+ * concerne que d'autres groupes : passer une tâche de « en attente » à
+ * « en cours » ne rend pas obsolète la liste des tâches terminées.
+ * <p>
+ * Les groupes touchés par une modification sont notés sous la forme d'un masque
+ * de bits, un bit par groupe.
+ */
+class TaskListVersions {
+
+    private static final List<String> STATUSES = List.of(
+            Task.STATUS_PENDING, Task.STATUS_IN_PROGRESS, Task.STATUS_COMPLETED, Task.STATUS_CANCELLED);
+    private static final List<String> PRIORITIES = List.of(
+            Task.PRIORITY_LOW, Task.PRIORITY_MEDIUM, Task.PRIORITY_HIGH);
+    // Une ligne de plus pour les valeurs non standard (ou absentes)
+    private static final int STATUS_COUNT = STATUSES.size() + 1;
+    private static final int PRIORITY_COUNT = PRIORITIES.size() + 1;
+    private static final int ALL = (1 << (STATUS_COUNT * PRIORITY_COUNT)) - 1;
+    // Groupes des tâches à faire : ni terminées ni annulées
+    private static final int INCOMPLETE = incompleteMask();
+
+    private final AtomicLongArray counters = new AtomicLongArray(STATUS_COUNT * PRIORITY_COUNT);
+
+    /**
+     * @return Masque du groupe d'une tâche dans cet état
+     */
+    int mask(String status, String priority) {
+        return 1 << (statusIndex(status) * PRIORITY_COUNT + priorityIndex(priority));
+    }
+
+    /**
+     * @return Masque des groupes des tâches données
+     */
+    int mask(Collection<Task> tasks) {
+        int mask = 0;
+        for (Task task : tasks) {
+            mask |= mask(task.getStatus(), task.getPriority());
+        }
+        return mask;
+    }
+
+    /**
+     * Marque les groupes modifiés ; appelé après l'écriture, pour qu'une version
+     * lue ensuite corresponde toujours à une lecture qui voit la modification
+     * @param mask Masque des groupes touchés
+     */
+    void changed(int mask) {
+        for (int remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            counters.incrementAndGet(Integer.numberOfTrailingZeros(remaining));
+        }
+    }
+
+    /**
+     * @param status Statut filtré, ou null pour tous
+     * @param priority Priorité filtrée, ou null pour toutes
+     * @return Version de la liste des tâches correspondant au filtre
+     */
+    long version(String status, String priority) {
+        int mask = ALL;
+        if (status != null) {
+            mask &= statusMask(statusIndex(status));
+        }
+        if (priority != null) {
+            mask &= priorityMask(priorityIndex(priority));
+        }
+        return sum(mask);
+    }
+
+    /**
+     * @return Version de la liste des tâches à faire
+     */
+    long incompleteVersion() {
+        return sum(INCOMPLETE);
+    }
+
+    private long sum(int mask) {
+        long sum = 0;
+        for (int remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            sum += counters.get(Integer.numberOfTrailingZeros(remaining));
+        }
+        return sum;
+    }
+
+    private static int statusIndex(String status) {
+        // indexOf(null) n'est pas permis sur List.of
+        int index = status != null ? STATUSES.indexOf(status) : -1;
+        return index >= 0 ? index : STATUSES.size();
+    }
+
+    private static int priorityIndex(String priority) {
+        int index = priority != null ? PRIORITIES.indexOf(priority) : -1;
+        return index >= 0 ? index : PRIORITIES.size();
+    }
+
+    private static int incompleteMask() {
+        int mask = 0;
+        for (int status = 0; status < STATUS_COUNT; status++) {
+            // La ligne des valeurs non standard compte parmi les tâches à faire
+            if (Task.isIncomplete(status < STATUSES.size() ? STATUSES.get(status) : null)) {
+                mask |= statusMask(status);
+            }
+        }
+        return mask;
+    }
+
+    private static int statusMask(int statusIndex) {
+        return ((1 << PRIORITY_COUNT) - 1) << (statusIndex * PRIORITY_COUNT);
+    }
+
+    private static int priorityMask(int priorityIndex) {
+        int mask = 0;
+        for (int status = 0; status < STATUS_COUNT; status++) {
+            mask |= 1 << (status * PRIORITY_COUNT + priorityIndex);
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,144 @@
+package com.todolist.service;
+
+import com.todolist.model.Task;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Tâches à faire classées par urgence : priorité décroissante, puis échéance
+ * la plus proche (les tâches sans échéance en dernier), puis date de création
+ * la plus ancienne.
+ * <p>
+ * L'ensemble trié concurrent est tenu à jour à chaque modification : lire les
+ * k tâches les plus urgentes coûte O(k), sans tri à chaque requête. Les tâches
+ * terminées ou annulées n'y figurent pas.
+ */
+class TaskNextUpIndex {
+
+    /** Entrée de l'index, comparée par urgence puis par ID */
+    private static final class Entry implements Comparable<Entry> {
+        final int priority;
+        final long due;
+        final long created;
+        final long id;
+
+        Entry(String priority, Date dueDate, Date createdAt, long id) {
+            this.priority = rank(priority);
+            this.due = dueDate != null ? dueDate.getTime() : Long.MAX_VALUE;
+            this.created = createdAt != null ? createdAt.getTime() : Long.MAX_VALUE;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int cmp = Integer.compare(priority, other.priority);
+            if (cmp == 0) {
+                cmp = Long.compare(due, other.due);
+            }
+            if (cmp == 0) {
+                cmp = Long.compare(created, other.created);
+            }
+            return cmp != 0 ? cmp : Long.compare(id, other.id);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry other = (Entry) o;
+            return priority == other.priority && due == other.due && created == other.created && id == other.id;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(priority, due, created, id);
+        }
+    }
+
+    private final NavigableSet<Entry> entries = new ConcurrentSkipListSet<>();
+
+    /**
+     * Indexe des tâches nouvellement ajoutées ; seules les tâches à faire sont retenues
+     * @param tasks Tâches avec leur ID
+     */
+    void addAll(Collection<Task> tasks) {
+        for (Task task : tasks) {
+            if (Task.isIncomplete(task.getStatus())) {
+                entries.add(entry(task));
+            }
+        }
+    }
+
+    /**
+     * Reclasse une tâche dont la priorité, l'échéance ou le statut a pu changer ; sans effet sinon.
+     * La date de création n'est jamais modifiée par le service et sert aux deux clés.
+     * @param oldPriority Priorité avant modification
+     * @param oldDueDate Échéance avant modification, en millisecondes, ou null
+     * @param oldStatus Statut avant modification
+     * @param task Tâche après modification
+     */
+    void update(String oldPriority, Long oldDueDate, String oldStatus, Task task) {
+        Date dueDate = task.getDueDate();
+        boolean wasIncomplete = Task.isIncomplete(oldStatus);
+        boolean incomplete = Task.isIncomplete(task.getStatus());
+        if (wasIncomplete == incomplete && Objects.equals(oldPriority, task.getPriority())
+                && Objects.equals(oldDueDate, dueDate != null ? dueDate.getTime() : null)) {
+            return;
+        }
+        if (wasIncomplete) {
+            entries.remove(new Entry(oldPriority, oldDueDate != null ? new Date(oldDueDate) : null,
+                    task.getCreatedAt(), task.getId()));
+        }
+        if (incomplete) {
+            entries.add(entry(task));
+        }
+    }
+
+    /**
+     * Retire des tâches supprimées de l'index
+     * @param tasks Tâches supprimées, dans leur dernier état
+     */
+    void removeAll(Collection<Task> tasks) {
+        for (Task task : tasks) {
+            entries.remove(entry(task));
+        }
+    }
+
+    /**
+     * @param k Nombre de tâches voulues
+     * @return IDs des k tâches à faire les plus urgentes, de la plus urgente à la moins urgente
+     */
+    List<Long> top(int k) {
+        List<Long> ids = new ArrayList<>(Math.min(k, 64));
+        Iterator<Entry> it = entries.iterator();
+        while (ids.size() < k && it.hasNext()) {
+            ids.add(it.next().id);
+        }
+        return ids;
+    }
+
+    private static Entry entry(Task task) {
+        return new Entry(task.getPriority(), task.getDueDate(), task.getCreatedAt(), task.getId());
+    }
+
+    /**
+     * @return Rang de la priorité, la plus urgente d'abord ; les priorités inconnues en dernier
+     */
+    private static int rank(String priority) {
+        if (Task.PRIORITY_HIGH.equals(priority)) {
+            return 0;
+        }
+        if (Task.PRIORITY_MEDIUM.equals(priority)) {
+            return 1;
+        }
+        return Task.PRIORITY_LOW.equals(priority) ? 2 : 3;
+    }
+}
@@ -0,0 +1,313 @@
+package com.todolist.service;
+
+import com.todolist.model.Task;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Index inversé plein texte sur le libellé et la description des tâches.
+ * <p>
+ * Les textes sont découpés en mots, mis en minuscules et débarrassés de leurs
+ * accents ("Réviser l'été" donne "reviser" et "ete") ; les mots vides français
+ * courants ne sont ni indexés ni recherchés : une requête qui n'en contient
+ * pas d'autres ne trouve rien. Chaque mot indexé pointe vers deux bitmaps
+ * d'IDs sur 64 bits, quel que soit le stockage qui les alloue, l'une pour les libellés, l'autre pour les descriptions. Le dictionnaire
+ * étant trié, un mot recherché correspond à tous les mots indexés qui commencent par lui.
+ */
+class TaskSearchIndex {
+
+    /** Résultat d'une recherche : IDs de la page demandée, par pertinence décroissante */
+    static final class Hits {
+        private final long[] ids;
+        private final int total;
+
+        Hits(long[] ids, int total) {
+            this.ids = ids;
+            this.total = total;
+        }
+
+        long[] getIds() {
+            return ids;
+        }
+
+        /** @return Nombre total de tâches correspondantes */
+        int getTotal() {
+            return total;
+        }
+    }
+
+    /** Résultat en cours de classement */
+    private static final class Scored {
+        final double score;
+        final long id;
+
+        Scored(double score, long id) {
+            this.score = score;
+            this.id = id;
+        }
+    }
+
+    private static final class Postings {
+        final Roaring64Bitmap label = new Roaring64Bitmap();
+        final Roaring64Bitmap description = new Roaring64Bitmap();
+
+        boolean isEmpty() {
+            return label.isEmpty() && description.isEmpty();
+        }
+    }
+
+    // Un mot trouvé dans le libellé compte plus qu'un mot de la description,
+    // un mot entier plus qu'un préfixe
+    private static final double LABEL_WEIGHT = 2.0;
+    private static final double PREFIX_WEIGHT = 0.5;
+    // Longueur minimale d'un mot recherché pour l'étendre aux mots qui le prolongent
+    private static final int MIN_PREFIX_LENGTH = 2;
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+            "a", "au", "aux", "avec", "ce", "ces", "d", "dans", "de", "des", "du", "en", "et", "il", "j",
+            "l", "la", "le", "les", "m", "n", "ne", "ou", "par", "pas", "pour", "qu", "que", "qui", "s",
+            "sa", "se", "ses", "son", "sur", "t", "un", "une"));
+
+    private final NavigableMap<String, Postings> terms = new TreeMap<>();
+    private final Roaring64Bitmap documents = new Roaring64Bitmap();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Indexe une nouvelle tâche
+     * @param task Tâche avec son ID
+     */
+    void add(Task task) {
+        addAll(List.of(task));
+    }
+
+    /**
+     * Indexe un lot de nouvelles tâches sous un seul verrou
+     * @param tasks Tâches avec leur ID
+     */
+    void addAll(Collection<Task> tasks) {
+        lock.writeLock().lock();
+        try {
+            for (Task task : tasks) {
+                long id = task.getId();
+                insert(id, task.getLabel(), task.getDescription());
+                documents.addLong(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Réindexe une tâche dont le texte a pu changer ; sans effet sinon
+     * @param id ID de la tâche
+     * @param oldLabel Libellé avant modification
+     * @param oldDescription Description avant modification
+     * @param task Tâche après modification
+     */
+    void update(long id, String oldLabel, String oldDescription, Task task) {
+        if (Objects.equals(oldLabel, task.getLabel()) && Objects.equals(oldDescription, task.getDescription())) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            delete(id, oldLabel, oldDescription);
+            insert(id, task.getLabel(), task.getDescription());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retire des tâches supprimées de l'index
+     * @param tasks Tâches supprimées, dans leur dernier état
+     */
+    void removeAll(Collection<Task> tasks) {
+        lock.writeLock().lock();
+        try {
+            for (Task task : tasks) {
+                long id = task.getId();
+                delete(id, task.getLabel(), task.getDescription());
+                documents.removeLong(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recherche les tâches contenant tous les mots d'une requête, chacun en entier
+     * ou comme début d'un mot. Les tâches sont classées par score décroissant, puis
+     * par ID ; le score somme, pour chaque mot recherché, sa rareté (idf) pondérée
+     * selon qu'il apparaît dans le libellé et en entier.
+     * @param query Texte recherché
+     * @param offset Nombre de résultats à sauter
+     * @param limit Nombre maximal de résultats
+     * @return Page de résultats
+     */
+    Hits search(String query, int offset, int limit) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty()) {
+            return new Hits(new long[0], 0);
+        }
+        lock.readLock().lock();
+        try {
+            int count = words.size();
+            Roaring64Bitmap[] labelMatches = new Roaring64Bitmap[count];
+            Roaring64Bitmap[] exactMatches = new Roaring64Bitmap[count];
+            double[] idf = new double[count];
+            Roaring64Bitmap candidates = null;
+            for (int i = 0; i < count; i++) {
+                String word = words.get(i);
+                Roaring64Bitmap label = new Roaring64Bitmap();
+                Roaring64Bitmap description = new Roaring64Bitmap();
+                for (Postings postings : expand(word)) {
+                    label.or(postings.label);
+                    description.or(postings.description);
+                }
+                Postings exact = terms.get(word);
+                Roaring64Bitmap matches = union(label, description);
+                labelMatches[i] = label;
+                exactMatches[i] = exact != null ? union(exact.label, exact.description) : new Roaring64Bitmap();
+                idf[i] = Math.log(1.0 + (double) documents.getLongCardinality() / Math.max(1, matches.getLongCardinality()));
+                if (candidates == null) {
+                    candidates = matches;
+                } else {
+                    candidates.and(matches);
+                }
+                if (candidates.isEmpty()) {
+                    return new Hits(new long[0], 0);
+                }
+            }
+            return rank(candidates, labelMatches, exactMatches, idf, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Garde les {@code offset + limit} meilleurs résultats dans un tas, sans trier
+     * l'ensemble des tâches correspondantes
+     */
+    private static Hits rank(Roaring64Bitmap candidates, Roaring64Bitmap[] labelMatches, Roaring64Bitmap[] exactMatches,
+                             double[] idf, int offset, int limit) {
+        int total = (int) candidates.getLongCardinality();
+        int wanted = (int) Math.min((long) offset + limit, total);
+        if (offset >= total || wanted == 0) {
+            return new Hits(new long[0], total);
+        }
+        // Tas du moins bon en tête : score croissant, puis ID décroissant
+        PriorityQueue<Scored> best = new PriorityQueue<>(wanted, (a, b) ->
+                a.score != b.score ? Double.compare(a.score, b.score) : Long.compare(b.id, a.id));
+        LongIterator it = candidates.getLongIterator();
+        while (it.hasNext()) {
+            long id = it.next();
+            double score = 0;
+            for (int i = 0; i < idf.length; i++) {
+                double weight = labelMatches[i].contains(id) ? LABEL_WEIGHT : 1.0;
+                score += idf[i] * weight * (exactMatches[i].contains(id) ? 1.0 : PREFIX_WEIGHT);
+            }
+            if (best.size() < wanted) {
+                best.add(new Scored(score, id));
+            } else if (score > best.peek().score) {
+                best.poll();
+                best.add(new Scored(score, id));
+            }
+        }
+        long[] ranked = new long[best.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = best.poll().id;
+        }
+        return new Hits(Arrays.copyOfRange(ranked, offset, ranked.length), total);
+    }
+
+    /**
+     * @return Postings du mot et, s'il est assez long, de tous les mots indexés qui le prolongent
+     */
+    private Collection<Postings> expand(String word) {
+        if (word.length() < MIN_PREFIX_LENGTH) {
+            Postings exact = terms.get(word);
+            return exact != null ? List.of(exact) : List.of();
+        }
+        return terms.subMap(word, true, word + Character.MAX_VALUE, false).values();
+    }
+
+    private void insert(long id, String label, String description) {
+        for (String term : tokenize(label)) {
+            terms.computeIfAbsent(term, key -> new Postings()).label.addLong(id);
+        }
+        for (String term : tokenize(description)) {
+            terms.computeIfAbsent(term, key -> new Postings()).description.addLong(id);
+        }
+    }
+
+    private void delete(long id, String label, String description) {
+        for (String term : tokenize(label)) {
+            Postings postings = terms.get(term);
+            if (postings != null) {
+                postings.label.removeLong(id);
+                removeIfEmpty(term, postings);
+            }
+        }
+        for (String term : tokenize(description)) {
+            Postings postings = terms.get(term);
+            if (postings != null) {
+                postings.description.removeLong(id);
+                removeIfEmpty(term, postings);
+            }
+        }
+    }
+
+    private void removeIfEmpty(String term, Postings postings) {
+        if (postings.isEmpty()) {
+            terms.remove(term);
+        }
+    }
+
+    /**
+     * Découpe un texte en mots normalisés (minuscules, sans accents ni ligatures),
+     * sans doublons ni mots vides
+     * @param text Texte à découper, éventuellement null
+     * @return Mots dans l'ordre de première apparition
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT)
+                .replace("œ", "oe")
+                .replace("æ", "ae");
+        Set<String> words = new LinkedHashSet<>();
+        for (String word : SEPARATORS.split(folded)) {
+            if (!word.isEmpty() && !STOP_WORDS.contains(word)) {
+                words.add(word);
+            }
+        }
+        return new ArrayList<>(words);
+    }
+
+    private static Roaring64Bitmap union(Roaring64Bitmap first, Roaring64Bitmap second) {
+        Roaring64Bitmap union = first.clone();
+        union.or(second);
+        return union;
+    }
+}
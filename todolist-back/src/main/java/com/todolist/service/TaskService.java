@@ -1,13 +1,34 @@
 package com.todolist.service;
 
+import com.todolist.model.BulkStatusUpdate;
 import com.todolist.model.Task;
+import com.todolist.model.TaskChanges;
+import com.todolist.model.TaskPage;
+import com.todolist.model.TaskPatch;
+import com.todolist.model.TaskSearchPage;
+import com.todolist.model.TaskStatistics;
+import com.todolist.repository.InMemoryTaskRepository;
+import com.todolist.repository.TaskRepository;
+import com.todolist.repository.TaskWriteTracker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import javax.annotation.PostConstruct;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 /**
  * Service pour gérer les opérations sur les tâches
@@ -15,21 +36,72 @@ import java.util.stream.Collectors;
 @Service
 public class TaskService {
 
-    // Données en mémoire pour simuler une base de données
-    private List<Task> tasks = new ArrayList<>() {{
-        add(new Task(1L, "Faire les courses", "Acheter du pain et du lait", Task.STATUS_PENDING));
-        add(new Task(2L, "Appeler le médecin", "Prendre rendez-vous pour la semaine prochaine", Task.STATUS_COMPLETED));
-        add(new Task(3L, "Réviser pour l'examen", "Chapitres 1 à 5", Task.STATUS_PENDING));
-        add(new Task(4L, "Faire du sport", "30 minutes de jogging", Task.STATUS_PENDING));
-    }};
-    private Long nextId = 5L;
+    static final String TRANSITIONS_METRIC = "todolist.tasks.status.transitions";
+    static final String STORED_METRIC = "todolist.tasks.stored";
+    // Nombre de tâches lues à la fois pour construire les index au démarrage
+    private static final int INDEX_LOAD_BATCH_SIZE = 10_000;
+    // Nombre de modifications conservées pour la synchronisation incrémentale des clients
+    static final int CHANGE_LOG_CAPACITY = 100_000;
+    // Valeur des tags pour un statut absent ou non standard
+    private static final String NO_STATUS = "none";
+    private static final String OTHER_STATUS = "other";
+
+    // Stockage des tâches (en mémoire ou JDBC selon la configuration)
+    private final TaskRepository repository;
+    private final MeterRegistry meterRegistry;
+    // Compteurs de changements de statut, par couple "ancien>nouveau"
+    private final ConcurrentMap<String, Counter> transitions = new ConcurrentHashMap<>();
+    // Index plein texte, maintenu par les méthodes de modification du service
+    private final TaskSearchIndex searchIndex = new TaskSearchIndex();
+    // Index des tâches par échéance
+    private final TaskDueDateIndex dueDateIndex = new TaskDueDateIndex();
+    // Tâches à faire classées par urgence
+    private final TaskNextUpIndex nextUpIndex = new TaskNextUpIndex();
+    // Dernières modifications, numérotées, pour la synchronisation incrémentale
+    private final TaskChangeLog changeLog = new TaskChangeLog(CHANGE_LOG_CAPACITY);
+    // Versions des listes filtrées, incrémentées seulement pour les filtres concernés
+    private final TaskListVersions listVersions = new TaskListVersions();
+    // Version de l'ensemble des tâches, incrémentée une fois chaque modification visible
+    private final AtomicLong storeVersion = new AtomicLong();
+    // Distingue les versions de deux démarrages successifs
+    private final long generation = System.currentTimeMillis();
+
+    public TaskService() {
+        this(new InMemoryTaskRepository());
+    }
+
+    public TaskService(TaskRepository repository) {
+        this(repository, Metrics.globalRegistry);
+    }
+
+    /**
+     * Crée le service ; les tâches d'exemple ne sont créées que si le stockage
+     * ne contenait encore aucune donnée
+     * @param repository Stockage des tâches
+     * @param meterRegistry Registre des métriques du service
+     */
+    @Autowired
+    public TaskService(TaskRepository repository, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder(STORED_METRIC, repository, TaskRepository::count)
+                .description("Nombre de tâches stockées")
+                .register(meterRegistry);
+        loadIndexes();
+        if (repository.isNewStore()) {
+            addTask(new Task(null, "Faire les courses", "Acheter du pain et du lait", Task.STATUS_PENDING));
+            addTask(new Task(null, "Appeler le médecin", "Prendre rendez-vous pour la semaine prochaine", Task.STATUS_COMPLETED));
+            addTask(new Task(null, "Réviser pour l'examen", "Chapitres 1 à 5", Task.STATUS_PENDING));
+            addTask(new Task(null, "Faire du sport", "30 minutes de jogging", Task.STATUS_PENDING));
+        }
+    }
 
     /**
      * Récupère toutes les tâches
-     * @return Liste de toutes les tâches
+     * @return Liste de toutes les tâches, triées par ID (ordre de création)
      */
     public List<Task> getAllTasks() {
-        return new ArrayList<>(tasks);
+        return repository.findAll();
     }
 
     /**
@@ -37,10 +109,39 @@ public class TaskService {
      * @return Liste des tâches à effectuer
      */
     public List<Task> getIncompleteTasks() {
-        return tasks.stream()
-                .filter(task -> !Task.STATUS_COMPLETED.equals(task.getStatus()) && 
-                         !Task.STATUS_CANCELLED.equals(task.getStatus()))
-                .collect(Collectors.toList());
+        return repository.findIncomplete();
+    }
+
+    /**
+     * Récupère les tâches correspondant à un statut et/ou une priorité
+     * @param status Statut recherché, ou null pour ne pas filtrer
+     * @param priority Priorité recherchée, ou null pour ne pas filtrer
+     * @return Liste des tâches correspondantes, triées par ID
+     */
+    public List<Task> getTasks(String status, String priority) {
+        return repository.findByStatusAndPriority(status, priority);
+    }
+
+    /**
+     * Récupère une page de tâches, éventuellement filtrées par statut et/ou priorité
+     * @param status Statut recherché, ou null pour ne pas filtrer
+     * @param priority Priorité recherchée, ou null pour ne pas filtrer
+     * @param afterId ID après lequel reprendre (exclu), ou 0 pour la première page
+     * @param limit Taille maximale de la page
+     * @return Page de tâches triées par ID
+     */
+    public TaskPage getTasksPage(String status, String priority, long afterId, int limit) {
+        return repository.findPage(status, priority, afterId, limit);
+    }
+
+    /**
+     * Récupère une page de tâches non complétées
+     * @param afterId ID après lequel reprendre (exclu), ou 0 pour la première page
+     * @param limit Taille maximale de la page
+     * @return Page de tâches à effectuer triées par ID
+     */
+    public TaskPage getIncompleteTasksPage(long afterId, int limit) {
+        return repository.findIncompletePage(afterId, limit);
     }
 
     /**
@@ -49,9 +150,10 @@ public class TaskService {
      * @return Tâche correspondante ou vide si non trouvée
      */
     public Optional<Task> getTaskById(Long id) {
-        return tasks.stream()
-                .filter(task -> task.getId().equals(id))
-                .findFirst();
+        if (id == null) {
+            return Optional.empty();
+        }
+        return repository.findById(id);
     }
 
     /**
@@ -60,9 +162,24 @@ public class TaskService {
      * @return Tâche ajoutée avec son ID
      */
     public Task addTask(Task task) {
-        task.setId(nextId++);
-        tasks.add(task);
-        return task;
+        Task added = repository.insert(task, new Tracker());
+        listVersions.changed(listVersions.mask(List.of(added)));
+        storeVersion.incrementAndGet();
+        return added;
+    }
+
+    /**
+     * Ajoute un lot de tâches
+     * @param newTasks Tâches à ajouter (sans ID)
+     * @return Tâches ajoutées avec leur ID, dans le même ordre
+     */
+    public List<Task> addTasks(List<Task> newTasks) {
+        List<Task> added = repository.insertAll(newTasks, new Tracker());
+        if (!added.isEmpty()) {
+            listVersions.changed(listVersions.mask(added));
+            storeVersion.incrementAndGet();
+        }
+        return added;
     }
 
     /**
@@ -72,9 +189,41 @@ public class TaskService {
      * @return Tâche mise à jour ou vide si non trouvée
      */
     public Optional<Task> updateTaskStatus(Long id, String status) {
-        Optional<Task> taskOpt = getTaskById(id);
-        taskOpt.ifPresent(task -> task.setStatus(status));
-        return taskOpt;
+        return updateTaskStatus(id, status, null);
+    }
+
+    /**
+     * Met à jour le statut d'une tâche si elle est toujours dans la version attendue
+     * @param id ID de la tâche
+     * @param status Nouveau statut (pending, in-progress, completed, cancelled)
+     * @param expectedVersion Version attendue, ou null pour ne pas vérifier
+     * @return Tâche mise à jour ou vide si non trouvée
+     * @throws TaskVersionConflictException si la tâche a changé de version
+     */
+    public Optional<Task> updateTaskStatus(Long id, String status, Long expectedVersion) {
+        return mutate(id, expectedVersion, task -> task.setStatus(status));
+    }
+
+    /**
+     * Met à jour le statut d'un lot de tâches
+     * @param updates Couples ID / nouveau statut
+     * @return Pour chaque mise à jour, dans le même ordre, la tâche modifiée ou vide si non trouvée
+     */
+    public List<Optional<Task>> updateTaskStatuses(List<BulkStatusUpdate> updates) {
+        List<Long> ids = new ArrayList<>(updates.size());
+        List<Consumer<Task>> mutations = new ArrayList<>(updates.size());
+        for (BulkStatusUpdate update : updates) {
+            String status = update.getStatus();
+            ids.add(update.getId());
+            mutations.add(task -> task.setStatus(status));
+        }
+        Tracker tracker = new Tracker();
+        List<Optional<Task>> results = repository.updateAll(ids, mutations, tracker);
+        listVersions.changed(tracker.touched.get());
+        if (results.stream().anyMatch(Optional::isPresent)) {
+            storeVersion.incrementAndGet();
+        }
+        return results;
     }
 
     /**
@@ -85,12 +234,10 @@ public class TaskService {
      */
     @Deprecated(since = "1.0.0", forRemoval = true)
     public Optional<Task> updateTaskCompletionStatus(Long id, boolean completed) {
-        Optional<Task> taskOpt = getTaskById(id);
-        taskOpt.ifPresent(task -> {
+        return mutate(id, null, task -> {
             String newStatus = completed ? Task.STATUS_COMPLETED : Task.STATUS_PENDING;
             task.setStatus(newStatus);
         });
-        return taskOpt;
     }
 
     /**
@@ -100,9 +247,21 @@ public class TaskService {
      * @return La tâche mise à jour, ou vide si non trouvée
      */
     public Optional<Task> updateTask(Long id, Task updatedTask) {
-        Optional<Task> taskOpt = getTaskById(id);
-        
-        taskOpt.ifPresent(task -> {
+        return updateTask(id, updatedTask, null);
+    }
+
+    /**
+     * Met à jour une tâche existante si elle est toujours dans la version attendue.
+     * Tous les champs sont modifiés ensemble : une lecture concurrente voit la
+     * tâche d'avant ou d'après, jamais une mise à jour partielle.
+     * @param id Identifiant de la tâche
+     * @param updatedTask Nouvelles données de la tâche
+     * @param expectedVersion Version attendue, ou null pour ne pas vérifier
+     * @return La tâche mise à jour, ou vide si non trouvée
+     * @throws TaskVersionConflictException si la tâche a changé de version
+     */
+    public Optional<Task> updateTask(Long id, Task updatedTask, Long expectedVersion) {
+        return mutate(id, expectedVersion, task -> {
             task.setLabel(updatedTask.getLabel());
             task.setDescription(updatedTask.getDescription());
             task.setStatus(updatedTask.getStatus());
@@ -121,21 +280,346 @@ public class TaskService {
             
             // La date de mise à jour est automatiquement gérée par les setters
         });
-        
-        return taskOpt;
     }
-    
+
+    /**
+     * Applique un patch de fusion (RFC 7396) à une tâche, en une seule
+     * modification sous le verrou de la tâche : seuls les champs du patch
+     * changent, et une modification concurrente d'autres champs est conservée.
+     * Un patch vide ne modifie rien et ne change pas la version.
+     * @param id Identifiant de la tâche
+     * @param patch Champs à modifier
+     * @param expectedVersion Version attendue, ou null pour ne pas vérifier
+     * @return La tâche modifiée, ou vide si non trouvée
+     * @throws TaskVersionConflictException si la tâche a changé de version
+     */
+    public Optional<Task> patchTask(Long id, TaskPatch patch, Long expectedVersion) {
+        if (!patch.isEmpty()) {
+            return mutate(id, expectedVersion, patch::applyTo);
+        }
+        Optional<Task> task = getTaskById(id);
+        if (expectedVersion != null && task.isPresent() && task.get().getVersion() != expectedVersion) {
+            throw new TaskVersionConflictException(id, expectedVersion, task.get().getVersion());
+        }
+        return task;
+    }
+
     /**
      * Supprime une tâche par son ID
      * @param id ID de la tâche à supprimer
      * @return true si la tâche a été supprimée, false si elle n'a pas été trouvée
      */
     public boolean deleteTask(Long id) {
-        Optional<Task> taskOpt = getTaskById(id);
-        if (taskOpt.isPresent()) {
-            tasks.removeIf(task -> task.getId().equals(id));
-            return true;
+        if (id == null) {
+            return false;
+        }
+        Optional<Task> deleted = repository.delete(id, new Tracker());
+        deleted.ifPresent(task -> {
+            listVersions.changed(listVersions.mask(List.of(task)));
+            storeVersion.incrementAndGet();
+        });
+        return deleted.isPresent();
+    }
+
+    /**
+     * Supprime un lot de tâches
+     * @param ids IDs des tâches à supprimer
+     * @return Pour chaque ID, dans le même ordre, true si la tâche a été supprimée
+     */
+    public List<Boolean> deleteTasks(List<Long> ids) {
+        List<Optional<Task>> deleted = repository.deleteAll(ids, new Tracker());
+        List<Task> removed = new ArrayList<>(deleted.size());
+        List<Boolean> results = new ArrayList<>(deleted.size());
+        for (Optional<Task> task : deleted) {
+            task.ifPresent(removed::add);
+            results.add(task.isPresent());
+        }
+        if (!removed.isEmpty()) {
+            listVersions.changed(listVersions.mask(removed));
+            storeVersion.incrementAndGet();
+        }
+        return results;
+    }
+
+    /**
+     * Recherche plein texte dans le libellé et la description des tâches,
+     * sans tenir compte de la casse ni des accents. Chaque mot recherché peut
+     * n'être que le début d'un mot de la tâche.
+     * @param query Texte recherché
+     * @param offset Nombre de résultats à sauter
+     * @param limit Nombre maximal de résultats
+     * @return Page de tâches par pertinence décroissante, avec le nombre total de résultats
+     */
+    public TaskSearchPage searchTasks(String query, int offset, int limit) {
+        TaskSearchIndex.Hits hits = searchIndex.search(query, offset, limit);
+        List<Task> tasks = new ArrayList<>(hits.getIds().length);
+        for (long id : hits.getIds()) {
+            repository.findById(id).ifPresent(tasks::add);
+        }
+        return new TaskSearchPage(tasks, hits.getTotal());
+    }
+
+    /**
+     * Récupère les tâches à faire dont l'échéance est dépassée
+     * @return Tâches en retard, de la plus ancienne échéance à la plus récente
+     */
+    public List<Task> getOverdueTasks() {
+        return resolve(dueDateIndex.between(null, new Date(), true));
+    }
+
+    /**
+     * Récupère les tâches à faire dont l'échéance tombe dans un délai donné
+     * @param within Délai à partir de maintenant
+     * @return Tâches à échéance entre maintenant (inclus) et la fin du délai (exclue), par échéance croissante
+     */
+    public List<Task> getTasksDueWithin(Duration within) {
+        Date now = new Date();
+        return resolve(dueDateIndex.between(now, new Date(now.getTime() + within.toMillis()), true));
+    }
+
+    /**
+     * Récupère les tâches dont l'échéance est dans un intervalle
+     * @param from Début de l'intervalle (inclus), ou null pour ne pas borner
+     * @param to Fin de l'intervalle (exclue), ou null pour ne pas borner
+     * @param incompleteOnly true pour ne garder que les tâches à faire
+     * @return Tâches par échéance croissante, puis par ID
+     */
+    public List<Task> getTasksDueBetween(Date from, Date to, boolean incompleteOnly) {
+        return resolve(dueDateIndex.between(from, to, incompleteOnly));
+    }
+
+    /**
+     * Identifie l'état courant de l'ensemble des tâches. Il change après chaque
+     * ajout, modification ou suppression (une fois celle-ci visible des lectures),
+     * ainsi qu'à chaque démarrage : un résultat lu après cet identifiant est au
+     * moins aussi récent que lui.
+     * @return Identifiant opaque, utilisable comme ETag
+     */
+    public String getStoreVersionTag() {
+        return generation + "." + storeVersion.get();
+    }
+
+    /**
+     * Version de la liste des tâches correspondant à un filtre : elle ne change
+     * qu'après l'ajout, la modification ou la suppression d'une tâche que le
+     * filtre contient ou contenait. Une liste lue après cette version est au
+     * moins aussi récente qu'elle.
+     * @param status Statut filtré, ou null pour tous
+     * @param priority Priorité filtrée, ou null pour toutes
+     * @return Version, croissante au cours d'un même démarrage
+     */
+    public long getListVersion(String status, String priority) {
+        return listVersions.version(status, priority);
+    }
+
+    /**
+     * @return Version de la liste des tâches non complétées, comme {@link #getListVersion}
+     */
+    public long getIncompleteListVersion() {
+        return listVersions.incompleteVersion();
+    }
+
+    /**
+     * Identifie l'état d'une tâche, d'après sa version
+     * @param task Tâche stockée
+     * @return Identifiant opaque, utilisable comme ETag
+     */
+    public String getVersionTag(Task task) {
+        return generation + "." + task.getId() + "." + task.getVersion();
+    }
+
+    /**
+     * Récupère les tâches à faire les plus urgentes : priorité la plus haute,
+     * puis échéance la plus proche, puis création la plus ancienne
+     * @param k Nombre maximal de tâches
+     * @return Tâches de la plus urgente à la moins urgente
+     */
+    public List<Task> getNextTasks(int k) {
+        return resolve(nextUpIndex.top(k));
+    }
+
+    /**
+     * Calcule les statistiques de toutes les tâches : nombre par statut et par
+     * priorité, tâches en retard et total des Pomodoros
+     * @return Statistiques à l'instant présent
+     */
+    public TaskStatistics getStatistics() {
+        return repository.statistics(new Date());
+    }
+
+    /**
+     * Récupère les modifications faites depuis un numéro de séquence : créations,
+     * modifications et suppressions, avec l'état de la tâche après chacune
+     * @param since Numéro de la dernière modification déjà connue
+     * @param limit Nombre maximal de modifications
+     * @return Modifications dans l'ordre où elles ont été faites, ou demande de
+     * resynchronisation complète si elles ne sont plus toutes conservées
+     */
+    public TaskChanges getChanges(long since, int limit) {
+        return changeLog.since(since, limit);
+    }
+
+    /**
+     * Demande à être prévenu de chaque modification enregistrée, pour la lire
+     * ensuite par {@link #getChanges}
+     * @param listener Action exécutée sur le thread qui a fait la modification,
+     * parfois sous le verrou de la tâche : elle doit être brève et ne jamais bloquer
+     */
+    public void addChangeListener(Runnable listener) {
+        changeLog.addListener(listener);
+    }
+
+    /**
+     * Relit la version d'une tâche dans un identifiant produit par {@link #getVersionTag}
+     * @param id ID de la tâche visée
+     * @param versionTag Identifiant fourni par le client
+     * @return Version, ou vide si l'identifiant ne désigne pas cette tâche ou date d'un démarrage précédent
+     */
+    public OptionalLong getVersionFromTag(Long id, String versionTag) {
+        if (id == null) {
+            return OptionalLong.empty();
+        }
+        String prefix = generation + "." + id + ".";
+        if (!versionTag.startsWith(prefix)) {
+            return OptionalLong.empty();
+        }
+        try {
+            return OptionalLong.of(Long.parseLong(versionTag.substring(prefix.length())));
+        } catch (NumberFormatException e) {
+            return OptionalLong.empty();
+        }
+    }
+
+    /**
+     * Applique une modification à une tâche existante
+     * @param id ID de la tâche
+     * @param expectedVersion Version attendue, ou null pour ne pas vérifier
+     * @param mutation Modification à appliquer
+     * @return Tâche modifiée ou vide si non trouvée
+     * @throws TaskVersionConflictException si la tâche a changé de version
+     */
+    private Optional<Task> mutate(Long id, Long expectedVersion, Consumer<Task> mutation) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        Consumer<Task> checked = expectedVersion == null ? mutation : task -> {
+            // Vérifiée sous le verrou de la tâche : la version ne peut plus changer avant l'écriture
+            if (task.getVersion() != expectedVersion) {
+                throw new TaskVersionConflictException(id, expectedVersion, task.getVersion());
+            }
+            mutation.accept(task);
+        };
+        Tracker tracker = new Tracker();
+        Optional<Task> updated = repository.update(id, checked, tracker);
+        listVersions.changed(tracker.touched.get());
+        updated.ifPresent(task -> storeVersion.incrementAndGet());
+        return updated;
+    }
+
+    /**
+     * Construit les index du service à partir des tâches déjà stockées
+     */
+    private void loadIndexes() {
+        long afterId = 0L;
+        TaskPage page;
+        do {
+            page = repository.findPage(null, null, afterId, INDEX_LOAD_BATCH_SIZE);
+            index(page.getTasks());
+            if (page.getLastId() != null) {
+                afterId = page.getLastId();
+            }
+        } while (page.hasMore());
+    }
+
+    private void index(List<Task> tasks) {
+        searchIndex.addAll(tasks);
+        dueDateIndex.addAll(tasks);
+        nextUpIndex.addAll(tasks);
+    }
+
+    private void unindex(List<Task> tasks) {
+        searchIndex.removeAll(tasks);
+        dueDateIndex.removeAll(tasks);
+        nextUpIndex.removeAll(tasks);
+    }
+
+    /**
+     * @return Tâches encore présentes parmi les IDs donnés, dans le même ordre
+     */
+    private List<Task> resolve(List<Long> ids) {
+        List<Task> tasks = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            repository.findById(id).ifPresent(tasks::add);
+        }
+        return tasks;
+    }
+
+    private Counter transitionCounter(String from, String to) {
+        return transitions.computeIfAbsent(from + '>' + to, key -> Counter.builder(TRANSITIONS_METRIC)
+                .description("Nombre de changements de statut des tâches")
+                .tag("from", from)
+                .tag("to", to)
+                .register(meterRegistry));
+    }
+
+    /**
+     * Borne le nombre de valeurs des tags aux statuts connus
+     */
+    private static String statusTag(String status) {
+        if (status == null) {
+            return NO_STATUS;
+        }
+        switch (status) {
+            case Task.STATUS_PENDING:
+            case Task.STATUS_IN_PROGRESS:
+            case Task.STATUS_COMPLETED:
+            case Task.STATUS_CANCELLED:
+                return status;
+            default:
+                return OTHER_STATUS;
+        }
+    }
+
+    /**
+     * Suivi des écritures d'un appel au service : met à jour les index du
+     * service, consigne chaque écriture dans le journal des modifications et
+     * compte les changements de statut. Appelé par le stockage sous le verrou
+     * de chaque tâche, il ordonne les mises à jour des index et du journal comme
+     * les écritures. Les groupes de listes modifiés sont seulement notés : leurs
+     * versions ne changent qu'une fois l'écriture faite.
+     */
+    private final class Tracker implements TaskWriteTracker {
+
+        // Masque des groupes de listes touchés par les modifications de l'appel
+        final AtomicInteger touched = new AtomicInteger();
+
+        @Override
+        public void inserted(List<Task> tasks) {
+            index(tasks);
+            changeLog.inserted(tasks);
+        }
+
+        @Override
+        public void updated(Task previous, Task task) {
+            String oldStatus = previous.getStatus();
+            String oldPriority = previous.getPriority();
+            Long oldDueDate = TaskDueDateIndex.millis(previous.getDueDate());
+            int groups = listVersions.mask(oldStatus, oldPriority) | listVersions.mask(task.getStatus(), task.getPriority());
+            touched.accumulateAndGet(groups, (a, b) -> a | b);
+            changeLog.updated(task, task.getVersion());
+            searchIndex.update(task.getId(), previous.getLabel(), previous.getDescription(), task);
+            dueDateIndex.update(task.getId(), oldDueDate, oldStatus, task);
+            nextUpIndex.update(oldPriority, oldDueDate, oldStatus, task);
+            String status = task.getStatus();
+            if (!Objects.equals(oldStatus, status)) {
+                transitionCounter(statusTag(oldStatus), statusTag(status)).increment();
+            }
+        }
+
+        @Override
+        public void deleted(List<Task> tasks) {
+            unindex(tasks);
+            changeLog.deleted(tasks);
         }
-        return false;
     }
 }
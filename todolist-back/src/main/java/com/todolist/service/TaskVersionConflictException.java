@@ -0,0 +1,31 @@
+package com.todolist.service;
+
+/**
+ * Levée lorsqu'une modification conditionnelle vise une version de la tâche
+ * qui n'est plus la version courante
+ */
+public class TaskVersionConflictException extends RuntimeException {
+
+    private final long id;
+    private final long expectedVersion;
+    private final long currentVersion;
+
+    public TaskVersionConflictException(long id, long expectedVersion, long currentVersion) {
+        super("Tâche " + id + " : version " + expectedVersion + " attendue, version " + currentVersion + " trouvée");
+        this.id = id;
+        this.expectedVersion = expectedVersion;
+        this.currentVersion = currentVersion;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getExpectedVersion() {
+        return expectedVersion;
+    }
+
+    public long getCurrentVersion() {
+        return currentVersion;
+    }
+}
@@ -0,0 +1,242 @@
+package com.todolist.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.todolist.config.ReactiveConfig;
+import com.todolist.model.Task;
+import com.todolist.model.TaskPage;
+import com.todolist.model.TaskStatusUpdate;
+import com.todolist.service.ReactiveTaskService;
+import com.todolist.service.TaskService;
+import com.todolist.service.TaskVersionConflictException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ReactiveTaskController.class)
+@Import({ReactiveTaskService.class, ReactiveConfig.class, TaskResponseCache.class, TaskFragmentCache.class})
+class ReactiveTaskControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private TaskService taskService;
+
+    @Autowired
+    private TaskResponseCache responseCache;
+
+    @Autowired
+    private TaskFragmentCache fragmentCache;
+
+    private Task task1;
+    private Task task2;
+    private Task task3;
+
+    @BeforeEach
+    void setUp() {
+        // The mocked service always reports the same store version
+        responseCache.clear();
+        fragmentCache.clear();
+        when(taskService.getStoreVersionTag()).thenReturn("1.7");
+        task1 = new Task.Builder(1L, "Faire les courses")
+                .status(Task.STATUS_PENDING)
+                .priority(Task.PRIORITY_MEDIUM)
+                .build();
+        task2 = new Task.Builder(2L, "Réviser pour l'examen")
+                .status(Task.STATUS_PENDING)
+                .priority(Task.PRIORITY_HIGH)
+                .build();
+        task3 = new Task.Builder(3L, "Appeler le médecin")
+                .status(Task.STATUS_COMPLETED)
+                .priority(Task.PRIORITY_LOW)
+                .build();
+    }
+
+    @Test
+    void getAllTasks_shouldStreamJsonArray() {
+        when(taskService.getTasksPage(isNull(), isNull(), eq(0L), anyInt()))
+                .thenReturn(new TaskPage(Arrays.asList(task1, task2, task3), 3L, false));
+
+        webTestClient.get().uri("/api/tasks")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1.7\"")
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(3)
+                .jsonPath("$[0].id").isEqualTo(1)
+                .jsonPath("$[0].label").isEqualTo("Faire les courses")
+                .jsonPath("$[2].id").isEqualTo(3);
+    }
+
+    @Test
+    void getAllTasks_withCurrentETag_shouldReturn304WithoutReadingTasks() {
+        webTestClient.get().uri("/api/tasks")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"1.7\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+
+        verify(taskService, never()).getTasksPage(any(), any(), anyLong(), anyInt());
+    }
+
+    @Test
+    void getAllTasks_withLimit_shouldExposeNextCursor() {
+        when(taskService.getTasksPage(null, null, 0L, 2))
+                .thenReturn(new TaskPage(Arrays.asList(task1, task2), 2L, true));
+
+        webTestClient.get().uri("/api/tasks?limit=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(TaskController.NEXT_CURSOR_HEADER, TaskController.encodeCursor(2L))
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[1].id").isEqualTo(2);
+    }
+
+    @Test
+    void streamAllTasks_acceptingNdjson_shouldWriteOneTaskPerLine() {
+        when(taskService.getTasksPage(eq(Task.STATUS_PENDING), isNull(), eq(0L), anyInt()))
+                .thenReturn(new TaskPage(Arrays.asList(task1, task2), 2L, false));
+
+        String body = webTestClient.get().uri("/api/tasks?status=" + Task.STATUS_PENDING)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"id\":1"));
+        assertTrue(lines[1].contains("\"id\":2"));
+    }
+
+    @Test
+    void getAllTasks_acceptingCbor_shouldEncodeListInCbor() throws Exception {
+        when(taskService.getTasksPage(isNull(), isNull(), eq(0L), anyInt()))
+                .thenReturn(new TaskPage(Arrays.asList(task1, task2, task3), 3L, false));
+
+        byte[] body = webTestClient.get().uri("/api/tasks")
+                .accept(MediaType.APPLICATION_CBOR)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1.7+cbor\"")
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+
+        JsonNode tasks = new ObjectMapper(new CBORFactory()).readTree(body);
+        assertEquals(3, tasks.size());
+        assertEquals(1L, tasks.get(0).get("id").asLong());
+    }
+
+    @Test
+    void getAllTasks_acceptingSmile_shouldStreamOneArrayAcrossPages() throws Exception {
+        when(taskService.getTasksPage(isNull(), isNull(), eq(0L), anyInt()))
+                .thenReturn(new TaskPage(Arrays.asList(task1, task2), 2L, true));
+        when(taskService.getTasksPage(isNull(), isNull(), eq(2L), anyInt()))
+                .thenReturn(new TaskPage(Arrays.asList(task3), 3L, false));
+
+        byte[] body = webTestClient.get().uri("/api/tasks")
+                .accept(TaskController.APPLICATION_SMILE)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+
+        JsonNode tasks = new ObjectMapper(new SmileFactory()).readTree(body);
+        assertEquals(3, tasks.size());
+        assertEquals(3L, tasks.get(2).get("id").asLong());
+        assertEquals(task3.getLabel(), tasks.get(2).get("label").asText());
+    }
+
+    @Test
+    void getTaskById_withNonExistingId_shouldReturn404() {
+        when(taskService.getTaskById(99L)).thenReturn(Optional.empty());
+
+        webTestClient.get().uri("/api/tasks/99")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void getTaskById_withoutAccept_shouldAnswerJson() {
+        when(taskService.getTaskById(1L)).thenReturn(Optional.of(task1));
+        when(taskService.getVersionTag(task1)).thenReturn("1.1.3");
+
+        // The binary encoders are registered before JSON but must not be picked by default
+        webTestClient.get().uri("/api/tasks/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1.1.3\"")
+                .expectBody()
+                .jsonPath("$.label").isEqualTo("Faire les courses");
+    }
+
+    @Test
+    void addTasks_withFullBatch_shouldReadWholeBody() {
+        List<Task> batch = new ArrayList<>();
+        for (int i = 0; i < TaskController.MAX_BULK_SIZE; i++) {
+            batch.add(new Task.Builder(null, "Task " + i).description(String.join("", Collections.nCopies(300, "x"))).build());
+        }
+        when(taskService.addTasks(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Larger than the 256 KB that WebFlux buffers by default
+        webTestClient.post().uri("/api/tasks/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(batch)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(TaskController.MAX_BULK_SIZE);
+    }
+
+    @Test
+    void updateTaskStatus_withStaleIfMatch_shouldReturn412() {
+        TaskStatusUpdate statusUpdate = new TaskStatusUpdate();
+        statusUpdate.setStatus(Task.STATUS_COMPLETED);
+        when(taskService.getVersionFromTag(1L, "1.1.2")).thenReturn(OptionalLong.of(2L));
+        when(taskService.updateTaskStatus(eq(1L), eq(Task.STATUS_COMPLETED), eq(2L)))
+                .thenThrow(new TaskVersionConflictException(1L, 2L, 3L));
+
+        webTestClient.patch().uri("/api/tasks/1/status")
+                .header(HttpHeaders.IF_MATCH, "\"1.1.2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(statusUpdate)
+                .exchange()
+                .expectStatus().isEqualTo(412);
+    }
+}
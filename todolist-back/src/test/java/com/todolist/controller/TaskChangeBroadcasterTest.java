@@ -0,0 +1,191 @@
+package com.todolist.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todolist.model.Task;
+import com.todolist.service.TaskService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskChangeBroadcasterTest {
+
+    private static final long TIMEOUT_MILLIS = 5_000;
+
+    private TaskService taskService;
+    private MeterRegistry meterRegistry;
+    private TaskChangeBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        taskService = new TaskService();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.close();
+    }
+
+    @Test
+    void subscribe_shouldReceiveChangesMadeAfterward() throws Exception {
+        broadcaster = newBroadcaster(16, 10);
+        RecordingEmitter emitter = new RecordingEmitter();
+        assertTrue(broadcaster.subscribe(emitter, null));
+
+        Task task = taskService.addTask(new Task.Builder(null, "Live").build());
+
+        String event = emitter.next();
+        assertTrue(event.contains("event:insert"));
+        assertTrue(event.contains("\"label\":\"Live\""));
+        assertTrue(event.contains("\"id\":" + task.getId()));
+        assertEquals(1, broadcaster.getSubscriberCount());
+    }
+
+    @Test
+    void subscribe_withLastEventId_shouldResumeAfterIt() throws Exception {
+        broadcaster = newBroadcaster(16, 10);
+        RecordingEmitter watcher = new RecordingEmitter();
+        broadcaster.subscribe(watcher, null);
+        long since = taskService.getChanges(0L, 1).getSequence();
+        Task first = taskService.addTask(new Task.Builder(null, "First").build());
+        taskService.deleteTask(first.getId());
+        // Attendre que les deux modifications soient publiées
+        watcher.next();
+        watcher.next();
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        assertTrue(broadcaster.subscribe(emitter, String.valueOf(since)));
+
+        String insert = emitter.next();
+        assertTrue(insert.contains("id:" + (since + 1)));
+        assertTrue(insert.contains("event:insert"));
+        String delete = emitter.next();
+        assertTrue(delete.contains("id:" + (since + 2)));
+        assertTrue(delete.contains("event:delete"));
+    }
+
+    @Test
+    void subscribe_withUnknownLastEventId_shouldAskToResync() throws Exception {
+        broadcaster = newBroadcaster(16, 10);
+        long current = taskService.getChanges(0L, 1).getSequence();
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        assertTrue(broadcaster.subscribe(emitter, "0"));
+
+        String event = emitter.next();
+        assertTrue(event.contains("event:" + TaskChangeBroadcaster.RESYNC_EVENT));
+        assertTrue(event.contains("id:" + current));
+    }
+
+    @Test
+    void subscribe_aboveMaxSubscribers_shouldBeRefused() {
+        broadcaster = newBroadcaster(16, 1);
+
+        assertTrue(broadcaster.subscribe(new RecordingEmitter(), null));
+        assertFalse(broadcaster.subscribe(new RecordingEmitter(), null));
+        assertEquals(1, broadcaster.getSubscriberCount());
+    }
+
+    @Test
+    void slowSubscriber_shouldBeEvictedWithoutDelayingOthers() throws Exception {
+        broadcaster = newBroadcaster(2, 10);
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingEmitter slow = new BlockingEmitter(release);
+        RecordingEmitter fast = new RecordingEmitter();
+        assertTrue(broadcaster.subscribe(slow, null));
+        assertTrue(broadcaster.subscribe(fast, null));
+
+        taskService.addTask(new Task.Builder(null, "Task 0").build());
+        assertTrue(slow.sending.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        assertTrue(fast.next().contains("\"label\":\"Task 0\""));
+
+        // Le client rapide reçoit tout pendant que le client lent est bloqué
+        for (int i = 1; i <= 3; i++) {
+            taskService.addTask(new Task.Builder(null, "Task " + i).build());
+            assertTrue(fast.next().contains("\"label\":\"Task " + i + "\""));
+        }
+        awaitTrue(() -> broadcaster.getSubscriberCount() == 1);
+        assertEquals(1.0, meterRegistry.counter(TaskChangeBroadcaster.EVICTIONS_METRIC).count());
+
+        release.countDown();
+        awaitTrue(() -> slow.completed);
+        assertFalse(fast.completed);
+    }
+
+    private TaskChangeBroadcaster newBroadcaster(int bufferSize, int maxSubscribers) {
+        return new TaskChangeBroadcaster(taskService, new ObjectMapper(), meterRegistry,
+                bufferSize, 2, maxSubscribers, 60_000);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Emitter that records the events written to it instead of a response
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        volatile boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            String event = builder.build().stream()
+                    .map(data -> data.getData().toString())
+                    .collect(Collectors.joining());
+            events.add(event);
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        String next() throws InterruptedException {
+            String event = events.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            assertNotNull(event, "No event received in time");
+            return event;
+        }
+    }
+
+    /**
+     * Emitter whose first write blocks until released, like a client that stopped reading
+     */
+    private static class BlockingEmitter extends RecordingEmitter {
+        final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch release;
+
+        BlockingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            super.send(builder);
+        }
+    }
+}
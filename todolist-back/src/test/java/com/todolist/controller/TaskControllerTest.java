@@ -1,30 +1,52 @@
 package com.todolist.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.todolist.config.BinaryFormatsConfig;
+import com.todolist.model.BulkStatusUpdate;
 import com.todolist.model.Task;
+import com.todolist.model.TaskChange;
+import com.todolist.model.TaskChanges;
+import com.todolist.model.TaskPage;
+import com.todolist.model.TaskPatch;
+import com.todolist.model.TaskSearchPage;
 import com.todolist.model.TaskStatusUpdate;
 import com.todolist.service.TaskService;
+import com.todolist.service.TaskVersionConflictException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(TaskController.class)
+@Import({TaskResponseCache.class, TaskFragmentCache.class, BinaryFormatsConfig.class})
 class TaskControllerTest {
 
     @Autowired
@@ -33,15 +55,27 @@ class TaskControllerTest {
     @MockBean
     private TaskService taskService;
 
+    @MockBean
+    private TaskChangeBroadcaster changeBroadcaster;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private TaskResponseCache responseCache;
+
+    @Autowired
+    private TaskFragmentCache fragmentCache;
+
     private Task task1;
     private Task task2;
     private Task task3;
 
     @BeforeEach
     void setUp() {
+        // The mocked service always reports the same list and task versions
+        responseCache.clear();
+        fragmentCache.clear();
         task1 = new Task.Builder(1L, "Faire les courses")
                 .description("Acheter du pain et du lait")
                 .status(Task.STATUS_PENDING)
@@ -75,6 +109,303 @@ class TaskControllerTest {
                 .andExpect(jsonPath("$[2].id", is(3)));
     }
 
+    @Test
+    void getAllTasks_sameListVersion_shouldServeCachedBody() throws Exception {
+        when(taskService.getListVersion(Task.STATUS_PENDING, null)).thenReturn(5L);
+        when(taskService.getTasks(Task.STATUS_PENDING, null)).thenReturn(Arrays.asList(task1, task2));
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/tasks").param("status", Task.STATUS_PENDING))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$", hasSize(2)))
+                    .andExpect(jsonPath("$[1].id", is(2)));
+        }
+        verify(taskService, times(1)).getTasks(Task.STATUS_PENDING, null);
+    }
+
+    @Test
+    void getIncompleteTasks_afterListChange_shouldSerializeAgain() throws Exception {
+        when(taskService.getIncompleteListVersion()).thenReturn(1L, 2L);
+        when(taskService.getIncompleteTasks()).thenReturn(Arrays.asList(task1, task2), Arrays.asList(task1));
+
+        mockMvc.perform(get("/api/tasks/incomplete"))
+                .andExpect(jsonPath("$", hasSize(2)));
+        mockMvc.perform(get("/api/tasks/incomplete"))
+                .andExpect(jsonPath("$", hasSize(1)));
+        verify(taskService, times(2)).getIncompleteTasks();
+    }
+
+    @Test
+    void getAllTasks_shouldReturnStoreETag() throws Exception {
+        when(taskService.getStoreVersionTag()).thenReturn("1.7");
+        when(taskService.getAllTasks()).thenReturn(Arrays.asList(task1));
+
+        mockMvc.perform(get("/api/tasks"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1.7\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+    }
+
+    @Test
+    void getAllTasks_withMatchingETag_shouldReturn304WithoutQuerying() throws Exception {
+        when(taskService.getStoreVersionTag()).thenReturn("1.7");
+
+        mockMvc.perform(get("/api/tasks").param("status", Task.STATUS_PENDING).header(HttpHeaders.IF_NONE_MATCH, "\"1.7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(taskService, never()).getTasks(any(), any());
+    }
+
+    @Test
+    void getTaskById_withMatchingETag_shouldReturn304() throws Exception {
+        when(taskService.getTaskById(1L)).thenReturn(Optional.of(task1));
+        when(taskService.getVersionTag(task1)).thenReturn("1.1.3");
+
+        mockMvc.perform(get("/api/tasks/1").header(HttpHeaders.IF_NONE_MATCH, "\"1.1.3\""))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/tasks/1").header(HttpHeaders.IF_NONE_MATCH, "\"1.1.2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1.1.3\""));
+    }
+
+    @Test
+    void updateTaskStatus_withCurrentIfMatch_shouldReturnNewETag() throws Exception {
+        TaskStatusUpdate statusUpdate = new TaskStatusUpdate();
+        statusUpdate.setStatus(Task.STATUS_COMPLETED);
+        when(taskService.getVersionFromTag(1L, "1.1.3")).thenReturn(OptionalLong.of(3L));
+        when(taskService.updateTaskStatus(1L, Task.STATUS_COMPLETED, 3L)).thenReturn(Optional.of(task1));
+        when(taskService.getVersionTag(task1)).thenReturn("1.1.4");
+
+        mockMvc.perform(patch("/api/tasks/1/status")
+                .header(HttpHeaders.IF_MATCH, "\"1.1.3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(statusUpdate)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1.1.4\""));
+    }
+
+    @Test
+    void updateTask_withStaleIfMatch_shouldReturn412() throws Exception {
+        when(taskService.getVersionFromTag(1L, "1.1.2")).thenReturn(OptionalLong.of(2L));
+        when(taskService.updateTask(eq(1L), any(Task.class), eq(2L)))
+                .thenThrow(new TaskVersionConflictException(1L, 2L, 3L));
+
+        mockMvc.perform(patch("/api/tasks/1/update")
+                .header(HttpHeaders.IF_MATCH, "\"1.1.2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(task1)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void patchTask_withMergePatch_shouldApplyOnlyGivenFields() throws Exception {
+        when(taskService.getVersionFromTag(1L, "1.1.3")).thenReturn(OptionalLong.of(3L));
+        when(taskService.patchTask(eq(1L), any(TaskPatch.class), eq(3L))).thenReturn(Optional.of(task1));
+        when(taskService.getVersionTag(task1)).thenReturn("1.1.4");
+
+        mockMvc.perform(patch("/api/tasks/1")
+                .header(HttpHeaders.IF_MATCH, "\"1.1.3\"")
+                .contentType(TaskPatch.MEDIA_TYPE)
+                .content("{\"description\":null,\"priority\":\"high\",\"id\":42}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1.1.4\""));
+
+        ArgumentCaptor<TaskPatch> patch = ArgumentCaptor.forClass(TaskPatch.class);
+        verify(taskService).patchTask(eq(1L), patch.capture(), eq(3L));
+        Task target = new Task.Builder(1L, "Faire les courses").description("Acheter du pain").build();
+        patch.getValue().applyTo(target);
+        assertEquals("Faire les courses", target.getLabel());
+        assertEquals(null, target.getDescription());
+        assertEquals(Task.PRIORITY_HIGH, target.getPriority());
+        assertEquals(Long.valueOf(1L), target.getId());
+    }
+
+    @Test
+    void patchTask_removingStatus_shouldReturn400() throws Exception {
+        mockMvc.perform(patch("/api/tasks/1")
+                .contentType(TaskPatch.MEDIA_TYPE)
+                .content("{\"status\":null}"))
+                .andExpect(status().isBadRequest());
+        verify(taskService, never()).patchTask(any(), any(), any());
+    }
+
+    @Test
+    void getAllTasks_withStatusFilter_shouldUseIndexedQuery() throws Exception {
+        when(taskService.getTasks(Task.STATUS_PENDING, null)).thenReturn(Arrays.asList(task1, task2));
+
+        mockMvc.perform(get("/api/tasks").param("status", Task.STATUS_PENDING))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", is(1)))
+                .andExpect(jsonPath("$[1].id", is(2)));
+    }
+
+    @Test
+    void getAllTasks_withLimit_shouldReturnPageAndNextCursor() throws Exception {
+        when(taskService.getTasksPage(null, null, 0L, 2))
+                .thenReturn(new TaskPage(Arrays.asList(task1, task2), 2L, true));
+
+        mockMvc.perform(get("/api/tasks").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(header().string(TaskController.NEXT_CURSOR_HEADER, TaskController.encodeCursor(2L)));
+    }
+
+    @Test
+    void getIncompleteTasks_withCursor_shouldResumeAfterLastId() throws Exception {
+        when(taskService.getIncompleteTasksPage(2L, TaskController.DEFAULT_PAGE_SIZE))
+                .thenReturn(new TaskPage(Arrays.asList(task3), 3L, false));
+
+        mockMvc.perform(get("/api/tasks/incomplete").param("after", TaskController.encodeCursor(2L)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(3)))
+                .andExpect(header().doesNotExist(TaskController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void getAllTasks_withInvalidCursor_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/tasks").param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchTasks_shouldReturnMatchesAndTotalCount() throws Exception {
+        when(taskService.searchTasks("examen", 0, TaskController.DEFAULT_PAGE_SIZE))
+                .thenReturn(new TaskSearchPage(Arrays.asList(task2), 1));
+
+        mockMvc.perform(get("/api/tasks/search").param("q", "examen"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(2)))
+                .andExpect(header().string(TaskController.TOTAL_COUNT_HEADER, "1"));
+    }
+
+    @Test
+    void searchTasks_withBlankQuery_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/tasks/search").param("q", " "))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getNextTasks_shouldUseDefaultK() throws Exception {
+        when(taskService.getNextTasks(TaskController.DEFAULT_NEXT_SIZE)).thenReturn(Arrays.asList(task2, task1));
+
+        mockMvc.perform(get("/api/tasks/next"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", is(2)));
+    }
+
+    @Test
+    void getNextTasks_withInvalidK_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/tasks/next").param("k", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getChanges_shouldReturnChangesSinceSequence() throws Exception {
+        when(taskService.getChanges(40L, TaskController.MAX_PAGE_SIZE)).thenReturn(new TaskChanges(42L, false, false,
+                Arrays.asList(new TaskChange(41L, TaskChange.TYPE_UPDATE, 1L, task1),
+                        new TaskChange(42L, TaskChange.TYPE_DELETE, 3L, null))));
+
+        mockMvc.perform(get("/api/tasks/changes").param("since", "40"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sequence", is(42)))
+                .andExpect(jsonPath("$.resyncRequired", is(false)))
+                .andExpect(jsonPath("$.hasMore", is(false)))
+                .andExpect(jsonPath("$.changes", hasSize(2)))
+                .andExpect(jsonPath("$.changes[0].type", is("update")))
+                .andExpect(jsonPath("$.changes[0].task.label", is("Faire les courses")))
+                .andExpect(jsonPath("$.changes[1].id", is(3)))
+                .andExpect(jsonPath("$.changes[1].task").doesNotExist());
+    }
+
+    @Test
+    void streamChanges_shouldSubscribeFromLastEventId() throws Exception {
+        when(changeBroadcaster.subscribe(any(), eq("41"))).thenReturn(true);
+
+        mockMvc.perform(get("/api/tasks/events").header(TaskController.LAST_EVENT_ID_HEADER, "41"))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+        verify(changeBroadcaster).subscribe(any(), eq("41"));
+    }
+
+    @Test
+    void streamChanges_withTooManySubscribers_shouldReturn503() throws Exception {
+        when(changeBroadcaster.subscribe(any(), any())).thenReturn(false);
+
+        mockMvc.perform(get("/api/tasks/events"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void getChanges_withInvalidLimit_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/tasks/changes").param("since", "0").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getOverdueTasks_shouldReturnOverdueTasks() throws Exception {
+        when(taskService.getOverdueTasks()).thenReturn(Arrays.asList(task2));
+
+        mockMvc.perform(get("/api/tasks/overdue"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(2)));
+    }
+
+    @Test
+    void getTasksDueBetween_shouldParseIsoDates() throws Exception {
+        Date from = Date.from(Instant.parse("2024-01-01T00:00:00Z"));
+        Date to = Date.from(Instant.parse("2024-01-08T00:00:00Z"));
+        when(taskService.getTasksDueBetween(from, to, true)).thenReturn(Arrays.asList(task1, task2));
+
+        mockMvc.perform(get("/api/tasks/due")
+                .param("from", "2024-01-01T00:00:00Z")
+                .param("to", "2024-01-08T00:00:00Z")
+                .param("incomplete", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @Test
+    void getTasksDueBetween_withEmptyRange_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/tasks/due")
+                .param("from", "2024-01-08T00:00:00Z")
+                .param("to", "2024-01-01T00:00:00Z"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getTasksDueSoon_withInvalidHours_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/tasks/due-soon").param("hours", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getAllTasks_asNdjson_shouldStreamOneTaskPerLine() throws Exception {
+        when(taskService.getTasksPage(null, null, 0L, TaskController.STREAM_BATCH_SIZE))
+                .thenReturn(new TaskPage(Arrays.asList(task1, task2), 2L, true));
+        when(taskService.getTasksPage(null, null, 2L, TaskController.STREAM_BATCH_SIZE))
+                .thenReturn(new TaskPage(Arrays.asList(task3), 3L, false));
+
+        MvcResult result = mockMvc.perform(get("/api/tasks").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(3, lines.length);
+        assertEquals(1L, objectMapper.readValue(lines[0], Task.class).getId());
+        assertEquals(3L, objectMapper.readValue(lines[2], Task.class).getId());
+    }
+
     @Test
     void getIncompleteTasks_shouldReturnOnlyIncompleteTasks() throws Exception {
         when(taskService.getIncompleteTasks()).thenReturn(Arrays.asList(task1, task2));
@@ -102,6 +433,63 @@ class TaskControllerTest {
                 .andExpect(jsonPath("$.completed", is(false)));
     }
 
+    @Test
+    void getAllTasks_acceptingCbor_shouldEncodeListInCbor() throws Exception {
+        when(taskService.getStoreVersionTag()).thenReturn("1.7");
+        when(taskService.getAllTasks()).thenReturn(Arrays.asList(task1, task2));
+
+        MvcResult result = mockMvc.perform(get("/api/tasks").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1.7+cbor\""))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+                .andReturn();
+
+        Task[] tasks = new ObjectMapper(new CBORFactory()).readValue(result.getResponse().getContentAsByteArray(), Task[].class);
+        assertEquals(2, tasks.length);
+        assertEquals("Réviser pour l'examen", tasks[1].getLabel());
+    }
+
+    @Test
+    void getTaskById_acceptingSmile_shouldNotMatchJsonETag() throws Exception {
+        when(taskService.getTaskById(1L)).thenReturn(Optional.of(task1));
+        when(taskService.getVersionTag(task1)).thenReturn("1.1.3");
+
+        mockMvc.perform(get("/api/tasks/1").accept(TaskController.APPLICATION_SMILE)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1.1.3\""))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(TaskController.APPLICATION_SMILE))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1.1.3+smile\""));
+    }
+
+    @Test
+    void addTask_withCborBody_shouldDecodeTask() throws Exception {
+        ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+        Task newTask = new Task.Builder(null, "Nouvelle tâche")
+                .status(Task.STATUS_PENDING)
+                .priority(Task.PRIORITY_HIGH)
+                .build();
+        Task savedTask = new Task.Builder(4L, "Nouvelle tâche")
+                .status(Task.STATUS_PENDING)
+                .priority(Task.PRIORITY_HIGH)
+                .build();
+        ArgumentCaptor<Task> captor = ArgumentCaptor.forClass(Task.class);
+        when(taskService.addTask(captor.capture())).thenReturn(savedTask);
+
+        MvcResult result = mockMvc.perform(post("/api/tasks")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(newTask)))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        assertEquals("Nouvelle tâche", captor.getValue().getLabel());
+        assertEquals(Task.PRIORITY_HIGH, captor.getValue().getPriority());
+        Task created = cborMapper.readValue(result.getResponse().getContentAsByteArray(), Task.class);
+        assertEquals(4L, created.getId());
+    }
+
     @Test
     void getTaskById_withNonExistingId_shouldReturn404() throws Exception {
         when(taskService.getTaskById(99L)).thenReturn(Optional.empty());
@@ -295,4 +683,36 @@ class TaskControllerTest {
                 .content(objectMapper.writeValueAsString(updatedTask)))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    void updateTaskStatuses_shouldReturnPerItemResults() throws Exception {
+        Task completedTask = new Task.Builder(1L, "Faire les courses")
+                .status(Task.STATUS_COMPLETED)
+                .build();
+        when(taskService.updateTaskStatuses(any()))
+                .thenReturn(Arrays.asList(Optional.of(completedTask), Optional.empty()));
+
+        mockMvc.perform(patch("/api/tasks/bulk/status")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Arrays.asList(
+                        new BulkStatusUpdate(1L, Task.STATUS_COMPLETED),
+                        new BulkStatusUpdate(2L, "invalid_status"),
+                        new BulkStatusUpdate(99L, Task.STATUS_COMPLETED)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].status", is(200)))
+                .andExpect(jsonPath("$[0].task.status", is(Task.STATUS_COMPLETED)))
+                .andExpect(jsonPath("$[1].id", is(2)))
+                .andExpect(jsonPath("$[1].status", is(400)))
+                .andExpect(jsonPath("$[2].id", is(99)))
+                .andExpect(jsonPath("$[2].status", is(404)));
+    }
+
+    @Test
+    void deleteTasks_withEmptyBatch_shouldReturn400() throws Exception {
+        mockMvc.perform(post("/api/tasks/bulk/delete")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Collections.emptyList())))
+                .andExpect(status().isBadRequest());
+    }
 }
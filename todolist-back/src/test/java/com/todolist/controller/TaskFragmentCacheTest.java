@@ -0,0 +1,90 @@
+package com.todolist.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todolist.model.Task;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskFragmentCacheTest {
+
+    private ObjectMapper objectMapper;
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void toJsonArray_shouldMatchJacksonOutput() throws Exception {
+        TaskFragmentCache cache = new TaskFragmentCache(objectMapper, meterRegistry, 1024 * 1024);
+        List<Task> tasks = Arrays.asList(
+                task(1L, 1L, "Faire les courses"),
+                new Task.Builder(2L, "Échéance \"urgente\"").dueDate(new Date(0L)).version(4L).build(),
+                task(3L, 2L, null));
+
+        // Deux fois : la seconde écriture vient entièrement du cache
+        for (int i = 0; i < 2; i++) {
+            assertEquals(objectMapper.writeValueAsString(tasks),
+                    new String(cache.toJsonArray(tasks), StandardCharsets.UTF_8));
+        }
+        assertEquals("[]", new String(cache.toJsonArray(Collections.emptyList()), StandardCharsets.UTF_8));
+        assertEquals(3.0, meterRegistry.counter(TaskFragmentCache.GETS_METRIC, "result", "hit").count());
+    }
+
+    @Test
+    void get_withNewVersion_shouldSerializeAgain() throws Exception {
+        TaskFragmentCache cache = new TaskFragmentCache(objectMapper, meterRegistry, 1024 * 1024);
+        Task task = task(1L, 1L, "Avant");
+        byte[] before = cache.get(task);
+
+        task.setLabel("Après");
+        assertSame(before, cache.get(task), "Same version, cached bytes");
+        task.setVersion(2L);
+        assertEquals(objectMapper.writeValueAsString(task), new String(cache.get(task), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void get_unstoredTask_shouldNotBeCached() {
+        TaskFragmentCache cache = new TaskFragmentCache(objectMapper, meterRegistry, 1024 * 1024);
+
+        cache.get(new Task.Builder(null, "Nouvelle").build());
+
+        assertEquals(0L, cache.size());
+    }
+
+    @Test
+    void get_aboveMaxSize_shouldEvictAndKeepRecentlyUsed() {
+        long maxBytes = 20L * (TaskFragmentCache.ENTRY_OVERHEAD + 200);
+        TaskFragmentCache cache = new TaskFragmentCache(objectMapper, meterRegistry, maxBytes);
+        Task hot = task(0L, 1L, "Souvent lue");
+        byte[] hotBytes = cache.get(hot);
+
+        List<Task> tasks = new ArrayList<>();
+        for (long id = 1; id <= 200; id++) {
+            tasks.add(task(id, 1L, "Tâche " + id));
+            cache.get(tasks.get(tasks.size() - 1));
+            cache.get(hot);
+            assertTrue(cache.size() <= maxBytes);
+        }
+
+        assertTrue(meterRegistry.counter(TaskFragmentCache.EVICTIONS_METRIC).count() > 0);
+        assertSame(hotBytes, cache.get(hot));
+    }
+
+    private static Task task(Long id, long version, String description) {
+        return new Task.Builder(id, "Tâche " + id).description(description).version(version).build();
+    }
+}
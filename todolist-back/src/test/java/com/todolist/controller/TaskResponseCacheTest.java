@@ -0,0 +1,67 @@
+package com.todolist.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todolist.model.Task;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskResponseCacheTest {
+
+    private MeterRegistry meterRegistry;
+    private TaskFragmentCache fragments;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        fragments = new TaskFragmentCache(new ObjectMapper(), meterRegistry, 1024 * 1024);
+    }
+
+    @Test
+    void get_withSameVersion_shouldServeCachedBody() {
+        TaskResponseCache cache = new TaskResponseCache(fragments, meterRegistry, true, 1024 * 1024, 1024 * 1024);
+        AtomicInteger reads = new AtomicInteger();
+        List<Task> tasks = List.of(task(1L, "Faire les courses"));
+
+        byte[] first = cache.get("all", 1L, () -> {
+            reads.incrementAndGet();
+            return tasks;
+        });
+
+        assertSame(first, cache.get("all", 1L, () -> fail("Liste relue")));
+        assertEquals(first.length, cache.size());
+        cache.get("all", 2L, () -> {
+            reads.incrementAndGet();
+            return tasks;
+        });
+        assertEquals(2, reads.get());
+        assertEquals(first.length, cache.size());
+    }
+
+    @Test
+    void get_aboveMaxSize_shouldEvictAndKeepRecentlyUsed() {
+        byte[] body = new TaskResponseCache(fragments, meterRegistry, false, 0, 0)
+                .get("probe", 1L, () -> List.of(task(1L, "Tâche 1")));
+        long maxBytes = 10L * body.length;
+        TaskResponseCache cache = new TaskResponseCache(fragments, meterRegistry, true, maxBytes, maxBytes);
+        byte[] hot = cache.get("hot", 1L, () -> List.of(task(1L, "Tâche 1")));
+
+        for (int i = 0; i < 100; i++) {
+            cache.get("list-" + i, 1L, () -> List.of(task(1L, "Tâche 1")));
+            assertSame(hot, cache.get("hot", 1L, () -> fail("Liste souvent lue évincée")));
+            assertTrue(cache.size() <= maxBytes);
+        }
+
+        assertTrue(meterRegistry.counter(TaskResponseCache.EVICTIONS_METRIC).count() >= 90);
+    }
+
+    private static Task task(long id, String label) {
+        return new Task.Builder(id, label).version(1L).build();
+    }
+}
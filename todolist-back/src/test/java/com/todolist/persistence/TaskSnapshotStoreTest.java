@@ -0,0 +1,82 @@
+package com.todolist.persistence;
+
+import com.todolist.model.Task;
+import com.todolist.repository.InMemoryTaskRepository;
+import com.todolist.service.TaskService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskSnapshotStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private TaskWriteAheadLog openLog() throws IOException {
+        // Petits segments pour que le journal en compte plusieurs avant le snapshot
+        return new TaskWriteAheadLog(directory.resolve("wal"), TaskWriteAheadLog.FsyncPolicy.NEVER, 100, 64, 512);
+    }
+
+    private TaskSnapshotStore openSnapshots() throws IOException {
+        return new TaskSnapshotStore(directory.resolve("snapshots"));
+    }
+
+    @Test
+    void checkpoint_shouldCompactLogAndRestoreFromSnapshotPlusTail() throws IOException {
+        // Given
+        try (TaskWriteAheadLog log = openLog()) {
+            InMemoryTaskRepository repository = new InMemoryTaskRepository(log, openSnapshots());
+            TaskService service = new TaskService(repository);
+            for (int i = 0; i < 50; i++) {
+                service.addTask(new Task.Builder(null, "Tâche " + i).build());
+            }
+            service.updateTaskStatus(1L, Task.STATUS_COMPLETED);
+            assertTrue(listFiles("wal").size() > 1);
+
+            // When
+            repository.checkpoint();
+            service.updateTaskStatus(2L, Task.STATUS_CANCELLED);
+            service.deleteTask(3L);
+            service.addTask(new Task.Builder(null, "Après le snapshot").build());
+        }
+
+        // Then
+        assertEquals(1, listFiles("snapshots").size());
+        assertEquals(1, listFiles("wal").size());
+        try (TaskWriteAheadLog log = openLog()) {
+            TaskService restarted = new TaskService(new InMemoryTaskRepository(log, openSnapshots()));
+            assertEquals(54, restarted.getAllTasks().size());
+            assertEquals(Task.STATUS_COMPLETED, restarted.getTaskById(1L).get().getStatus());
+            assertEquals(Task.STATUS_CANCELLED, restarted.getTaskById(2L).get().getStatus());
+            // Versions relues du snapshot puis de la fin du journal
+            assertEquals(2L, restarted.getTaskById(1L).get().getVersion());
+            assertEquals(2L, restarted.getTaskById(2L).get().getVersion());
+            assertFalse(restarted.getTaskById(3L).isPresent());
+            assertEquals("Après le snapshot", restarted.getTaskById(55L).get().getLabel());
+            assertEquals(56L, restarted.addTask(new Task.Builder(null, "Suivante").build()).getId());
+        }
+    }
+
+    @Test
+    void loadLatest_withoutSnapshot_shouldReturnEmpty() throws IOException {
+        List<Task> loaded = new ArrayList<>();
+
+        assertFalse(openSnapshots().loadLatest(loaded::add).isPresent());
+        assertTrue(loaded.isEmpty());
+    }
+
+    private List<Path> listFiles(String subdirectory) throws IOException {
+        try (Stream<Path> files = Files.list(directory.resolve(subdirectory))) {
+            return files.collect(Collectors.toList());
+        }
+    }
+}
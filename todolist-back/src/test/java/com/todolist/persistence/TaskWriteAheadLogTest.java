@@ -0,0 +1,198 @@
+package com.todolist.persistence;
+
+import com.todolist.model.Task;
+import com.todolist.repository.InMemoryTaskRepository;
+import com.todolist.service.TaskService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskWriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    private TaskWriteAheadLog openLog() throws IOException {
+        return new TaskWriteAheadLog(directory, TaskWriteAheadLog.FsyncPolicy.ALWAYS, 100, 64, 1024 * 1024);
+    }
+
+    @Test
+    void restart_shouldRebuildStateFromLog() throws IOException {
+        // Given
+        Date dueDate = new Date(1_700_000_000_000L);
+        try (TaskWriteAheadLog log = openLog()) {
+            TaskService service = new TaskService(new InMemoryTaskRepository(log, null));
+            Task added = service.addTask(new Task.Builder(null, "Tâche persistée")
+                    .description("Décrite")
+                    .dueDate(dueDate)
+                    .priority(Task.PRIORITY_HIGH)
+                    .build());
+            assertEquals(5L, added.getId());
+            service.updateTaskStatus(1L, Task.STATUS_COMPLETED);
+            service.deleteTask(2L);
+        }
+
+        // When
+        try (TaskWriteAheadLog log = openLog()) {
+            TaskService restarted = new TaskService(new InMemoryTaskRepository(log, null));
+
+            // Then
+            assertEquals(4, restarted.getAllTasks().size());
+            assertFalse(restarted.getTaskById(2L).isPresent());
+            assertEquals(Task.STATUS_COMPLETED, restarted.getTaskById(1L).get().getStatus());
+            assertEquals(2L, restarted.getTaskById(1L).get().getVersion());
+            Optional<Task> persisted = restarted.getTaskById(5L);
+            assertTrue(persisted.isPresent());
+            assertEquals("Décrite", persisted.get().getDescription());
+            assertEquals(dueDate, persisted.get().getDueDate());
+            assertEquals(Task.PRIORITY_HIGH, persisted.get().getPriority());
+            assertEquals(1L, persisted.get().getVersion());
+            assertEquals(3, restarted.getIncompleteTasks().size());
+            // Les IDs continuent après le plus grand ID journalisé
+            assertEquals(6L, restarted.addTask(new Task.Builder(null, "Suivante").build()).getId());
+        }
+    }
+
+    @Test
+    void failedAppend_shouldPublishNothing() throws IOException {
+        // Given : un journal fermé refuse tout nouvel enregistrement
+        TaskWriteAheadLog log = openLog();
+        TaskService service = new TaskService(new InMemoryTaskRepository(log, null));
+        long since = service.getChanges(0L, 1).getSequence();
+        String storeVersion = service.getStoreVersionTag();
+        log.close();
+
+        // When
+        assertThrows(IllegalStateException.class, () -> service.updateTaskStatus(1L, Task.STATUS_COMPLETED));
+        assertThrows(IllegalStateException.class, () -> service.addTask(new Task.Builder(null, "Refusée").build()));
+        assertThrows(IllegalStateException.class, () -> service.deleteTasks(List.of(2L, 3L)));
+
+        // Then
+        assertEquals(Task.STATUS_PENDING, service.getTaskById(1L).get().getStatus());
+        assertEquals(1L, service.getTaskById(1L).get().getVersion());
+        assertEquals(4, service.getAllTasks().size());
+        assertEquals(3, service.getIncompleteTasks().size());
+        assertTrue(service.getChanges(since, 100).getChanges().isEmpty());
+        assertEquals(storeVersion, service.getStoreVersionTag());
+    }
+
+    @Test
+    void failedWrite_shouldRejectEveryLaterAppend() throws IOException {
+        // Given : des segments d'un octet, et le segment suivant déjà présent fait échouer son ouverture
+        TaskWriteAheadLog log = new TaskWriteAheadLog(directory, TaskWriteAheadLog.FsyncPolicy.ALWAYS, 100, 64, 1);
+        log.replay(new RecordingHandler(new ArrayList<>()));
+        log.appendDelete(1L).join();
+        Files.createFile(directory.resolve(String.format("wal-%020d.log", 2L)));
+
+        // When
+        CompletableFuture<Void> failed = log.appendDelete(2L);
+        CompletableFuture<Void> later = log.appendDelete(3L);
+
+        // Then
+        CompletionException error = assertThrows(CompletionException.class, failed::join);
+        assertInstanceOf(FileAlreadyExistsException.class, error.getCause());
+        assertSame(error.getCause(), assertThrows(CompletionException.class, later::join).getCause());
+        assertThrows(IOException.class, log::rollSegment);
+        log.close();
+        List<Long> deletes = new ArrayList<>();
+        try (TaskWriteAheadLog reopened = openLog()) {
+            assertEquals(1, reopened.replay(new RecordingHandler(deletes)));
+        }
+        assertEquals(List.of(1L), deletes);
+    }
+
+    @Test
+    void addTask_pastIndexableIds_shouldBeRejectedWithoutChange() throws IOException {
+        // Given : un journal dont la dernière tâche précède de peu le plus grand ID indexable
+        try (TaskWriteAheadLog log = openLog()) {
+            log.replay(new RecordingHandler(new ArrayList<>()));
+            log.appendUpsert(new Task.Builder((long) Integer.MAX_VALUE - 1, "Avant-dernière").build()).join();
+        }
+
+        try (TaskWriteAheadLog log = openLog()) {
+            TaskService service = new TaskService(new InMemoryTaskRepository(log, null));
+
+            // When
+            Task last = service.addTask(new Task.Builder(null, "Clôture").build());
+
+            // Then
+            assertEquals(Integer.MAX_VALUE, last.getId());
+            assertThrows(IllegalStateException.class, () -> service.addTask(new Task.Builder(null, "Refusée").build()));
+            assertThrows(IllegalStateException.class, () -> service.addTasks(List.of(new Task.Builder(null, "Refusée").build())));
+            assertEquals(2, service.getAllTasks().size());
+            assertEquals(List.of(last.getId()), service.searchTasks("cloture", 0, 10).getTasks().stream()
+                    .map(Task::getId).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void replay_shouldIgnoreTornTail() throws IOException {
+        // Given
+        try (TaskWriteAheadLog log = openLog()) {
+            new TaskService(new InMemoryTaskRepository(log, null)).updateTaskStatus(3L, Task.STATUS_CANCELLED);
+        }
+        Path segment = listSegments().get(0);
+        long validLength = Files.size(segment);
+        Files.write(segment, new byte[]{0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+
+        // When
+        List<Long> upserts = new ArrayList<>();
+        try (TaskWriteAheadLog log = openLog()) {
+            long replayed = log.replay(new TaskWriteAheadLog.ReplayHandler() {
+                @Override
+                public void upsert(Task task) {
+                    upserts.add(task.getId());
+                }
+
+                @Override
+                public void delete(long id) {
+                    fail("Aucune suppression attendue");
+                }
+            });
+
+            // Then
+            assertEquals(5, replayed);
+            assertEquals(List.of(1L, 2L, 3L, 4L, 3L), upserts);
+        }
+        assertEquals(validLength, Files.size(segment));
+    }
+
+    private static final class RecordingHandler implements TaskWriteAheadLog.ReplayHandler {
+        private final List<Long> deletes;
+
+        private RecordingHandler(List<Long> deletes) {
+            this.deletes = deletes;
+        }
+
+        @Override
+        public void upsert(Task task) {
+            fail("Aucune mise à jour attendue");
+        }
+
+        @Override
+        public void delete(long id) {
+            deletes.add(id);
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.todolist.repository;
+
+import com.todolist.model.Task;
+import com.todolist.model.TaskPage;
+import com.todolist.model.TaskStatistics;
+import com.todolist.service.TaskService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarTaskRepositoryTest {
+
+    private ColumnarTaskRepository repository;
+    private TaskService taskService;
+
+    @BeforeEach
+    void setUp() {
+        repository = new ColumnarTaskRepository();
+        taskService = new TaskService(repository);
+    }
+
+    @Test
+    void addTask_shouldRoundTripAllFields() {
+        // Given
+        Date createdAt = new Date(1_000L);
+        Date dueDate = new Date(1_700_000_000_000L);
+
+        // When
+        Task added = taskService.addTask(new Task.Builder(null, "Tâche en colonnes")
+                .description("Décrite")
+                .status("blocked")
+                .priority(null)
+                .createdAt(createdAt)
+                .dueDate(dueDate)
+                .pomodoroCount(null)
+                .build());
+
+        // Then
+        assertEquals(5L, added.getId());
+        Task stored = taskService.getTaskById(5L).get();
+        assertEquals("Tâche en colonnes", stored.getLabel());
+        assertEquals("Décrite", stored.getDescription());
+        assertEquals("blocked", stored.getStatus());
+        assertNull(stored.getPriority());
+        assertEquals(createdAt, stored.getCreatedAt());
+        assertEquals(dueDate, stored.getDueDate());
+        assertNull(stored.getPomodoroCount());
+        assertEquals(1L, stored.getVersion());
+        assertEquals(Arrays.asList(5L), ids(taskService.getTasks("blocked", null)));
+    }
+
+    @Test
+    void getTasksPage_shouldFilterAndResumeAfterCursor() {
+        // Given
+        taskService.updateTaskStatus(3L, Task.STATUS_IN_PROGRESS);
+
+        // When
+        TaskPage first = taskService.getTasksPage(Task.STATUS_PENDING, null, 0L, 1);
+        TaskPage second = taskService.getTasksPage(Task.STATUS_PENDING, null, first.getLastId(), 1);
+
+        // Then
+        assertEquals(1L, first.getTasks().get(0).getId());
+        assertTrue(first.hasMore());
+        assertEquals(4L, second.getTasks().get(0).getId());
+        assertFalse(second.hasMore());
+        assertEquals(Arrays.asList(1L, 3L, 4L), ids(taskService.getIncompleteTasksPage(0L, 10).getTasks()));
+        assertEquals(Arrays.asList(1L, 3L, 4L), ids(taskService.getIncompleteTasks()));
+        assertTrue(taskService.getTasks("unknown", null).isEmpty());
+    }
+
+    @Test
+    void updateTask_withFailingMutation_shouldLeaveTaskUnchanged() {
+        // When
+        assertThrows(IllegalStateException.class, () -> repository.update(1L, task -> {
+            task.setLabel("Modifiée");
+            throw new IllegalStateException();
+        }));
+
+        // Then
+        Task task = taskService.getTaskById(1L).get();
+        assertEquals("Faire les courses", task.getLabel());
+        assertEquals(1L, task.getVersion());
+    }
+
+    @Test
+    void addTasks_withMoreThan128Statuses_shouldKeepEveryValue() {
+        // Given : 4 statuts standard et 200 autres, au-delà des codes sur un octet
+        List<Task> newTasks = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            newTasks.add(new Task.Builder(null, "Statut " + i).status("statut-" + i).priority("priorité-" + i).build());
+        }
+
+        // When
+        List<Task> added = taskService.addTasks(newTasks);
+        taskService.updateTaskStatus(added.get(0).getId(), "statut-final");
+
+        // Then
+        Task last = taskService.getTaskById(added.get(199).getId()).get();
+        assertEquals("statut-199", last.getStatus());
+        assertEquals("priorité-199", last.getPriority());
+        assertEquals("statut-final", taskService.getTaskById(added.get(0).getId()).get().getStatus());
+        assertEquals(List.of(last.getId()), ids(taskService.getTasks("statut-199", null)));
+        assertEquals(List.of(last.getId()), ids(taskService.getTasks(null, "priorité-199")));
+        assertTrue(taskService.getTasks("statut-inconnu", null).isEmpty());
+        assertEquals(1L, taskService.getStatistics().getByStatus().get("statut-199"));
+        assertEquals(1L, taskService.getStatistics().getByStatus().get("statut-final"));
+        assertEquals(203, taskService.getIncompleteTasks().size());
+    }
+
+    @Test
+    void deleteTasks_shouldCompactColumnsAndKeepIdOrder() {
+        // Given
+        List<Task> newTasks = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            newTasks.add(new Task.Builder(null, "Lot " + i).build());
+        }
+        taskService.addTasks(newTasks);
+        List<Long> even = new ArrayList<>();
+        for (long id = 2; id <= 3004; id += 2) {
+            even.add(id);
+        }
+
+        // When
+        List<Boolean> removed = taskService.deleteTasks(even);
+        List<Boolean> again = taskService.deleteTasks(Arrays.asList(2L, 3L));
+
+        // Then
+        assertFalse(removed.contains(false));
+        assertEquals(Arrays.asList(false, true), again);
+        assertEquals(1501L, repository.count());
+        assertFalse(taskService.getTaskById(2L).isPresent());
+        assertEquals("Lot 0", taskService.getTaskById(5L).get().getLabel());
+        TaskPage page = taskService.getTasksPage(null, null, 3L, 2);
+        assertEquals(Arrays.asList(5L, 7L), ids(page.getTasks()));
+        assertEquals(5L + 2 * 1500, taskService.addTask(new Task.Builder(null, "Après").build()).getId());
+    }
+
+    @Test
+    void statistics_shouldAggregateAllTasks() {
+        // Given
+        taskService.addTask(new Task.Builder(null, "En retard")
+                .priority(Task.PRIORITY_HIGH)
+                .dueDate(new Date(System.currentTimeMillis() - 60_000L))
+                .pomodoroCount(3)
+                .build());
+        taskService.addTask(new Task.Builder(null, "Terminée en retard")
+                .status(Task.STATUS_COMPLETED)
+                .dueDate(new Date(System.currentTimeMillis() - 60_000L))
+                .pomodoroCount(2)
+                .build());
+        taskService.deleteTask(4L);
+
+        // When
+        TaskStatistics statistics = taskService.getStatistics();
+
+        // Then
+        assertEquals(5L, statistics.getTotal());
+        assertEquals(3L, statistics.getByStatus().get(Task.STATUS_PENDING));
+        assertEquals(2L, statistics.getByStatus().get(Task.STATUS_COMPLETED));
+        assertEquals(0L, statistics.getByStatus().get(Task.STATUS_CANCELLED));
+        assertEquals(1L, statistics.getByPriority().get(Task.PRIORITY_HIGH));
+        assertEquals(1L, statistics.getOverdue());
+        assertEquals(5L, statistics.getPomodoroCount());
+        assertEquals(new TaskService().getStatistics().getByStatus(),
+                new TaskService(new ColumnarTaskRepository()).getStatistics().getByStatus());
+    }
+
+    private static List<Long> ids(List<Task> tasks) {
+        List<Long> ids = new ArrayList<>();
+        tasks.forEach(task -> ids.add(task.getId()));
+        return ids;
+    }
+}
@@ -0,0 +1,199 @@
+package com.todolist.repository;
+
+import com.todolist.model.BulkStatusUpdate;
+import com.todolist.model.Task;
+import com.todolist.model.TaskPage;
+import com.todolist.service.TaskService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcTaskRepositoryTest {
+
+    private DriverManagerDataSource dataSource;
+    private TaskService taskService;
+
+    @BeforeEach
+    void setUp() {
+        // Base H2 en mémoire propre à chaque test
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        taskService = new TaskService(openRepository(3));
+    }
+
+    private JdbcTaskRepository openRepository(int batchSize) {
+        return new JdbcTaskRepository(
+                new JdbcTemplate(dataSource),
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+                batchSize);
+    }
+
+    @Test
+    void newStore_shouldBeSeededOnce() {
+        // When
+        JdbcTaskRepository reopened = openRepository(3);
+
+        // Then
+        assertFalse(reopened.isNewStore());
+        assertEquals(4, reopened.count());
+        assertEquals(4, new TaskService(reopened).getAllTasks().size());
+    }
+
+    @Test
+    void addTask_shouldRoundTripAllFields() {
+        // Given
+        Date dueDate = new Date(1_700_000_000_000L);
+
+        // When
+        Task added = taskService.addTask(new Task.Builder(null, "Tâche JDBC")
+                .description("Décrite")
+                .dueDate(dueDate)
+                .priority(Task.PRIORITY_HIGH)
+                .pomodoroCount(null)
+                .build());
+
+        // Then
+        assertEquals(5L, added.getId());
+        Task stored = taskService.getTaskById(5L).get();
+        assertEquals("Tâche JDBC", stored.getLabel());
+        assertEquals("Décrite", stored.getDescription());
+        assertEquals(dueDate, stored.getDueDate());
+        assertEquals(Task.PRIORITY_HIGH, stored.getPriority());
+        assertNull(stored.getPomodoroCount());
+    }
+
+    @Test
+    void getTasksPage_shouldFilterAndResumeAfterCursor() {
+        // Given
+        taskService.updateTaskStatus(3L, Task.STATUS_IN_PROGRESS);
+
+        // When
+        TaskPage first = taskService.getTasksPage(Task.STATUS_PENDING, null, 0L, 1);
+        TaskPage second = taskService.getTasksPage(Task.STATUS_PENDING, null, first.getLastId(), 1);
+
+        // Then
+        assertEquals(1L, first.getTasks().get(0).getId());
+        assertTrue(first.hasMore());
+        assertEquals(4L, second.getTasks().get(0).getId());
+        assertFalse(second.hasMore());
+        assertEquals(3, taskService.getIncompleteTasksPage(0L, 10).getTasks().size());
+        assertEquals(Arrays.asList(1L, 3L, 4L), ids(taskService.getIncompleteTasks()));
+    }
+
+    @Test
+    void addTasks_shouldInsertInSeveralBatches() {
+        // Given
+        List<Task> newTasks = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            newTasks.add(new Task.Builder(null, "Lot " + i).build());
+        }
+
+        // When
+        List<Task> added = taskService.addTasks(newTasks);
+
+        // Then
+        assertEquals(Arrays.asList(5L, 6L, 7L, 8L, 9L, 10L, 11L), ids(added));
+        assertEquals(11, taskService.getAllTasks().size());
+    }
+
+    @Test
+    void updateTaskStatuses_shouldReportMissingTasks() {
+        // When
+        List<Optional<Task>> results = taskService.updateTaskStatuses(Arrays.asList(
+                new BulkStatusUpdate(1L, Task.STATUS_COMPLETED),
+                new BulkStatusUpdate(99L, Task.STATUS_COMPLETED),
+                new BulkStatusUpdate(4L, Task.STATUS_CANCELLED)));
+
+        // Then
+        assertEquals(Task.STATUS_COMPLETED, results.get(0).get().getStatus());
+        assertFalse(results.get(1).isPresent());
+        assertEquals(Task.STATUS_CANCELLED, results.get(2).get().getStatus());
+        assertEquals(Arrays.asList(3L), ids(taskService.getIncompleteTasks()));
+    }
+
+    @Test
+    void updateTask_shouldPersistChanges() {
+        // Given
+        Task changes = new Task(null, "Nouveau libellé", "Nouvelle description", Task.STATUS_IN_PROGRESS);
+        changes.setPriority(Task.PRIORITY_LOW);
+
+        // When
+        Optional<Task> updated = taskService.updateTask(1L, changes);
+
+        // Then
+        assertTrue(updated.isPresent());
+        Task stored = taskService.getTaskById(1L).get();
+        assertEquals("Nouveau libellé", stored.getLabel());
+        assertEquals(Task.STATUS_IN_PROGRESS, stored.getStatus());
+        assertEquals(Task.PRIORITY_LOW, stored.getPriority());
+        assertEquals(2L, stored.getVersion());
+        assertFalse(taskService.updateTask(99L, changes).isPresent());
+    }
+
+    @Test
+    void update_shouldTrackChangeOnlyOnceCommitted() {
+        // Given
+        JdbcTaskRepository repository = openRepository(3);
+        List<String> seen = new ArrayList<>();
+        TaskWriteTracker tracker = new TaskWriteTracker() {
+            @Override
+            public void updated(Task previous, Task task) {
+                // Relue sur un autre thread, donc une autre connexion : visible seulement si la transaction est validée
+                seen.add(CompletableFuture.supplyAsync(() -> repository.findById(task.getId())).join()
+                        .orElseThrow().getLabel());
+            }
+        };
+
+        // When
+        repository.update(1L, task -> task.setLabel("Validée"), tracker);
+
+        // Then
+        assertEquals(List.of("Validée"), seen);
+    }
+
+    @Test
+    void updateTaskStatuses_withRolledBackBatch_shouldLeaveChangesAndIndexesUntouched() {
+        // Given : un statut trop long pour sa colonne fait échouer le batch après la première modification
+        long since = taskService.getChanges(0L, 1).getSequence();
+        List<BulkStatusUpdate> updates = Arrays.asList(
+                new BulkStatusUpdate(1L, Task.STATUS_COMPLETED),
+                new BulkStatusUpdate(3L, "x".repeat(40)));
+
+        // When
+        assertThrows(DataAccessException.class, () -> taskService.updateTaskStatuses(updates));
+
+        // Then
+        assertTrue(taskService.getChanges(since, 100).getChanges().isEmpty());
+        assertEquals(Task.STATUS_PENDING, taskService.getTaskById(1L).get().getStatus());
+        assertEquals(1L, taskService.getNextTasks(10).stream().filter(task -> task.getId() == 1L).count());
+    }
+
+    @Test
+    void deleteTasks_shouldReportEachId() {
+        // When
+        List<Boolean> results = taskService.deleteTasks(Arrays.asList(1L, 99L, null, 2L, 1L));
+
+        // Then
+        assertEquals(Arrays.asList(true, false, false, true, false), results);
+        assertEquals(Arrays.asList(3L, 4L), ids(taskService.getAllTasks()));
+    }
+
+    private static List<Long> ids(List<Task> tasks) {
+        List<Long> ids = new ArrayList<>();
+        tasks.forEach(task -> ids.add(task.getId()));
+        return ids;
+    }
+}
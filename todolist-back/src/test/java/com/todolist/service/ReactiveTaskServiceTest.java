@@ -0,0 +1,136 @@
+package com.todolist.service;
+
+import com.todolist.model.Task;
+import com.todolist.model.TaskChange;
+import com.todolist.model.TaskPage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReactiveTaskServiceTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private TaskService taskService;
+    private ReactiveTaskService reactiveTaskService;
+
+    @BeforeEach
+    void setUp() {
+        // Les appels au service sont exécutés sur le thread du test
+        taskService = new TaskService();
+        reactiveTaskService = new ReactiveTaskService(taskService, Schedulers.immediate());
+    }
+
+    @AfterEach
+    void tearDown() {
+        reactiveTaskService.close();
+    }
+
+    @Test
+    void streamTasks_shouldReadPagesOnDemand() {
+        // Given : deux pages complètes et une dernière page partielle
+        TaskService pagedService = mock(TaskService.class);
+        int pageSize = ReactiveTaskService.STREAM_PAGE_SIZE;
+        when(pagedService.getTasksPage(isNull(), isNull(), anyLong(), anyInt())).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(2);
+            long lastId = Math.min(afterId + pageSize, 2L * pageSize + 10);
+            List<Task> tasks = new ArrayList<>();
+            for (long id = afterId + 1; id <= lastId; id++) {
+                tasks.add(new Task.Builder(id, "Tâche " + id).build());
+            }
+            return new TaskPage(tasks, lastId, lastId < 2L * pageSize + 10);
+        });
+        ReactiveTaskService service = new ReactiveTaskService(pagedService, Schedulers.immediate());
+
+        // When / Then : une seule page lue tant que le client n'a demandé qu'une tâche
+        StepVerifier.create(service.streamTasks(null, null), 1)
+                .assertNext(task -> assertEquals(1L, task.getId()))
+                .then(() -> verify(pagedService, times(1)).getTasksPage(isNull(), isNull(), anyLong(), anyInt()))
+                .thenRequest(Long.MAX_VALUE)
+                .expectNextCount(2L * pageSize + 8)
+                .assertNext(task -> assertEquals(2L * pageSize + 10, task.getId()))
+                .verifyComplete();
+        verify(pagedService, times(3)).getTasksPage(isNull(), isNull(), anyLong(), anyInt());
+    }
+
+    @Test
+    void streamIncompleteTasks_shouldReturnOnlyIncompleteTasksInOrder() {
+        // When / Then
+        StepVerifier.create(reactiveTaskService.streamIncompleteTasks())
+                .assertNext(task -> assertEquals(1L, task.getId()))
+                .assertNext(task -> assertEquals(3L, task.getId()))
+                .assertNext(task -> assertEquals(4L, task.getId()))
+                .verifyComplete();
+    }
+
+    @Test
+    void getTaskById_withNonExistingId_shouldBeEmpty() {
+        // When / Then
+        StepVerifier.create(reactiveTaskService.getTaskById(99L))
+                .verifyComplete();
+    }
+
+    @Test
+    void updateTaskStatus_withStaleVersion_shouldFailWithConflict() {
+        // When / Then
+        StepVerifier.create(reactiveTaskService.updateTaskStatus(1L, Task.STATUS_COMPLETED, 5L))
+                .expectError(TaskVersionConflictException.class)
+                .verify();
+        assertEquals(Task.STATUS_PENDING, taskService.getTaskById(1L).get().getStatus());
+    }
+
+    @Test
+    void updateTaskStatus_withoutExpectedVersion_shouldUpdateTask() {
+        // When / Then
+        StepVerifier.create(reactiveTaskService.updateTaskStatus(1L, Task.STATUS_COMPLETED, null))
+                .assertNext(task -> assertEquals(Task.STATUS_COMPLETED, task.getStatus()))
+                .verifyComplete();
+    }
+
+    @Test
+    void followChanges_shouldEmitChangesMadeAfterSubscription() {
+        // Given
+        long since = reactiveTaskService.getChangeSequence();
+
+        // When / Then : rien n'est émis avant la première modification
+        StepVerifier.create(reactiveTaskService.followChanges(since))
+                .then(() -> taskService.addTask(new Task.Builder(null, "Suivie").build()))
+                .assertNext(changes -> {
+                    assertFalse(changes.isResyncRequired());
+                    assertEquals(1, changes.getChanges().size());
+                    assertEquals(TaskChange.TYPE_INSERT, changes.getChanges().get(0).getType());
+                    assertEquals(since + 1, changes.getSequence());
+                })
+                .then(() -> taskService.deleteTask(1L))
+                .assertNext(changes -> assertEquals(TaskChange.TYPE_DELETE, changes.getChanges().get(0).getType()))
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void followChanges_fromUnknownSequence_shouldRequestResync() {
+        // When / Then : la première demande réclame toujours une resynchronisation
+        StepVerifier.create(reactiveTaskService.followChanges(0L))
+                .assertNext(changes -> {
+                    assertTrue(changes.isResyncRequired());
+                    assertEquals(reactiveTaskService.getChangeSequence(), changes.getSequence());
+                })
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+}
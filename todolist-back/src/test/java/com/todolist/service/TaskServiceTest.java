@@ -1,21 +1,39 @@
 package com.todolist.service;
 
+import com.todolist.model.BulkStatusUpdate;
 import com.todolist.model.Task;
+import com.todolist.model.TaskChange;
+import com.todolist.model.TaskChanges;
+import com.todolist.model.TaskPage;
+import com.todolist.model.TaskPatch;
+import com.todolist.model.TaskSearchPage;
+import com.todolist.repository.InMemoryTaskRepository;
+import com.todolist.repository.TaskWriteTracker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@ExtendWith(MockitoExtension.class)
 class TaskServiceTest {
 
-    @InjectMocks
+    private static final long HOUR = 3_600_000L;
+
     private TaskService taskService;
 
     @BeforeEach
@@ -132,6 +150,76 @@ class TaskServiceTest {
         assertFalse(result.isPresent());
     }
     
+    @Test
+    void listVersions_shouldOnlyChangeForListsContainingTheTask() {
+        // Given : la tâche 2 est terminée, de priorité moyenne
+        long all = taskService.getListVersion(null, null);
+        long completed = taskService.getListVersion(Task.STATUS_COMPLETED, null);
+        long completedHigh = taskService.getListVersion(Task.STATUS_COMPLETED, Task.PRIORITY_HIGH);
+        long incomplete = taskService.getIncompleteListVersion();
+        long pending = taskService.getListVersion(Task.STATUS_PENDING, null);
+
+        // When
+        Task task = taskService.getTaskById(2L).orElseThrow();
+        task.setLabel("Rappeler le médecin");
+        taskService.updateTask(2L, task);
+
+        // Then
+        assertTrue(taskService.getListVersion(null, null) > all);
+        assertTrue(taskService.getListVersion(Task.STATUS_COMPLETED, null) > completed);
+        assertEquals(completedHigh, taskService.getListVersion(Task.STATUS_COMPLETED, Task.PRIORITY_HIGH));
+        assertEquals(incomplete, taskService.getIncompleteListVersion());
+        assertEquals(pending, taskService.getListVersion(Task.STATUS_PENDING, null));
+
+        // Une tâche qui repasse à faire change la liste des tâches à faire
+        taskService.updateTaskStatus(2L, Task.STATUS_PENDING);
+        assertTrue(taskService.getIncompleteListVersion() > incomplete);
+        assertTrue(taskService.getListVersion(Task.STATUS_PENDING, null) > pending);
+    }
+
+    @Test
+    void patchTask_shouldOnlyChangeFieldsOfThePatch() {
+        // Given
+        Task before = taskService.getTaskById(1L).orElseThrow();
+        TaskPatch patch = new TaskPatch();
+        patch.setDescription(null);
+        patch.setPriority(Task.PRIORITY_HIGH);
+
+        // When
+        Optional<Task> result = taskService.patchTask(1L, patch, before.getVersion());
+
+        // Then
+        assertTrue(result.isPresent());
+        Task patched = taskService.getTaskById(1L).orElseThrow();
+        assertEquals(before.getLabel(), patched.getLabel());
+        assertEquals(before.getStatus(), patched.getStatus());
+        assertNull(patched.getDescription());
+        assertEquals(Task.PRIORITY_HIGH, patched.getPriority());
+        assertEquals(before.getVersion() + 1, patched.getVersion());
+    }
+
+    @Test
+    void patchTask_withEmptyPatch_shouldKeepVersion() {
+        Task before = taskService.getTaskById(1L).orElseThrow();
+
+        Optional<Task> result = taskService.patchTask(1L, new TaskPatch(), null);
+
+        assertTrue(result.isPresent());
+        assertEquals(before.getVersion(), taskService.getTaskById(1L).orElseThrow().getVersion());
+        assertFalse(taskService.patchTask(99L, new TaskPatch(), null).isPresent());
+    }
+
+    @Test
+    void patchTask_withStaleVersion_shouldThrowAndKeepTask() {
+        Task before = taskService.getTaskById(1L).orElseThrow();
+        TaskPatch patch = new TaskPatch();
+        patch.setLabel("Modifiée");
+
+        assertThrows(TaskVersionConflictException.class,
+                () -> taskService.patchTask(1L, patch, before.getVersion() - 1));
+        assertEquals(before.getLabel(), taskService.getTaskById(1L).orElseThrow().getLabel());
+    }
+
     @Test
     void updateTaskStatus_withExistingId_shouldUpdateStatus() {
         // Given
@@ -212,4 +300,613 @@ class TaskServiceTest {
         // Then
         assertFalse(result.isPresent());
     }
+
+    @Test
+    void deleteTask_withExistingId_shouldRemoveTask() {
+        // When
+        boolean deleted = taskService.deleteTask(2L);
+
+        // Then
+        assertTrue(deleted);
+        assertFalse(taskService.getTaskById(2L).isPresent());
+        assertEquals(3, taskService.getAllTasks().size());
+        assertFalse(taskService.deleteTask(2L));
+    }
+
+    @Test
+    void addTask_concurrently_shouldAllocateUniqueIds() throws InterruptedException {
+        // Given
+        int threads = 8;
+        int tasksPerThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // When
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < tasksPerThread; i++) {
+                    taskService.addTask(new Task.Builder(null, "Tâche concurrente").build());
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Then
+        List<Task> allTasks = taskService.getAllTasks();
+        assertEquals(4 + threads * tasksPerThread, allTasks.size());
+        Set<Long> ids = new HashSet<>();
+        for (Task task : allTasks) {
+            assertTrue(ids.add(task.getId()));
+        }
+    }
+
+    @Test
+    void getIncompleteTasks_afterStatusChanges_shouldReflectIndexUpdates() {
+        // Given
+        taskService.updateTaskStatus(1L, Task.STATUS_CANCELLED);
+        taskService.updateTaskStatus(2L, Task.STATUS_IN_PROGRESS);
+        taskService.deleteTask(3L);
+
+        // When
+        List<Task> incompleteTasks = taskService.getIncompleteTasks();
+
+        // Then
+        assertEquals(2, incompleteTasks.size());
+        assertEquals(2L, incompleteTasks.get(0).getId());
+        assertEquals(4L, incompleteTasks.get(1).getId());
+    }
+
+    @Test
+    void getTasks_withStatusAndPriority_shouldReturnIntersection() {
+        // Given
+        Task updatedTask = new Task.Builder(3L, "Réviser pour l'examen")
+                .status(Task.STATUS_PENDING)
+                .priority(Task.PRIORITY_HIGH)
+                .build();
+        taskService.updateTask(3L, updatedTask);
+
+        // When
+        List<Task> pendingHigh = taskService.getTasks(Task.STATUS_PENDING, Task.PRIORITY_HIGH);
+        List<Task> pending = taskService.getTasks(Task.STATUS_PENDING, null);
+        List<Task> completedHigh = taskService.getTasks(Task.STATUS_COMPLETED, Task.PRIORITY_HIGH);
+
+        // Then
+        assertEquals(1, pendingHigh.size());
+        assertEquals(3L, pendingHigh.get(0).getId());
+        assertEquals(3, pending.size());
+        assertTrue(completedHigh.isEmpty());
+    }
+
+    @Test
+    void getTasksPage_shouldResumeAfterCursorDespiteConcurrentChanges() {
+        // When
+        TaskPage firstPage = taskService.getTasksPage(null, null, 0L, 2);
+
+        // Then
+        assertEquals(2, firstPage.getTasks().size());
+        assertEquals(2L, firstPage.getLastId());
+        assertTrue(firstPage.hasMore());
+
+        // Given - a task before the cursor is deleted and a new one is added
+        taskService.deleteTask(1L);
+        Task added = taskService.addTask(new Task.Builder(null, "Nouvelle tâche").build());
+
+        // When
+        TaskPage secondPage = taskService.getTasksPage(null, null, firstPage.getLastId(), 2);
+        TaskPage lastPage = taskService.getTasksPage(null, null, secondPage.getLastId(), 2);
+
+        // Then
+        assertEquals(3L, secondPage.getTasks().get(0).getId());
+        assertEquals(4L, secondPage.getTasks().get(1).getId());
+        assertTrue(secondPage.hasMore());
+        assertEquals(1, lastPage.getTasks().size());
+        assertEquals(added.getId(), lastPage.getTasks().get(0).getId());
+        assertFalse(lastPage.hasMore());
+    }
+
+    @Test
+    void getIncompleteTasksPage_shouldSkipCompletedTasks() {
+        // When
+        TaskPage page = taskService.getIncompleteTasksPage(1L, 10);
+
+        // Then
+        assertEquals(2, page.getTasks().size());
+        assertEquals(3L, page.getTasks().get(0).getId());
+        assertEquals(4L, page.getTasks().get(1).getId());
+        assertFalse(page.hasMore());
+    }
+
+    @Test
+    void addTasks_shouldAllocateConsecutiveIds() {
+        // Given
+        List<Task> newTasks = Arrays.asList(
+                new Task.Builder(null, "Première").build(),
+                new Task.Builder(null, "Seconde").status(Task.STATUS_COMPLETED).build());
+
+        // When
+        List<Task> saved = taskService.addTasks(newTasks);
+
+        // Then
+        assertEquals(5L, saved.get(0).getId());
+        assertEquals(6L, saved.get(1).getId());
+        assertEquals(6, taskService.getAllTasks().size());
+        assertEquals(4, taskService.getIncompleteTasks().size());
+    }
+
+    @Test
+    void updateTaskStatuses_shouldReportMissingTasks() {
+        // When
+        List<Optional<Task>> results = taskService.updateTaskStatuses(Arrays.asList(
+                new BulkStatusUpdate(1L, Task.STATUS_COMPLETED),
+                new BulkStatusUpdate(99L, Task.STATUS_COMPLETED),
+                new BulkStatusUpdate(3L, Task.STATUS_COMPLETED)));
+
+        // Then
+        assertTrue(results.get(0).isPresent());
+        assertFalse(results.get(1).isPresent());
+        assertTrue(results.get(2).isPresent());
+        assertEquals(1, taskService.getIncompleteTasks().size());
+    }
+
+    @Test
+    void deleteTasks_shouldReportEachId() {
+        // When
+        List<Boolean> results = taskService.deleteTasks(Arrays.asList(1L, 99L, 2L));
+
+        // Then
+        assertEquals(Arrays.asList(true, false, true), results);
+        assertEquals(2, taskService.getAllTasks().size());
+        assertEquals(2, taskService.getIncompleteTasks().size());
+    }
+
+    @Test
+    void statusChanges_shouldBeCountedPerTransition() {
+        // Given
+        MeterRegistry registry = new SimpleMeterRegistry();
+        TaskService service = new TaskService(new InMemoryTaskRepository(), registry);
+
+        // When
+        service.updateTaskStatus(1L, Task.STATUS_COMPLETED);
+        service.updateTaskStatus(3L, Task.STATUS_COMPLETED);
+        service.updateTaskStatus(4L, Task.STATUS_PENDING); // Inchangé
+        service.updateTaskStatuses(Arrays.asList(
+                new BulkStatusUpdate(2L, Task.STATUS_PENDING),
+                new BulkStatusUpdate(99L, Task.STATUS_CANCELLED)));
+
+        // Then
+        assertEquals(2.0, registry.get("todolist.tasks.status.transitions")
+                .tag("from", Task.STATUS_PENDING).tag("to", Task.STATUS_COMPLETED).counter().count());
+        assertEquals(1.0, registry.get("todolist.tasks.status.transitions")
+                .tag("from", Task.STATUS_COMPLETED).tag("to", Task.STATUS_PENDING).counter().count());
+        assertEquals(4.0, registry.get("todolist.tasks.stored").gauge().value());
+    }
+
+    @Test
+    void searchTasks_shouldIgnoreCaseAndAccents() {
+        // When
+        TaskSearchPage page = taskService.searchTasks("EXAMEN reviser", 0, 10);
+
+        // Then
+        assertEquals(1, page.getTotal());
+        assertEquals("Réviser pour l'examen", page.getTasks().get(0).getLabel());
+        assertEquals(0, taskService.searchTasks("pour l'", 0, 10).getTotal());
+    }
+
+    @Test
+    void searchTasks_shouldMatchWordPrefixes() {
+        // When
+        TaskSearchPage page = taskService.searchTasks("cour", 0, 10);
+
+        // Then
+        assertEquals(1, page.getTotal());
+        assertEquals(1L, page.getTasks().get(0).getId());
+    }
+
+    @Test
+    void searchTasks_shouldRankLabelMatchesFirstAndPaginate() {
+        // Given
+        taskService.addTask(new Task(null, "Lait d'avoine", "Pour le café", Task.STATUS_PENDING));
+
+        // When
+        TaskSearchPage first = taskService.searchTasks("lait", 0, 1);
+        TaskSearchPage second = taskService.searchTasks("lait", 1, 1);
+
+        // Then
+        assertEquals(2, first.getTotal());
+        assertEquals(5L, first.getTasks().get(0).getId());
+        assertEquals(1L, second.getTasks().get(0).getId());
+    }
+
+    @Test
+    void searchIndex_shouldHandleIdsBeyond32Bits() {
+        // Given : des IDs alloués par un stockage externe, au-delà de 2^31
+        TaskSearchIndex index = new TaskSearchIndex();
+        long big = 5_000_000_000L;
+        index.add(new Task(big, "Facture d'électricité", null, Task.STATUS_PENDING));
+        index.add(new Task(big + 1, "Facture du gaz", "Électricité comprise", Task.STATUS_PENDING));
+
+        // When
+        TaskSearchIndex.Hits hits = index.search("electricite", 0, 10);
+        index.removeAll(List.of(new Task(big, "Facture d'électricité", null, Task.STATUS_PENDING)));
+
+        // Then
+        assertEquals(2, hits.getTotal());
+        assertArrayEquals(new long[]{big, big + 1}, hits.getIds());
+        assertArrayEquals(new long[]{big + 1}, index.search("facture", 0, 10).getIds());
+    }
+
+    @Test
+    void searchTasks_shouldFollowUpdatesAndDeletions() {
+        // Given
+        taskService.updateTask(4L, new Task(null, "Faire du vélo", "Une heure", Task.STATUS_PENDING));
+        taskService.deleteTask(1L);
+
+        // When / Then
+        assertEquals(0, taskService.searchTasks("jogging", 0, 10).getTotal());
+        assertEquals(4L, taskService.searchTasks("velo", 0, 10).getTasks().get(0).getId());
+        assertEquals(1, taskService.searchTasks("faire", 0, 10).getTotal());
+    }
+
+    @Test
+    void dueDateQueries_shouldReturnTasksInDueDateOrder() {
+        // Given
+        long now = System.currentTimeMillis();
+        Task overdue = taskService.addTask(new Task.Builder(null, "En retard").dueDate(new Date(now - HOUR)).build());
+        Task older = taskService.addTask(new Task.Builder(null, "Très en retard").dueDate(new Date(now - 48 * HOUR)).build());
+        Task soon = taskService.addTask(new Task.Builder(null, "Bientôt").dueDate(new Date(now + 2 * HOUR)).build());
+        Task later = taskService.addTask(new Task.Builder(null, "Plus tard").dueDate(new Date(now + 72 * HOUR)).build());
+        taskService.addTask(new Task.Builder(null, "Terminée").status(Task.STATUS_COMPLETED).dueDate(new Date(now - HOUR)).build());
+
+        // When / Then
+        assertEquals(Arrays.asList(older.getId(), overdue.getId()), ids(taskService.getOverdueTasks()));
+        assertEquals(Arrays.asList(soon.getId()), ids(taskService.getTasksDueWithin(Duration.ofHours(24))));
+        assertEquals(Arrays.asList(soon.getId(), later.getId()),
+                ids(taskService.getTasksDueBetween(new Date(now), null, false)));
+        assertEquals(3, taskService.getTasksDueBetween(new Date(now - 2 * HOUR), new Date(now + 3 * HOUR), false).size());
+        assertEquals(2, taskService.getTasksDueBetween(new Date(now - 2 * HOUR), new Date(now + 3 * HOUR), true).size());
+    }
+
+    @Test
+    void dueDateQueries_shouldFollowUpdatesAndDeletions() {
+        // Given
+        long now = System.currentTimeMillis();
+        Task first = taskService.addTask(new Task.Builder(null, "Première").dueDate(new Date(now - HOUR)).build());
+        Task second = taskService.addTask(new Task.Builder(null, "Seconde").dueDate(new Date(now - HOUR)).build());
+        Task postponed = new Task.Builder(null, "Seconde").dueDate(new Date(now + HOUR)).build();
+
+        // When
+        taskService.updateTask(second.getId(), postponed);
+        taskService.updateTask(1L, new Task.Builder(null, "Faire les courses").dueDate(new Date(now - 2 * HOUR)).build());
+        taskService.updateTaskStatus(1L, Task.STATUS_COMPLETED);
+        taskService.deleteTask(first.getId());
+
+        // Then
+        assertTrue(taskService.getOverdueTasks().isEmpty());
+        assertEquals(Arrays.asList(second.getId()), ids(taskService.getTasksDueWithin(Duration.ofHours(2))));
+        assertEquals(Arrays.asList(1L, second.getId()), ids(taskService.getTasksDueBetween(null, null, false)));
+    }
+
+    @Test
+    void getNextTasks_shouldOrderByPriorityThenDueDate() {
+        // Given
+        long now = System.currentTimeMillis();
+        Task urgent = taskService.addTask(new Task.Builder(null, "Urgente").priority(Task.PRIORITY_HIGH).build());
+        Task dueSoon = taskService.addTask(new Task.Builder(null, "Échéance proche").dueDate(new Date(now + HOUR)).build());
+        taskService.addTask(new Task.Builder(null, "Peu importante").priority(Task.PRIORITY_LOW).dueDate(new Date(now - HOUR)).build());
+
+        // When
+        List<Task> next = taskService.getNextTasks(3);
+
+        // Then
+        assertEquals(Arrays.asList(urgent.getId(), dueSoon.getId(), 1L), ids(next));
+        assertEquals(6, taskService.getNextTasks(10).size()); // La tâche 2 est complétée
+    }
+
+    @Test
+    void getNextTasks_shouldFollowStatusPriorityAndDeletion() {
+        // Given
+        Task urgent = taskService.addTask(new Task.Builder(null, "Urgente").priority(Task.PRIORITY_HIGH).build());
+        Task low = taskService.addTask(new Task.Builder(null, "Peu importante").priority(Task.PRIORITY_LOW).build());
+
+        // When / Then
+        taskService.updateTaskStatus(urgent.getId(), Task.STATUS_COMPLETED);
+        assertEquals(Arrays.asList(1L), ids(taskService.getNextTasks(1)));
+
+        taskService.updateTask(low.getId(), new Task.Builder(null, "Devenue urgente").priority(Task.PRIORITY_HIGH).build());
+        assertEquals(Arrays.asList(low.getId()), ids(taskService.getNextTasks(1)));
+
+        taskService.updateTaskStatus(urgent.getId(), Task.STATUS_PENDING);
+        taskService.deleteTask(low.getId());
+        assertEquals(Arrays.asList(urgent.getId(), 1L), ids(taskService.getNextTasks(2)));
+    }
+
+    @Test
+    void storeVersionTag_shouldChangeOnlyAfterModifications() {
+        // Given
+        String initial = taskService.getStoreVersionTag();
+
+        // When / Then
+        taskService.getAllTasks();
+        taskService.updateTaskStatus(99L, Task.STATUS_COMPLETED);
+        assertEquals(initial, taskService.getStoreVersionTag());
+
+        taskService.updateTaskStatus(1L, Task.STATUS_COMPLETED);
+        String afterUpdate = taskService.getStoreVersionTag();
+        assertNotEquals(initial, afterUpdate);
+
+        taskService.deleteTask(2L);
+        assertNotEquals(afterUpdate, taskService.getStoreVersionTag());
+    }
+
+    @Test
+    void storeVersionTag_shouldNotChangeWhenBulkChangesNothing() {
+        // Given
+        String initial = taskService.getStoreVersionTag();
+        long allList = taskService.getListVersion(null, null);
+
+        // When
+        taskService.updateTaskStatuses(List.of(new BulkStatusUpdate(98L, Task.STATUS_COMPLETED),
+                new BulkStatusUpdate(99L, Task.STATUS_COMPLETED)));
+        taskService.deleteTasks(List.of(98L, 99L));
+        taskService.addTasks(List.of());
+
+        // Then
+        assertEquals(initial, taskService.getStoreVersionTag());
+        assertEquals(allList, taskService.getListVersion(null, null));
+        taskService.deleteTasks(List.of(99L, 1L));
+        assertNotEquals(initial, taskService.getStoreVersionTag());
+    }
+
+    @Test
+    void taskVersion_shouldStartAtOneAndIncrementOnEachUpdate() {
+        // Given
+        Task added = taskService.addTask(new Task.Builder(null, "Versionnée").build());
+        String addedTag = taskService.getVersionTag(added);
+
+        // When
+        taskService.updateTaskStatus(added.getId(), Task.STATUS_IN_PROGRESS);
+        Task updated = taskService.updateTaskStatus(added.getId(), Task.STATUS_COMPLETED).get();
+
+        // Then
+        assertEquals(3L, updated.getVersion());
+        assertNotEquals(addedTag, taskService.getVersionTag(updated));
+    }
+
+    @Test
+    void updateTask_withStaleVersion_shouldBeRejectedWithoutChange() {
+        // Given
+        Task changes = new Task(null, "Nouveau libellé", "Nouvelle description", Task.STATUS_IN_PROGRESS);
+        taskService.updateTaskStatus(1L, Task.STATUS_IN_PROGRESS); // Version 2
+
+        // When / Then
+        TaskVersionConflictException conflict = assertThrows(TaskVersionConflictException.class,
+                () -> taskService.updateTask(1L, changes, 1L));
+        assertEquals(2L, conflict.getCurrentVersion());
+        assertEquals("Faire les courses", taskService.getTaskById(1L).get().getLabel());
+
+        Task updated = taskService.updateTask(1L, changes, 2L).get();
+        assertEquals("Nouveau libellé", updated.getLabel());
+        assertEquals(3L, updated.getVersion());
+        assertFalse(taskService.getVersionFromTag(1L, "x").isPresent());
+        assertEquals(3L, taskService.getVersionFromTag(1L, taskService.getVersionTag(updated)).getAsLong());
+        assertFalse(taskService.getVersionFromTag(2L, taskService.getVersionTag(updated)).isPresent());
+    }
+
+    @Test
+    void conditionalUpdates_concurrently_shouldApplyEachRetryExactlyOnce() throws InterruptedException {
+        // Given
+        int threads = 8;
+        int updatesPerThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // When : chaque écrivain relit la tâche et réessaie tant que sa version est dépassée
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < updatesPerThread; i++) {
+                    while (true) {
+                        Task current = taskService.getTaskById(1L).get();
+                        try {
+                            taskService.updateTask(1L, new Task(null, "Révision " + (current.getVersion() + 1),
+                                    "Révision " + (current.getVersion() + 1), Task.STATUS_PENDING), current.getVersion());
+                            break;
+                        } catch (TaskVersionConflictException e) {
+                            // Version dépassée : relire et réessayer
+                        }
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Then : aucune mise à jour perdue, libellé et description toujours cohérents
+        Task task = taskService.getTaskById(1L).get();
+        assertEquals(1L + threads * updatesPerThread, task.getVersion());
+        assertEquals("Révision " + task.getVersion(), task.getLabel());
+        assertEquals(task.getLabel(), task.getDescription());
+    }
+
+    @Test
+    void updateTask_shouldNotModifyPublishedInstances() {
+        // Given
+        Task published = taskService.getTaskById(1L).get();
+
+        // When
+        taskService.updateTask(1L, new Task(null, "Nouveau libellé", "Nouvelle description", Task.STATUS_IN_PROGRESS));
+
+        // Then : l'instance déjà lue n'est pas modifiée
+        assertEquals("Faire les courses", published.getLabel());
+        assertEquals(1L, published.getVersion());
+        assertEquals("Nouveau libellé", taskService.getTaskById(1L).get().getLabel());
+    }
+
+    @Test
+    void storedTasks_shouldKeepEveryFieldIncludingNonStandardValues() {
+        // Given
+        Date createdAt = new Date(1_000L);
+        Date dueDate = new Date(5 * HOUR);
+        Task added = taskService.addTask(new Task.Builder(null, "Compacte")
+                .description("Statut et priorité hors des valeurs connues")
+                .status("blocked")
+                .priority("urgent")
+                .createdAt(createdAt)
+                .updatedAt(null)
+                .dueDate(dueDate)
+                .pomodoroCount(null)
+                .build());
+
+        // When : modifier l'instance renvoyée ne change pas la tâche stockée
+        added.setLabel("Modifiée par l'appelant");
+        Task stored = taskService.getTaskById(added.getId()).get();
+
+        // Then
+        assertEquals("Compacte", stored.getLabel());
+        assertEquals("Statut et priorité hors des valeurs connues", stored.getDescription());
+        assertEquals("blocked", stored.getStatus());
+        assertEquals("urgent", stored.getPriority());
+        assertEquals(createdAt, stored.getCreatedAt());
+        assertNull(stored.getUpdatedAt());
+        assertEquals(dueDate, stored.getDueDate());
+        assertNull(stored.getPomodoroCount());
+        assertEquals(1L, stored.getVersion());
+        assertNotSame(stored, taskService.getTaskById(added.getId()).get());
+    }
+
+    @Test
+    void getChanges_shouldReturnChangesInOrderSinceSequence() {
+        // Given : une première demande, qui réclame toujours une resynchronisation
+        TaskChanges start = taskService.getChanges(0L, 100);
+        assertTrue(start.isResyncRequired());
+
+        // When
+        Task added = taskService.addTask(new Task.Builder(null, "Synchronisée").build());
+        taskService.updateTaskStatus(added.getId(), Task.STATUS_COMPLETED);
+        taskService.deleteTasks(Arrays.asList(2L, 99L));
+        TaskChanges changes = taskService.getChanges(start.getSequence(), 100);
+
+        // Then
+        assertFalse(changes.isResyncRequired());
+        assertFalse(changes.hasMore());
+        assertEquals(3, changes.getChanges().size());
+        assertEquals(start.getSequence() + 3, changes.getSequence());
+        TaskChange insert = changes.getChanges().get(0);
+        assertEquals(TaskChange.TYPE_INSERT, insert.getType());
+        assertEquals(start.getSequence() + 1, insert.getSequence());
+        assertEquals("Synchronisée", insert.getTask().getLabel());
+        TaskChange update = changes.getChanges().get(1);
+        assertEquals(TaskChange.TYPE_UPDATE, update.getType());
+        assertEquals(Task.STATUS_COMPLETED, update.getTask().getStatus());
+        assertEquals(2L, update.getTask().getVersion());
+        TaskChange delete = changes.getChanges().get(2);
+        assertEquals(TaskChange.TYPE_DELETE, delete.getType());
+        assertEquals(2L, delete.getId());
+        assertNull(delete.getTask());
+
+        TaskChanges firstOnly = taskService.getChanges(start.getSequence(), 1);
+        assertTrue(firstOnly.hasMore());
+        assertEquals(start.getSequence() + 1, firstOnly.getSequence());
+        assertTrue(taskService.getChanges(changes.getSequence(), 100).getChanges().isEmpty());
+    }
+
+    @Test
+    void getChanges_withRejectedUpdate_shouldRecordNothing() {
+        // Given
+        long since = taskService.getChanges(0L, 1).getSequence();
+
+        // When
+        assertThrows(TaskVersionConflictException.class,
+                () -> taskService.updateTaskStatus(1L, Task.STATUS_COMPLETED, 5L));
+
+        // Then
+        assertTrue(taskService.getChanges(since, 100).getChanges().isEmpty());
+    }
+
+    @Test
+    void changeLog_whenClientFellBehind_shouldRequireResync() {
+        // Given
+        TaskChangeLog changeLog = new TaskChangeLog(2);
+        long since = changeLog.since(0L, 10).getSequence();
+        Task task = new Task.Builder(1L, "Tâche").build();
+
+        // When
+        changeLog.inserted(List.of(task));
+        changeLog.updated(task, 2L);
+        changeLog.updated(task, 3L);
+
+        // Then
+        TaskChanges lost = changeLog.since(since, 10);
+        assertTrue(lost.isResyncRequired());
+        assertEquals(since + 3, lost.getSequence());
+        assertEquals(2, changeLog.since(since + 1, 10).getChanges().size());
+        assertTrue(changeLog.since(since + 4, 10).isResyncRequired());
+    }
+
+    @Test
+    void insert_shouldTrackTaskBeforeItCanBeUpdated() {
+        // Given
+        InMemoryTaskRepository repository = new InMemoryTaskRepository();
+        List<String> events = new ArrayList<>();
+        TaskWriteTracker tracker = new TaskWriteTracker() {
+            @Override
+            public void inserted(List<Task> tasks) {
+                // Une modification concurrente ne trouve pas encore la tâche
+                events.add("inserted:" + repository.update(tasks.get(0).getId(), task -> task.setLabel("Trop tôt")).isPresent());
+            }
+
+            @Override
+            public void updated(Task previous, Task task) {
+                events.add("updated:" + previous.getLabel() + ">" + task.getLabel() + ":" + task.getVersion());
+            }
+        };
+
+        // When
+        Task added = repository.insert(new Task(null, "Tâche", null, Task.STATUS_PENDING), tracker);
+        repository.update(added.getId(), task -> task.setLabel("Modifiée"), tracker);
+
+        // Then
+        assertEquals(List.of("inserted:false", "updated:Tâche>Modifiée:2"), events);
+    }
+
+    @Test
+    void getTasksPage_withConcurrentInserts_shouldNotSkipLaterPublishedIds() throws Exception {
+        // Given : la première insertion reste en cours pendant que la seconde se termine
+        InMemoryTaskRepository repository = new InMemoryTaskRepository();
+        CountDownLatch tracked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TaskWriteTracker slowTracker = new TaskWriteTracker() {
+            @Override
+            public void inserted(List<Task> tasks) {
+                tracked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<Task> first = executor.submit(() -> repository.insert(new Task(null, "Lente", null, Task.STATUS_PENDING), slowTracker));
+        assertTrue(tracked.await(5, TimeUnit.SECONDS));
+        Task second = repository.insert(new Task(null, "Rapide", null, Task.STATUS_PENDING));
+
+        // When
+        TaskPage during = repository.findPage(null, null, 0L, 10);
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+        TaskPage after = repository.findPage(null, null, 0L, 10);
+
+        // Then
+        assertEquals(2L, second.getId());
+        assertTrue(during.getTasks().isEmpty());
+        assertNull(during.getLastId());
+        assertEquals(Arrays.asList(1L, 2L), ids(after.getTasks()));
+        assertEquals(Arrays.asList(1L, 2L), ids(repository.findIncompletePage(0L, 10).getTasks()));
+    }
+
+    private static List<Long> ids(List<Task> tasks) {
+        List<Long> ids = new ArrayList<>();
+        tasks.forEach(task -> ids.add(task.getId()));
+        return ids;
+    }
 }
@@ -0,0 +1,80 @@
+package com.todolist.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todolist.model.Task;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outils communs aux tests de charge, lancés contre un backend déjà démarré
+ */
+final class LoadTests {
+
+    private static final int SEED_BATCH_SIZE = 1000;
+
+    private LoadTests() {
+    }
+
+    /**
+     * @param args Options sous la forme {@code nom=valeur}
+     * @return Valeur de chaque option, par nom
+     */
+    static Map<String, String> options(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Option attendue sous la forme nom=valeur : " + arg);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    /**
+     * Ajoute des tâches du jeu de données des benchmarks, par lots
+     * @param bulkUri Endpoint d'ajout par lots
+     * @param count Nombre de tâches à ajouter
+     */
+    static void seed(URI bulkUri, int count) throws IOException, InterruptedException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        HttpClient client = HttpClient.newHttpClient();
+        for (int offset = 0; offset < count; offset += SEED_BATCH_SIZE) {
+            List<Task> batch = new ArrayList<>(SEED_BATCH_SIZE);
+            for (int i = offset; i < Math.min(count, offset + SEED_BATCH_SIZE); i++) {
+                batch.add(TaskDataset.task(i));
+            }
+            HttpRequest request = HttpRequest.newBuilder(bulkUri)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(batch)))
+                    .build();
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 200) {
+                throw new IOException("Ajout des tâches refusé : " + response.statusCode());
+            }
+        }
+        System.out.printf("%d tâches ajoutées%n", count);
+    }
+
+    /**
+     * @param sorted Durées triées, au moins une
+     * @param quantile Quantile entre 0 et 1
+     * @return Durée du quantile
+     */
+    static long percentile(long[] sorted, double quantile) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+    }
+
+    static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
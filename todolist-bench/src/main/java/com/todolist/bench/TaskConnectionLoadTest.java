@@ -0,0 +1,271 @@
+package com.todolist.bench;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test de charge des connexions simultanées : des clients lents lisent chacun la
+ * liste complète des tâches à débit limité, comme des navigateurs sur un réseau
+ * médiocre, et l'on compte les connexions effectivement servies.
+ * <p>
+ * À lancer contre un backend déjà démarré, une fois avec la pile servlet et une
+ * fois avec la pile réactive, sur la même machine. Avec la pile servlet, chaque
+ * réponse en cours d'écriture occupe un thread de Tomcat ; avec la pile réactive,
+ * une réponse en attente du client n'occupe aucun thread et les connexions
+ * servies ne sont plus limitées que par la mémoire et les descripteurs.
+ * <p>
+ * Toutes les connexions sont portées par un seul thread et un sélecteur NIO, si
+ * bien que le client ne limite pas lui-même la mesure. Options, sous la forme
+ * {@code nom=valeur} :
+ * <ul>
+ *     <li>{@code url} : liste lue par chaque connexion ({@code http://localhost:8080/api/tasks})</li>
+ *     <li>{@code connections} : connexions ouvertes (2000)</li>
+ *     <li>{@code tasks} : tâches ajoutées avant la mesure, 0 pour n'en ajouter aucune (20000)</li>
+ *     <li>{@code rate} : octets lus par seconde et par connexion (16384)</li>
+ *     <li>{@code duration} : durée de la mesure en secondes (30)</li>
+ * </ul>
+ */
+public final class TaskConnectionLoadTest {
+
+    private static final int TICKS_PER_SECOND = 10;
+    private static final long TICK_NANOS = TimeUnit.SECONDS.toNanos(1) / TICKS_PER_SECOND;
+    /** Connexions ouvertes par intervalle, pour ne pas déborder la file d'acceptation du serveur */
+    private static final int OPENED_PER_TICK = 100;
+    /** Tampon de réception réduit, pour que le serveur attende réellement les clients lents */
+    private static final int RECEIVE_BUFFER_SIZE = 16 * 1024;
+
+    /**
+     * État d'une connexion de test
+     */
+    private static final class Connection {
+
+        final SocketChannel channel;
+        final ByteBuffer request;
+        final long openedAt;
+        long firstByteAt;
+        long bytes;
+        long allowance;
+        int status;
+        boolean connected;
+        boolean completed;
+        boolean failed;
+
+        Connection(SocketChannel channel, ByteBuffer request, long openedAt) {
+            this.channel = channel;
+            this.request = request;
+            this.openedAt = openedAt;
+        }
+
+        boolean isOpen() {
+            return !completed && !failed;
+        }
+    }
+
+    private TaskConnectionLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = LoadTests.options(args);
+        URI uri = URI.create(options.getOrDefault("url", "http://localhost:8080/api/tasks"));
+        int connections = Integer.parseInt(options.getOrDefault("connections", "2000"));
+        int tasks = Integer.parseInt(options.getOrDefault("tasks", "20000"));
+        int rate = Integer.parseInt(options.getOrDefault("rate", "16384"));
+        int duration = Integer.parseInt(options.getOrDefault("duration", "30"));
+
+        if (tasks > 0) {
+            LoadTests.seed(uri.resolve("/api/tasks/bulk"), tasks);
+        }
+        List<Connection> results = run(uri, connections, rate / TICKS_PER_SECOND, TimeUnit.SECONDS.toNanos(duration));
+        report(results, duration);
+    }
+
+    /**
+     * Ouvre les connexions au fil de la mesure et lit les réponses à débit limité
+     * @param uri Liste lue par chaque connexion
+     * @param connections Nombre de connexions à ouvrir
+     * @param bytesPerTick Octets lus par intervalle et par connexion
+     * @param durationNanos Durée de la mesure
+     * @return État final de chaque connexion ouverte
+     */
+    private static List<Connection> run(URI uri, int connections, int bytesPerTick, long durationNanos) throws IOException {
+        InetSocketAddress address = new InetSocketAddress(uri.getHost(), uri.getPort() < 0 ? 80 : uri.getPort());
+        String path = uri.getRawQuery() == null ? uri.getRawPath() : uri.getRawPath() + "?" + uri.getRawQuery();
+        byte[] request = ("GET " + path + " HTTP/1.1\r\n"
+                + "Host: " + uri.getHost() + "\r\n"
+                + "Accept: application/json\r\n"
+                + "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+        List<Connection> opened = new ArrayList<>(connections);
+        ByteBuffer readBuffer = ByteBuffer.allocateDirect(64 * 1024);
+
+        try (Selector selector = Selector.open()) {
+            long start = System.nanoTime();
+            long deadline = start + durationNanos;
+            long nextTick = start;
+            while (true) {
+                long now = System.nanoTime();
+                if (now >= deadline) {
+                    break;
+                }
+                if (now >= nextTick) {
+                    for (int i = 0; i < OPENED_PER_TICK && opened.size() < connections; i++) {
+                        opened.add(open(selector, address, request));
+                    }
+                    // Nouveau crédit de lecture : les connexions qui l'avaient épuisé sont relues
+                    for (Connection connection : opened) {
+                        connection.allowance = bytesPerTick;
+                        SelectionKey key = connection.channel.keyFor(selector);
+                        if (connection.connected && connection.isOpen() && !connection.request.hasRemaining()
+                                && key != null && key.isValid()) {
+                            key.interestOps(SelectionKey.OP_READ);
+                        }
+                    }
+                    nextTick += TICK_NANOS;
+                }
+                selector.select(Math.max(1L, TimeUnit.NANOSECONDS.toMillis(nextTick - System.nanoTime())));
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    Connection connection = (Connection) key.attachment();
+                    try {
+                        handle(key, connection, readBuffer);
+                    } catch (IOException e) {
+                        connection.failed = true;
+                        close(connection);
+                    }
+                }
+            }
+        }
+        for (Connection connection : opened) {
+            close(connection);
+        }
+        return opened;
+    }
+
+    private static Connection open(Selector selector, InetSocketAddress address, byte[] request) throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.SO_RCVBUF, RECEIVE_BUFFER_SIZE);
+        Connection connection = new Connection(channel, ByteBuffer.wrap(request), System.nanoTime());
+        try {
+            if (channel.connect(address)) {
+                connection.connected = true;
+                channel.register(selector, SelectionKey.OP_WRITE, connection);
+            } else {
+                channel.register(selector, SelectionKey.OP_CONNECT, connection);
+            }
+        } catch (IOException e) {
+            connection.failed = true;
+            close(connection);
+        }
+        return connection;
+    }
+
+    private static void handle(SelectionKey key, Connection connection, ByteBuffer readBuffer) throws IOException {
+        if (key.isConnectable() && connection.channel.finishConnect()) {
+            connection.connected = true;
+            key.interestOps(SelectionKey.OP_WRITE);
+        } else if (key.isWritable()) {
+            connection.channel.write(connection.request);
+            if (!connection.request.hasRemaining()) {
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        } else if (key.isReadable()) {
+            if (connection.allowance <= 0) {
+                key.interestOps(0);
+                return;
+            }
+            readBuffer.clear().limit((int) Math.min(readBuffer.capacity(), connection.allowance));
+            int read = connection.channel.read(readBuffer);
+            if (read < 0) {
+                connection.completed = true;
+                close(connection);
+                return;
+            }
+            if (read > 0 && connection.firstByteAt == 0) {
+                connection.firstByteAt = System.nanoTime();
+                connection.status = status(readBuffer);
+            }
+            connection.bytes += read;
+            connection.allowance -= read;
+            if (connection.allowance <= 0) {
+                key.interestOps(0);
+            }
+        }
+    }
+
+    /**
+     * @return Code de la ligne de statut HTTP au début de la réponse, ou 0 si elle n'a pas été reçue en entier
+     */
+    private static int status(ByteBuffer firstBytes) {
+        ByteBuffer received = firstBytes.duplicate().flip();
+        if (received.remaining() < 12) {
+            return 0;
+        }
+        byte[] statusLine = new byte[12];
+        received.get(statusLine);
+        try {
+            return Integer.parseInt(new String(statusLine, 9, 3, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static void close(Connection connection) {
+        try {
+            connection.channel.close();
+        } catch (IOException e) {
+            // Connexion déjà perdue
+        }
+    }
+
+    private static void report(List<Connection> connections, int durationSeconds) {
+        int connected = 0;
+        int completed = 0;
+        int failed = 0;
+        int rejected = 0;
+        long bytes = 0;
+        List<Long> firstByteNanos = new ArrayList<>(connections.size());
+        for (Connection connection : connections) {
+            connected += connection.connected ? 1 : 0;
+            completed += connection.completed ? 1 : 0;
+            failed += connection.failed ? 1 : 0;
+            bytes += connection.bytes;
+            if (connection.firstByteAt != 0) {
+                if (connection.status / 100 == 2) {
+                    firstByteNanos.add(connection.firstByteAt - connection.openedAt);
+                } else {
+                    rejected++;
+                }
+            }
+        }
+        long[] sorted = firstByteNanos.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+
+        System.out.printf("%nConnexions ouvertes : %d, établies : %d, en erreur : %d%n",
+                connections.size(), connected, failed);
+        System.out.printf("Servies (premier octet reçu, statut 2xx) : %d, refusées (autre statut) : %d, "
+                + "réponses terminées : %d%n", sorted.length, rejected, completed);
+        System.out.printf("Jamais servies pendant %d s : %d%n",
+                durationSeconds, connections.size() - sorted.length - rejected);
+        if (sorted.length > 0) {
+            System.out.printf("Délai du premier octet (ms) : p50 %.1f, p99 %.1f, max %.1f%n",
+                    LoadTests.millis(LoadTests.percentile(sorted, 0.50)), LoadTests.millis(LoadTests.percentile(sorted, 0.99)),
+                    LoadTests.millis(sorted[sorted.length - 1]));
+        }
+        System.out.printf("Octets reçus : %d (%.1f Mo/s)%n", bytes, bytes / 1e6 / durationSeconds);
+    }
+}
@@ -0,0 +1,101 @@
+package com.todolist.bench;
+
+import com.todolist.model.Task;
+import com.todolist.repository.InMemoryTaskRepository;
+import com.todolist.repository.TaskRepository;
+import com.todolist.service.TaskService;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Jeux de données des benchmarks : tâches aux statuts et priorités répartis
+ * uniformément et une échéance sur deux. Les textes combinent un vocabulaire
+ * restreint, comme de vraies tâches : l'index de recherche reste de taille
+ * réaliste même avec dix millions de tâches.
+ */
+final class TaskDataset {
+
+    private static final String[] STATUSES = {
+            Task.STATUS_PENDING, Task.STATUS_IN_PROGRESS, Task.STATUS_COMPLETED, Task.STATUS_CANCELLED
+    };
+    private static final String[] PRIORITIES = {Task.PRIORITY_LOW, Task.PRIORITY_MEDIUM, Task.PRIORITY_HIGH};
+    private static final String[] ACTIONS = {
+            "Préparer", "Relire", "Envoyer", "Ranger", "Planifier", "Réparer", "Acheter", "Appeler", "Réviser", "Nettoyer"
+    };
+    private static final String[] SUBJECTS = {
+            "le rapport", "la réunion", "les courses", "le garage", "le devis", "la facture", "l'examen",
+            "le dossier", "la présentation", "le jardin", "les billets", "le contrat"
+    };
+    private static final String[] DETAILS = {
+            "avant vendredi", "avec l'équipe", "pour le client", "en priorité", "dès que possible",
+            "après la pause", "selon la liste", "sans oublier les annexes"
+    };
+    private static final int CHUNK_SIZE = 100_000;
+    private static final long EPOCH = 1_700_000_000_000L;
+
+    private TaskDataset() {
+    }
+
+    /**
+     * Crée un service en mémoire contenant exactement {@code size} tâches, d'IDs 1 à {@code size}
+     * @param size Nombre de tâches, au moins 4 (tâches d'exemple comprises)
+     */
+    static TaskService service(int size) {
+        return service(size, new InMemoryTaskRepository());
+    }
+
+    /**
+     * Crée un service sur le stockage donné, contenant exactement {@code size} tâches, d'IDs 1 à {@code size}
+     * @param size Nombre de tâches, au moins 4 (tâches d'exemple comprises)
+     * @param repository Stockage vide
+     */
+    static TaskService service(int size, TaskRepository repository) {
+        TaskService service = new TaskService(repository);
+        int remaining = size - service.getAllTasks().size();
+        int offset = 0;
+        while (remaining > 0) {
+            int count = Math.min(CHUNK_SIZE, remaining);
+            List<Task> chunk = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                chunk.add(task(offset + i));
+            }
+            service.addTasks(chunk);
+            offset += count;
+            remaining -= count;
+        }
+        return service;
+    }
+
+    /**
+     * @param size Nombre de tâches
+     * @return Liste de tâches avec leur ID, sans passer par un service
+     */
+    static List<Task> list(int size) {
+        List<Task> tasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Task task = task(i);
+            task.setId(i + 1L);
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    /**
+     * @param n Numéro de la tâche, qui détermine son contenu
+     * @return Nouvelle tâche sans ID
+     */
+    static Task task(int n) {
+        String subject = SUBJECTS[(n / ACTIONS.length) % SUBJECTS.length];
+        return new Task.Builder(null, ACTIONS[n % ACTIONS.length] + " " + subject)
+                .description("Penser à " + subject + " " + DETAILS[n % DETAILS.length] + ", étape " + (n % 7 + 1))
+                .status(STATUSES[n % STATUSES.length])
+                .priority(PRIORITIES[n % PRIORITIES.length])
+                .createdAt(new Date(EPOCH + n * 1000L))
+                .updatedAt(new Date(EPOCH + n * 1000L))
+                .dueDate(n % 2 == 0 ? new Date(EPOCH + n * 60_000L) : null)
+                .pomodoroCount(n % 5)
+                .build();
+    }
+}
@@ -0,0 +1,93 @@
+package com.todolist.bench;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.todolist.model.Task;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodage et décodage d'une liste de tâches en JSON, CBOR et Smile, avec des
+ * mappers configurés comme les convertisseurs du backend. La taille de la charge
+ * utile de chaque format est affichée au démarrage de chaque combinaison de
+ * paramètres, en octets au total et par tâche.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskEncodingBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    String format;
+
+    @Param({"10", "1000", "100000"})
+    int listSize;
+
+    ObjectWriter writer;
+    ObjectReader reader;
+    List<Task> tasks;
+    byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        TypeReference<List<Task>> type = new TypeReference<List<Task>>() { };
+        ObjectMapper objectMapper = objectMapper(format);
+        writer = objectMapper.writerFor(type);
+        reader = objectMapper.readerFor(type);
+        tasks = TaskDataset.list(listSize);
+        payload = writer.writeValueAsBytes(tasks);
+        System.out.printf("%n%s, %d tâches : %d octets (%.1f par tâche)%n",
+                format, listSize, payload.length, (double) payload.length / listSize);
+    }
+
+    private static ObjectMapper objectMapper(String format) {
+        JsonFactory factory;
+        switch (format) {
+            case "cbor":
+                factory = new CBORFactory();
+                break;
+            case "smile":
+                factory = new SmileFactory();
+                break;
+            default:
+                factory = new JsonFactory();
+        }
+        return Jackson2ObjectMapperBuilder.json()
+                .factory(factory)
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    @Benchmark
+    public byte[] encodeTaskList() throws IOException {
+        return writer.writeValueAsBytes(tasks);
+    }
+
+    @Benchmark
+    public List<Task> decodeTaskList() throws IOException {
+        return reader.readValue(payload);
+    }
+}
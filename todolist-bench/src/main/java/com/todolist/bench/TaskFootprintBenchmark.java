@@ -0,0 +1,103 @@
+package com.todolist.bench;
+
+import com.todolist.model.CompactTask;
+import com.todolist.model.Task;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Empreinte mémoire d'une tâche stockée, sous forme de {@link Task} ou de
+ * {@link CompactTask}. Les benchmarks {@code retain*} copient une liste de
+ * tâches comme le ferait le stockage, en partageant libellés et descriptions :
+ * avec {@code -prof gc}, {@code gc.alloc.rate.norm} divisé par {@code listSize}
+ * donne les octets retenus par tâche. Les autres mesurent le coût d'une conversion
+ * ou de la lecture d'une liste.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskFootprintBenchmark {
+
+    @Param({"1000"})
+    int listSize;
+
+    List<Task> tasks;
+    List<CompactTask> compactTasks;
+
+    @Setup
+    public void setUp() {
+        tasks = TaskDataset.list(listSize);
+        compactTasks = new ArrayList<>(listSize);
+        tasks.forEach(task -> compactTasks.add(CompactTask.of(task)));
+    }
+
+    @Benchmark
+    public List<Task> retainTasks() {
+        List<Task> copies = new ArrayList<>(listSize);
+        for (Task task : tasks) {
+            copies.add(new Task.Builder(task.getId(), task.getLabel())
+                    .description(task.getDescription())
+                    .status(task.getStatus())
+                    .priority(task.getPriority())
+                    .createdAt(copy(task.getCreatedAt()))
+                    .updatedAt(copy(task.getUpdatedAt()))
+                    .dueDate(copy(task.getDueDate()))
+                    .pomodoroCount(task.getPomodoroCount())
+                    .version(task.getVersion())
+                    .build());
+        }
+        return copies;
+    }
+
+    @Benchmark
+    public List<CompactTask> retainCompactTasks() {
+        List<CompactTask> copies = new ArrayList<>(listSize);
+        for (Task task : tasks) {
+            copies.add(CompactTask.of(task));
+        }
+        return copies;
+    }
+
+    @Benchmark
+    public CompactTask toCompactTask() {
+        return CompactTask.of(tasks.get(0));
+    }
+
+    @Benchmark
+    public Task toTask() {
+        return compactTasks.get(0).toTask();
+    }
+
+    /**
+     * Lecture d'une liste complète, comme {@code findAll} du stockage {@code memory}
+     */
+    @Benchmark
+    public List<Task> toTasks() {
+        List<Task> result = new ArrayList<>(listSize);
+        for (CompactTask task : compactTasks) {
+            result.add(task.toTask());
+        }
+        return result;
+    }
+
+    private static Date copy(Date date) {
+        return date != null ? new Date(date.getTime()) : null;
+    }
+}
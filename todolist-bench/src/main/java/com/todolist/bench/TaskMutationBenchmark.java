@@ -0,0 +1,100 @@
+package com.todolist.bench;
+
+import com.todolist.model.Task;
+import com.todolist.model.TaskPage;
+import com.todolist.service.TaskService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Créations et suppressions de tâches. Ces opérations modifiant la taille du
+ * stockage, chaque itération mesure un lot de {@value #OPERATIONS} opérations
+ * par thread, après avoir ramené le stockage à sa taille initiale : le score
+ * est la durée du lot. Les variantes {@code Contended} utilisent
+ * {@value #CONTENDED_THREADS} threads, pour que leurs lots de suppressions
+ * tiennent dans le plus petit jeu de données.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, batchSize = TaskMutationBenchmark.OPERATIONS)
+@Measurement(iterations = 20, batchSize = TaskMutationBenchmark.OPERATIONS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class TaskMutationBenchmark {
+
+    static final int OPERATIONS = 200;
+    static final int CONTENDED_THREADS = 4;
+    private static final int RESET_PAGE_SIZE = 10_000;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    int size;
+
+    TaskService service;
+    // Prochain ID à supprimer, de 1 à size
+    private final AtomicLong nextDeletion = new AtomicLong();
+    private final AtomicLong nextLabel = new AtomicLong();
+
+    /**
+     * Supprime les tâches créées par l'itération précédente, et ne reconstruit
+     * le stockage que lorsqu'il ne reste plus assez de tâches à supprimer
+     */
+    @Setup(Level.Iteration)
+    public void reset(BenchmarkParams params) {
+        long needed = (long) OPERATIONS * params.getThreads();
+        if (service == null || nextDeletion.get() + needed > size + 1L) {
+            service = TaskDataset.service(size);
+            nextDeletion.set(1L);
+            return;
+        }
+        TaskPage added;
+        do {
+            added = service.getTasksPage(null, null, size, RESET_PAGE_SIZE);
+            List<Long> ids = new ArrayList<>(added.getTasks().size());
+            added.getTasks().forEach(task -> ids.add(task.getId()));
+            service.deleteTasks(ids);
+        } while (added.hasMore());
+    }
+
+    @Benchmark
+    public Task addTask() {
+        return service.addTask(newTask());
+    }
+
+    @Benchmark
+    @Threads(CONTENDED_THREADS)
+    public Task addTaskContended() {
+        return service.addTask(newTask());
+    }
+
+    @Benchmark
+    public boolean deleteTask() {
+        return service.deleteTask(nextDeletion.getAndIncrement());
+    }
+
+    @Benchmark
+    @Threads(CONTENDED_THREADS)
+    public boolean deleteTaskContended() {
+        return service.deleteTask(nextDeletion.getAndIncrement());
+    }
+
+    private Task newTask() {
+        return TaskDataset.task((int) (nextLabel.getAndIncrement() % size));
+    }
+}
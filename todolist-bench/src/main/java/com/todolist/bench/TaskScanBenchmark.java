@@ -0,0 +1,63 @@
+package com.todolist.bench;
+
+import com.todolist.model.Task;
+import com.todolist.model.TaskStatistics;
+import com.todolist.repository.ColumnarTaskRepository;
+import com.todolist.repository.InMemoryTaskRepository;
+import com.todolist.service.TaskService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parcours de tout le stockage : statistiques et liste filtrée par statut et
+ * priorité, sur le stockage en mémoire par objets ({@code memory}) ou par
+ * colonnes ({@code columnar}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class TaskScanBenchmark {
+
+    @Param({"100000", "1000000", "10000000"})
+    int size;
+
+    @Param({"memory", "columnar"})
+    String storage;
+
+    TaskService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        service = TaskDataset.service(size,
+                "columnar".equals(storage) ? new ColumnarTaskRepository() : new InMemoryTaskRepository());
+    }
+
+    @Benchmark
+    public TaskStatistics getStatistics() {
+        return service.getStatistics();
+    }
+
+    /**
+     * Toutes les tâches annulées de priorité haute, soit une tâche sur douze
+     */
+    @Benchmark
+    public List<Task> getFilteredTasks() {
+        return service.getTasks(Task.STATUS_CANCELLED, Task.PRIORITY_HIGH);
+    }
+}
@@ -0,0 +1,129 @@
+package com.todolist.bench;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.todolist.controller.TaskFragmentCache;
+import com.todolist.model.Task;
+import io.micrometer.core.instrument.Metrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sérialisation JSON d'une tâche et d'une liste de tâches, avec un
+ * {@link ObjectMapper} configuré comme celui de Spring Boot. Les variantes
+ * {@code Contended} partagent le même writer entre autant de threads que de processeurs.
+ * Les variantes {@code FromFragments} assemblent la liste à partir des octets
+ * de chaque tâche déjà en cache, comme le backend quand peu de tâches ont changé.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskSerializationBenchmark {
+
+    private static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    @State(Scope.Benchmark)
+    public static class SingleTask {
+        ObjectWriter writer;
+        Task task;
+
+        @Setup
+        public void setUp() {
+            writer = objectMapper().writerFor(Task.class);
+            task = TaskDataset.list(1).get(0);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class TaskList {
+        @Param({"10", "1000", "100000"})
+        int listSize;
+
+        ObjectWriter writer;
+        List<Task> tasks;
+
+        @Setup
+        public void setUp() {
+            writer = objectMapper().writerFor(new TypeReference<List<Task>>() { });
+            tasks = TaskDataset.list(listSize);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class FragmentList {
+        @Param({"10", "1000", "100000"})
+        int listSize;
+
+        TaskFragmentCache fragments;
+        List<Task> tasks;
+
+        @Setup
+        public void setUp() {
+            tasks = TaskDataset.list(listSize);
+            // Versions de tâches stockées, sans lesquelles rien n'est gardé en cache
+            tasks.forEach(task -> task.setVersion(1L));
+            fragments = new TaskFragmentCache(objectMapper(), Metrics.globalRegistry, 1024L * 1024L * 1024L);
+            fragments.toJsonArray(tasks);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeTask(SingleTask state) throws JsonProcessingException {
+        return state.writer.writeValueAsBytes(state.task);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public byte[] serializeTaskContended(SingleTask state) throws JsonProcessingException {
+        return state.writer.writeValueAsBytes(state.task);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public byte[] serializeTaskList(TaskList state) throws JsonProcessingException {
+        return state.writer.writeValueAsBytes(state.tasks);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public byte[] serializeTaskListContended(TaskList state) throws JsonProcessingException {
+        return state.writer.writeValueAsBytes(state.tasks);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public byte[] serializeTaskListFromFragments(FragmentList state) {
+        return state.fragments.toJsonArray(state.tasks);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public byte[] serializeTaskListFromFragmentsContended(FragmentList state) {
+        return state.fragments.toJsonArray(state.tasks);
+    }
+}
@@ -0,0 +1,98 @@
+package com.todolist.bench;
+
+import com.todolist.model.Task;
+import com.todolist.service.TaskService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lectures et modifications du {@link TaskService} sur un stockage en mémoire
+ * de taille constante. Les variantes {@code Contended} s'exécutent sur autant
+ * de threads que de processeurs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class TaskServiceBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    int size;
+
+    TaskService service;
+
+    /** Modifications propres à chaque thread : le statut alterne pour déplacer la tâche dans l'index */
+    @State(Scope.Thread)
+    public static class Updates {
+        private final Task pending = TaskDataset.task(0);
+        private final Task completed = TaskDataset.task(2);
+        private boolean toggle;
+
+        Task next() {
+            toggle = !toggle;
+            return toggle ? completed : pending;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        service = TaskDataset.service(size);
+    }
+
+    @Benchmark
+    public Optional<Task> getTaskById() {
+        return service.getTaskById(randomId());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Optional<Task> getTaskByIdContended() {
+        return service.getTaskById(randomId());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Task> getIncompleteTasks() {
+        return service.getIncompleteTasks();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Task> getIncompleteTasksContended() {
+        return service.getIncompleteTasks();
+    }
+
+    @Benchmark
+    public Optional<Task> updateTask(Updates updates) {
+        return service.updateTask(randomId(), updates.next());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Optional<Task> updateTaskContended(Updates updates) {
+        return service.updateTask(randomId(), updates.next());
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, size + 1L);
+    }
+}
@@ -0,0 +1,170 @@
+package com.todolist.bench;
+
+import com.todolist.model.Task;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Test de charge du mode d'exécution des requêtes : de nombreux clients
+ * simultanés enchaînent chacun lectures et modifications de tâches, et l'on
+ * mesure le débit et la latence des requêtes (p50, p99, p999).
+ * <p>
+ * À lancer contre un backend déjà démarré, une fois sur le pool de threads de
+ * Tomcat ({@code todolist.threads.virtual=false}) et une fois sur threads virtuels,
+ * avec un stockage dont les écritures bloquent (journal synchronisé sur disque ou
+ * JDBC) : sur le pool, au plus {@code server.tomcat.threads.max} requêtes sont
+ * traitées en même temps et les autres attendent un thread.
+ * <p>
+ * Chaque client est un thread virtuel du client de test, qui attend sa réponse
+ * avant d'envoyer la requête suivante ; les clients démarrent progressivement
+ * pendant le préchauffage, dont les requêtes ne sont pas comptées. Options, sous
+ * la forme {@code nom=valeur} :
+ * <ul>
+ *     <li>{@code url} : URL des tâches ({@code http://localhost:8080/api/tasks})</li>
+ *     <li>{@code clients} : clients simultanés (10000)</li>
+ *     <li>{@code tasks} : tâches ajoutées avant la mesure et lues ou modifiées par les clients (10000)</li>
+ *     <li>{@code writes} : pourcentage de modifications de statut, le reste étant des lectures (20)</li>
+ *     <li>{@code warmup} : durée du préchauffage en secondes (10)</li>
+ *     <li>{@code duration} : durée de la mesure en secondes (30)</li>
+ * </ul>
+ */
+public final class TaskThreadingLoadTest {
+
+    private static final String[] STATUSES = {Task.STATUS_PENDING, Task.STATUS_IN_PROGRESS, Task.STATUS_COMPLETED};
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    /**
+     * Durées des requêtes réussies d'un client pendant la mesure, en nanosecondes
+     */
+    private static final class Samples {
+
+        long[] values = new long[256];
+        int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+
+    private TaskThreadingLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = LoadTests.options(args);
+        String url = options.getOrDefault("url", "http://localhost:8080/api/tasks");
+        int clients = Integer.parseInt(options.getOrDefault("clients", "10000"));
+        int tasks = Integer.parseInt(options.getOrDefault("tasks", "10000"));
+        int writes = Integer.parseInt(options.getOrDefault("writes", "20"));
+        long warmupNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("warmup", "10")));
+        long durationNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("duration", "30")));
+
+        if (tasks > 0) {
+            LoadTests.seed(URI.create(url + "/bulk"), tasks);
+        }
+        // Les IDs 1 à 4 sont ceux des tâches d'exemple, présentes au démarrage
+        int maxId = Math.max(4, tasks);
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(REQUEST_TIMEOUT)
+                .build();
+        Samples[] samples = new Samples[clients];
+        LongAdder errors = new LongAdder();
+        long start = System.nanoTime();
+        long measureFrom = start + warmupNanos;
+        long deadline = measureFrom + durationNanos;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                Samples clientSamples = new Samples();
+                samples[i] = clientSamples;
+                // Démarrages étalés sur le préchauffage, pour ne pas déborder la file d'acceptation du serveur
+                long startAt = start + warmupNanos / 2 * i / clients;
+                executor.submit(() -> {
+                    runClient(client, url, maxId, writes, startAt, measureFrom, deadline, clientSamples, errors);
+                    return null;
+                });
+            }
+        }
+        report(samples, errors.sum(), clients, durationNanos);
+    }
+
+    /**
+     * Envoie des requêtes jusqu'à la fin de la mesure, chacune après la réponse à la précédente
+     */
+    private static void runClient(HttpClient client, String url, int maxId, int writes, long startAt,
+                                  long measureFrom, long deadline, Samples samples, LongAdder errors)
+            throws InterruptedException {
+        TimeUnit.NANOSECONDS.sleep(startAt - System.nanoTime());
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            long begin = System.nanoTime();
+            if (begin >= deadline) {
+                return;
+            }
+            long id = 1 + random.nextInt(maxId);
+            HttpRequest request = random.nextInt(100) < writes
+                    ? HttpRequest.newBuilder(URI.create(url + "/" + id + "/status"))
+                            .timeout(REQUEST_TIMEOUT)
+                            .header("Content-Type", "application/json")
+                            .method("PATCH", HttpRequest.BodyPublishers.ofString(
+                                    "{\"status\":\"" + STATUSES[random.nextInt(STATUSES.length)] + "\"}"))
+                            .build()
+                    : HttpRequest.newBuilder(URI.create(url + "/" + id))
+                            .timeout(REQUEST_TIMEOUT)
+                            .build();
+            boolean succeeded;
+            try {
+                succeeded = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() / 100 == 2;
+            } catch (IOException e) {
+                succeeded = false;
+            }
+            long end = System.nanoTime();
+            if (begin >= measureFrom && end <= deadline) {
+                if (succeeded) {
+                    samples.add(end - begin);
+                } else {
+                    errors.increment();
+                }
+            }
+        }
+    }
+
+    private static void report(Samples[] samples, long errors, int clients, long durationNanos) {
+        int count = 0;
+        for (Samples clientSamples : samples) {
+            count += clientSamples.size;
+        }
+        long[] sorted = new long[count];
+        int offset = 0;
+        for (Samples clientSamples : samples) {
+            System.arraycopy(clientSamples.values, 0, sorted, offset, clientSamples.size);
+            offset += clientSamples.size;
+        }
+        Arrays.sort(sorted);
+
+        double seconds = durationNanos / 1e9;
+        System.out.printf("%n%d clients, %d requêtes réussies, %d en erreur ou hors délai%n", clients, count, errors);
+        System.out.printf("Débit : %.0f requêtes/s%n", count / seconds);
+        if (count > 0) {
+            System.out.printf("Latence (ms) : p50 %.1f, p99 %.1f, p999 %.1f, max %.1f%n",
+                    LoadTests.millis(LoadTests.percentile(sorted, 0.50)), LoadTests.millis(LoadTests.percentile(sorted, 0.99)),
+                    LoadTests.millis(LoadTests.percentile(sorted, 0.999)), LoadTests.millis(sorted[count - 1]));
+        }
+    }
+}